@@ -16,6 +16,7 @@
 package io.knotx.fragments.api;
 
 import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import java.util.Objects;
 import java.util.UUID;
@@ -38,7 +39,8 @@ public class Fragment {
   private final String id;
   private final String type;
   private final JsonObject configuration;
-  private String body;
+  // String or not decoded UTF-8 Buffer
+  private Object body;
   private final JsonObject payload;
 
   public Fragment(String type, JsonObject configuration, String body) {
@@ -49,6 +51,22 @@ public class Fragment {
     this.payload = new JsonObject();
   }
 
+  /**
+   * Creates a Fragment with the body kept as UTF-8 bytes (e.g. a slice of the template). The body
+   * is decoded when it is read for the first time.
+   *
+   * @param type - type of a Fragment
+   * @param configuration - configuration of a Fragment
+   * @param body - UTF-8 encoded body of a Fragment
+   */
+  public Fragment(String type, JsonObject configuration, Buffer body) {
+    this.id = UUID.randomUUID().toString();
+    this.type = type;
+    this.configuration = configuration;
+    this.body = body;
+    this.payload = new JsonObject();
+  }
+
   public Fragment(JsonObject json) {
     this.id = json.getString(ID_KEY);
     this.type = json.getString(TYPE_KEY);
@@ -62,7 +80,7 @@ public class Fragment {
         .put(ID_KEY, id)
         .put(TYPE_KEY, type)
         .put(CONFIGURATION_KEY, configuration)
-        .put(BODY_KEY, body)
+        .put(BODY_KEY, getBody())
         .put(PAYLOAD_KEY, payload);
   }
 
@@ -96,6 +114,17 @@ public class Fragment {
     return configuration.copy();
   }
 
+  /**
+   * Configuration of a Fragment without copying it, e.g. to compare configurations of many
+   * fragments in a hot path. The returned object is shared with the Fragment and must not be
+   * modified.
+   *
+   * @return configuration of a Fragment, not a copy.
+   */
+  public JsonObject getConfigurationWithoutCopy() {
+    return configuration;
+  }
+
   /**
    * Contains the body of a Fragment that is the final result of the fragment processing. Body can
    * be updated and transformed many times during processing.
@@ -103,7 +132,27 @@ public class Fragment {
    * @return body of a Fragment.
    */
   public String getBody() {
-    return body;
+    Object current = body;
+    if (current instanceof Buffer) {
+      String decoded = current.toString();
+      body = decoded;
+      return decoded;
+    }
+    return (String) current;
+  }
+
+  /**
+   * Body of a Fragment encoded in UTF-8. When the body has not been decoded yet, its original bytes
+   * are returned without copying.
+   *
+   * @return UTF-8 encoded body of a Fragment or {@code null} when there is no body.
+   */
+  public Buffer getBodyAsBuffer() {
+    Object current = body;
+    if (current instanceof Buffer) {
+      return (Buffer) current;
+    }
+    return current == null ? null : Buffer.buffer((String) current);
   }
 
   public Fragment setBody(String body) {
@@ -168,13 +217,13 @@ public class Fragment {
     return Objects.equals(id, fragment.id) &&
         Objects.equals(type, fragment.type) &&
         Objects.equals(configuration, fragment.configuration) &&
-        Objects.equals(body, fragment.body) &&
+        Objects.equals(getBody(), fragment.getBody()) &&
         Objects.equals(payload, fragment.payload);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, type, configuration, body, payload);
+    return Objects.hash(id, type, configuration, getBody(), payload);
   }
 
   @Override
@@ -183,7 +232,7 @@ public class Fragment {
         "id='" + id + '\'' +
         ", type='" + type + '\'' +
         ", configuration=" + configuration +
-        ", body='" + body + '\'' +
+        ", body='" + getBody() + '\'' +
         ", payload=" + payload +
         '}';
   }
@@ -200,7 +249,7 @@ public class Fragment {
         "id='" + id + '\'' +
         ", type='" + type + '\'' +
         ", configuration=" + configuration +
-        ", body='" + abbreviate(body) + '\'' +
+        ", body='" + abbreviate(getBody()) + '\'' +
         ", payload=" + abbreviate(payload.toString()) +
         '}';
   }
@@ -15,8 +15,12 @@
  */
 package io.knotx.fragments.assembler;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import io.knotx.fragments.api.Fragment;
@@ -26,6 +30,7 @@ import io.knotx.server.api.handler.DefaultRequestContextEngine;
 import io.knotx.server.api.handler.RequestContextEngine;
 import io.knotx.server.api.handler.RequestEventHandlerResult;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.Flowable;
 import io.vertx.core.Handler;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpHeaders;
@@ -35,16 +40,35 @@ import io.vertx.reactivex.ext.web.RoutingContext;
 class FragmentsAssemblerHandler implements Handler<RoutingContext> {
 
   private static final String MISSING_FRAGMENTS_PAYLOAD = "Expected 'fragments' in the routing context are missing!";
+  private static final String FRAGMENTS_STREAM_KEY = "fragmentsStream";
 
   private final RequestContextEngine engine;
+  private final Set<String> allowedResponseHeaders;
 
   FragmentsAssemblerHandler() {
+    this(Collections.emptySet());
+  }
+
+  /**
+   * @param allowedResponseHeaders - names of client response headers sent to the client when
+   * fragments are streamed
+   */
+  FragmentsAssemblerHandler(Set<String> allowedResponseHeaders) {
     engine = new DefaultRequestContextEngine(getClass().getSimpleName());
+    this.allowedResponseHeaders = allowedResponseHeaders.stream()
+        .map(name -> name.toLowerCase(Locale.ROOT))
+        .collect(Collectors.toSet());
   }
 
   @Override
   public void handle(RoutingContext context) {
     RequestContext requestContext = context.get(RequestContext.KEY);
+    Flowable<Fragment> fragmentsStream = context.get(FRAGMENTS_STREAM_KEY);
+    if (fragmentsStream != null) {
+      new FragmentsStreamWriter(context, requestContext, engine, allowedResponseHeaders)
+          .write(fragmentsStream);
+      return;
+    }
     try {
       RequestEventHandlerResult result = joinFragmentsBodies(context,
           requestContext.getRequestEvent());
@@ -58,21 +82,28 @@ class FragmentsAssemblerHandler implements Handler<RoutingContext> {
       RequestEvent requestEvent) {
     final List<Fragment> fragments = context.get("fragments");
 
-    final String responseBody = Optional.ofNullable(fragments)
+    final Buffer responseBody = Optional.ofNullable(fragments)
         .map(this::toResponseBody)
         .orElseThrow(() -> new IllegalStateException(MISSING_FRAGMENTS_PAYLOAD));
 
     return createSuccessResponse(requestEvent, responseBody);
   }
 
-  private String toResponseBody(List<Fragment> fragments) {
-    return fragments.stream()
-        .map(Fragment::getBody)
-        .collect(Collectors.joining());
+  /**
+   * Appends bodies of fragments as UTF-8 bytes, so bodies not decoded yet (e.g. slices of the
+   * template) are copied only once, into the response body.
+   */
+  private Buffer toResponseBody(List<Fragment> fragments) {
+    Buffer responseBody = Buffer.buffer();
+    fragments.stream()
+        .map(Fragment::getBodyAsBuffer)
+        .filter(Objects::nonNull)
+        .forEach(responseBody::appendBuffer);
+    return responseBody;
   }
 
   private RequestEventHandlerResult createSuccessResponse(RequestEvent inputContext,
-      String responseBody) {
+      Buffer responseBody) {
     MultiMap headers = MultiMap.caseInsensitiveMultiMap();
     int statusCode;
 
@@ -82,7 +113,7 @@ class FragmentsAssemblerHandler implements Handler<RoutingContext> {
     statusCode = HttpResponseStatus.OK.code();
 
     return RequestEventHandlerResult.success(inputContext)
-        .withBody(Buffer.buffer(responseBody))
+        .withBody(responseBody)
         .withStatusCode(statusCode)
         .withHeaders(headers);
   }
@@ -17,12 +17,17 @@ package io.knotx.fragments.assembler;
 
 import io.knotx.server.api.handler.RoutingHandlerFactory;
 import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.ext.web.RoutingContext;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class FragmentsAssemblerHandlerFactory implements RoutingHandlerFactory {
 
+  private static final String ALLOWED_RESPONSE_HEADERS_KEY = "allowedResponseHeaders";
+
   @Override
   public String getName() {
     return "fragmentsAssembler";
@@ -30,6 +35,12 @@ public class FragmentsAssemblerHandlerFactory implements RoutingHandlerFactory {
 
   @Override
   public Handler<RoutingContext> create(Vertx vertx, JsonObject config) {
-    return new FragmentsAssemblerHandler();
+    return new FragmentsAssemblerHandler(allowedResponseHeaders(config));
+  }
+
+  private Set<String> allowedResponseHeaders(JsonObject config) {
+    return config.getJsonArray(ALLOWED_RESPONSE_HEADERS_KEY, new JsonArray()).stream()
+        .map(Object::toString)
+        .collect(Collectors.toSet());
   }
 }
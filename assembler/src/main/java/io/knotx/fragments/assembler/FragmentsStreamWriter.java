@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.assembler;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.server.api.context.ClientResponse;
+import io.knotx.server.api.context.RequestContext;
+import io.knotx.server.api.handler.RequestContextEngine;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.reactivex.Flowable;
+import io.reactivex.disposables.Disposable;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.reactivex.core.RxHelper;
+import io.vertx.reactivex.ext.web.RoutingContext;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Writes the stream of fragments to the client with the chunked transfer encoding. Bodies of
+ * fragments emitted together are joined and written as one chunk. When the stream fails before
+ * anything is written, the request fails as usual, later the connection is closed, so the client
+ * does not take the incomplete response as a complete one. The response is written here, not by
+ * the server response writer, so only allowed headers of the client response are copied.
+ */
+class FragmentsStreamWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FragmentsStreamWriter.class);
+
+  private final RoutingContext context;
+  private final RequestContext requestContext;
+  private final RequestContextEngine engine;
+  private final HttpServerResponse response;
+  private final Set<String> allowedResponseHeaders;
+
+  // accessed on the context thread only
+  private Buffer pending;
+  private boolean flushScheduled;
+  private boolean started;
+
+  /**
+   * @param allowedResponseHeaders - lower-cased names of client response headers sent to the client
+   */
+  FragmentsStreamWriter(RoutingContext context, RequestContext requestContext,
+      RequestContextEngine engine, Set<String> allowedResponseHeaders) {
+    this.context = context;
+    this.requestContext = requestContext;
+    this.engine = engine;
+    this.response = context.response().getDelegate();
+    this.allowedResponseHeaders = allowedResponseHeaders;
+  }
+
+  void write(Flowable<Fragment> fragments) {
+    Disposable writing = fragments
+        .observeOn(RxHelper.scheduler(context.vertx()))
+        .subscribe(this::append, this::fail, this::end);
+    if (!writing.isDisposed()) {
+      response.closeHandler(v -> {
+        if (!writing.isDisposed()) {
+          LOGGER.debug("Client closed the connection, fragments streaming is cancelled.");
+          writing.dispose();
+        }
+      });
+    }
+  }
+
+  private void append(Fragment fragment) {
+    Buffer body = fragment.getBodyAsBuffer();
+    if (body == null) {
+      return;
+    }
+    if (pending == null) {
+      pending = Buffer.buffer(body.length());
+    }
+    pending.appendBuffer(body);
+    if (!flushScheduled) {
+      // fragments already processed are emitted one after another, flush them together
+      flushScheduled = true;
+      context.vertx().runOnContext(v -> flush());
+    }
+  }
+
+  private void flush() {
+    flushScheduled = false;
+    if (pending == null || response.closed()) {
+      return;
+    }
+    start();
+    response.write(pending);
+    pending = null;
+  }
+
+  private void end() {
+    flush();
+    if (!response.closed()) {
+      start();
+      response.end();
+    }
+  }
+
+  private void fail(Throwable error) {
+    if (!started) {
+      pending = null;
+      engine.handleFatal(context, requestContext, error);
+    } else {
+      LOGGER.error("Fragments streaming failed, closing the connection.", error);
+      response.close();
+    }
+  }
+
+  private void start() {
+    if (started) {
+      return;
+    }
+    started = true;
+    ClientResponse clientResponse = requestContext.getClientResponse();
+    if (clientResponse != null && clientResponse.getHeaders() != null) {
+      clientResponse.getHeaders().getDelegate().forEach(header -> {
+        if (isAllowed(header.getKey())) {
+          response.headers().add(header.getKey(), header.getValue());
+        }
+      });
+    }
+    response.setStatusCode(HttpResponseStatus.OK.code());
+    response.setChunked(true);
+  }
+
+  private boolean isAllowed(String name) {
+    String lowerCaseName = name.toLowerCase(Locale.ROOT);
+    // the length is unknown and the encoding is chosen by the chunked response
+    return allowedResponseHeaders.contains(lowerCaseName)
+        && !HttpHeaders.CONTENT_LENGTH.toString().equals(lowerCaseName)
+        && !HttpHeaders.TRANSFER_ENCODING.toString().equals(lowerCaseName);
+  }
+}
@@ -20,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -86,4 +87,29 @@ public class FragmentsAssemblerHandlerTest {
         result.getHeaders().get(HttpHeaders.CONTENT_LENGTH));
   }
 
+  @Test
+  @DisplayName("Expect content length in bytes when fragments contain multi-byte characters")
+  public void callAssemblerWithMultiByteFragments_expectContentLengthInBytes() {
+    // given
+    String staticBody = "<p>Za\u017C\u00F3\u0142\u0107 g\u0119\u015Bl\u0105</p>";
+    String dynamicBody = "<p>\u20AC \uD83D\uDE00</p>";
+    FragmentsAssemblerHandler assemblerHandler = new FragmentsAssemblerHandler();
+
+    List<Fragment> fragments = Arrays.asList(
+        new Fragment("_STATIC", new JsonObject(), Buffer.buffer(staticBody)),
+        new Fragment("snippet", new JsonObject(), dynamicBody));
+    when(routingContext.get("fragments")).thenReturn(fragments);
+
+    RequestEvent requestEvent = new RequestEvent(clientRequest, new JsonObject());
+
+    // when
+    RequestEventHandlerResult result = assemblerHandler.joinFragmentsBodies(routingContext, requestEvent);
+
+    // then
+    Buffer expectedBody = Buffer.buffer(staticBody + dynamicBody);
+    assertEquals(expectedBody, result.getBody());
+    assertEquals(Integer.toString(expectedBody.length()),
+        result.getHeaders().get(HttpHeaders.CONTENT_LENGTH));
+  }
+
 }
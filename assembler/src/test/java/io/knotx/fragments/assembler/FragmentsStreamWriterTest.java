@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.assembler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.server.api.context.ClientRequest;
+import io.knotx.server.api.context.RequestContext;
+import io.knotx.server.api.context.RequestEvent;
+import io.knotx.server.api.handler.RequestContextEngine;
+import io.reactivex.Flowable;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.ext.web.RoutingContext;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(VertxExtension.class)
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FragmentsStreamWriterTest {
+
+  @Mock
+  private RoutingContext routingContext;
+
+  @Mock
+  private io.vertx.reactivex.core.http.HttpServerResponse routingResponse;
+
+  @Mock
+  private HttpServerResponse response;
+
+  @Mock
+  private RequestContextEngine engine;
+
+  private RequestContext requestContext;
+  private Buffer written;
+
+  @BeforeEach
+  void setUp(Vertx vertx) {
+    requestContext = new RequestContext(new RequestEvent(new ClientRequest(), new JsonObject()));
+    written = Buffer.buffer();
+    when(routingContext.vertx()).thenReturn(vertx);
+    when(routingContext.response()).thenReturn(routingResponse);
+    when(routingResponse.getDelegate()).thenReturn(response);
+    when(response.headers()).thenReturn(MultiMap.caseInsensitiveMultiMap());
+    doAnswer(invocation -> {
+      written.appendBuffer(invocation.getArgument(0));
+      return response;
+    }).when(response).write(any(Buffer.class));
+  }
+
+  @Test
+  @DisplayName("Expect fragments bodies written in chunks in the stream order.")
+  void writeFragmentsInOrder(VertxTestContext testContext) {
+    // given
+    Flowable<Fragment> fragments = Flowable.just(
+        new Fragment("_STATIC", new JsonObject(), "<html><head></head>"),
+        new Fragment("snippet", new JsonObject(), Buffer.buffer("<p>€</p>")),
+        new Fragment("_STATIC", new JsonObject(), "</html>"));
+    doAnswer(invocation -> {
+      testContext.verify(() -> {
+        assertEquals(Buffer.buffer("<html><head></head><p>€</p></html>"), written);
+        verify(response).setChunked(true);
+        verify(response).setStatusCode(200);
+      });
+      testContext.completeNow();
+      return null;
+    }).when(response).end();
+
+    // when
+    newWriter().write(fragments);
+  }
+
+  @Test
+  @DisplayName("Expect request failed when the stream fails before anything is written.")
+  void failBeforeWrite(VertxTestContext testContext) {
+    // given
+    IllegalStateException error = new IllegalStateException("failed");
+    Flowable<Fragment> fragments = Flowable.error(error);
+    doAnswer(invocation -> {
+      testContext.verify(() -> {
+        verify(response, never()).setChunked(true);
+        assertEquals(0, written.length());
+      });
+      testContext.completeNow();
+      return null;
+    }).when(engine).handleFatal(eq(routingContext), eq(requestContext), eq(error));
+
+    // when
+    newWriter().write(fragments);
+  }
+
+  @Test
+  @DisplayName("Expect connection closed when the stream fails after the first chunk.")
+  void closeAfterWrite(VertxTestContext testContext) {
+    // given
+    Flowable<Fragment> fragments = Flowable
+        .just(new Fragment("_STATIC", new JsonObject(), "<html>"))
+        .concatWith(Flowable.timer(200, TimeUnit.MILLISECONDS)
+            .flatMap(tick -> Flowable.error(new IllegalStateException("failed"))));
+    doAnswer(invocation -> {
+      testContext.verify(() -> {
+        assertEquals(Buffer.buffer("<html>"), written);
+        verify(engine, never()).handleFatal(any(), any(), any());
+        verify(response, never()).end();
+      });
+      testContext.completeNow();
+      return null;
+    }).when(response).close();
+
+    // when
+    newWriter().write(fragments);
+  }
+
+  @Test
+  @DisplayName("Expect only allowed client response headers sent to the client.")
+  void copyAllowedHeaders(VertxTestContext testContext) {
+    // given
+    requestContext.getClientResponse().getHeaders()
+        .add("Content-Type", "text/html")
+        .add("Content-Length", "1024")
+        .add("Set-Cookie", "session=secret");
+    MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+    when(response.headers()).thenReturn(headers);
+    doAnswer(invocation -> {
+      testContext.verify(() -> {
+        assertEquals("text/html", headers.get("Content-Type"));
+        assertNull(headers.get("Content-Length"));
+        assertNull(headers.get("Set-Cookie"));
+      });
+      testContext.completeNow();
+      return null;
+    }).when(response).end();
+
+    // when
+    newWriter().write(Flowable.just(new Fragment("_STATIC", new JsonObject(), "<html></html>")));
+  }
+
+  private FragmentsStreamWriter newWriter() {
+    return new FragmentsStreamWriter(routingContext, requestContext, engine,
+        new HashSet<>(Arrays.asList("content-type", "content-length")));
+  }
+}
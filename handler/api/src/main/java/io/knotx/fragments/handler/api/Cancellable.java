@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.api;
+
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+
+/**
+ * Marks {@link Action} that can stop its processing when the result is not needed anymore, e.g.
+ * when a sibling subtask fails with a fatal error or the HTTP client disconnects. The engine calls
+ * {@link #cancel(FragmentContext)} with the same fragment context instance that was passed to
+ * {@link Action#apply}, only when the action has not responded yet.
+ */
+public interface Cancellable {
+
+  /**
+   * Cancels processing started for the fragment context. It must not block and must be safe to
+   * call from any thread. The result handler of a cancelled invocation is not awaited anymore.
+   *
+   * @param fragmentContext - the fragment context passed to the cancelled invocation
+   */
+  void cancel(FragmentContext fragmentContext);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.api;
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+
+/**
+ * Defines where the engine executes an {@link Action}. Modes are declared from the least to the
+ * most restrictive one, so when actions are chained the strictest mode wins.
+ */
+public enum ExecutionMode {
+
+  /**
+   * Non-blocking action, executed on the calling event loop thread without any thread hop.
+   */
+  EVENT_LOOP("event-loop"),
+
+  /**
+   * CPU-bound action, executed on a bounded pool sized to the number of available processors.
+   */
+  COMPUTE("compute"),
+
+  /**
+   * Action that may block, executed on the Vert.x worker pool. It is the default mode.
+   */
+  BLOCKING("blocking");
+
+  private final String mode;
+
+  ExecutionMode(String mode) {
+    this.mode = mode;
+  }
+
+  public String getMode() {
+    return mode;
+  }
+
+  public static ExecutionMode fromConfig(String mode) {
+    return Arrays.stream(ExecutionMode.values())
+        .filter(em -> em.getMode().equals(mode))
+        .findAny()
+        .orElseThrow(() -> new IllegalArgumentException(
+            format("Incorrect execution mode: %s", mode)));
+  }
+}
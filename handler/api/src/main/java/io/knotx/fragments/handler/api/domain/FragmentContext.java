@@ -29,24 +29,41 @@ public class FragmentContext {
 
   private static final String FRAGMENT_KEY = "fragment";
   private static final String CLIENT_REQUEST_KEY = "clientRequest";
+  private static final String DEADLINE_KEY = "deadline";
+
+  /**
+   * The deadline value meaning that processing is not limited in time.
+   */
+  public static final long NO_DEADLINE = 0L;
 
   private final Fragment fragment;
   private final ClientRequest clientRequest;
+  private final long deadline;
 
   public FragmentContext(Fragment fragment, ClientRequest clientRequest) {
+    this(fragment, clientRequest, NO_DEADLINE);
+  }
+
+  public FragmentContext(Fragment fragment, ClientRequest clientRequest, long deadline) {
     this.fragment = fragment;
     this.clientRequest = clientRequest;
+    this.deadline = deadline;
   }
 
   public FragmentContext(JsonObject json) {
     this.fragment = new Fragment(json.getJsonObject(FRAGMENT_KEY));
     this.clientRequest = new ClientRequest(json.getJsonObject(CLIENT_REQUEST_KEY));
+    this.deadline = json.getLong(DEADLINE_KEY, NO_DEADLINE);
   }
 
   public JsonObject toJson() {
-    return new JsonObject()
+    JsonObject json = new JsonObject()
         .put(FRAGMENT_KEY, fragment.toJson())
         .put(CLIENT_REQUEST_KEY, clientRequest.toJson());
+    if (deadline != NO_DEADLINE) {
+      json.put(DEADLINE_KEY, deadline);
+    }
+    return json;
   }
 
   /**
@@ -68,6 +85,27 @@ public class FragmentContext {
     return clientRequest;
   }
 
+  /**
+   * The request deadline in milliseconds since the epoch. When it passes, the processing result is
+   * not awaited anymore. It is {@link #NO_DEADLINE} when processing is not limited in time.
+   *
+   * @return request deadline
+   */
+  public long getDeadline() {
+    return deadline;
+  }
+
+  /**
+   * The time left until the request deadline. Actions can use it to limit their own operations
+   * (e.g. external calls timeouts).
+   *
+   * @return remaining time in milliseconds, not positive when the deadline has passed or {@code
+   * Long.MAX_VALUE} when there is no deadline
+   */
+  public long getRemainingTime() {
+    return deadline == NO_DEADLINE ? Long.MAX_VALUE : deadline - System.currentTimeMillis();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -77,13 +115,14 @@ public class FragmentContext {
       return false;
     }
     FragmentContext that = (FragmentContext) o;
-    return Objects.equals(fragment, that.fragment) &&
+    return deadline == that.deadline &&
+        Objects.equals(fragment, that.fragment) &&
         Objects.equals(clientRequest, that.clientRequest);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(fragment, clientRequest);
+    return Objects.hash(fragment, clientRequest, deadline);
   }
 
   @Override
@@ -91,6 +130,7 @@ public class FragmentContext {
     return "FragmentContext{" +
         "fragment=" + fragment +
         ", clientRequest=" + clientRequest +
+        ", deadline=" + deadline +
         '}';
   }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import org.nosphere.apache.rat.RatTask
+
+plugins {
+    id("io.knotx.java-library")
+    id("me.champeau.gradle.jmh") version "0.4.8"
+    id("org.nosphere.apache.rat") version "0.4.0"
+}
+
+dependencies {
+    implementation(platform("io.knotx:knotx-dependencies:${project.version}"))
+
+    implementation(project(":knotx-fragments-engine"))
+    implementation(project(":knotx-fragments-handler-core"))
+
+    implementation("io.knotx:knotx-server-http-common-placeholders:${project.version}")
+
+    implementation(group = "io.vertx", name = "vertx-core")
+    implementation(group = "io.vertx", name = "vertx-rx-java2")
+}
+
+jmh {
+    jmhVersion = "1.21"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
+
+tasks {
+    named<RatTask>("rat") {
+        excludes.addAll("*.yml", "*.md", "**/*.md", "**/build/*", "**/out/*", "**/generated/*", "**/*.adoc")
+    }
+    getByName("build").dependsOn("rat")
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.graph.IndexedGraph;
+import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.ExecutionMode;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.vertx.core.Context;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.RxHelper;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the per-hop overhead of deep sequential graphs. All nodes are non-blocking {@link
+ * ExecutionMode#EVENT_LOOP} ones, so the result is dominated by the engine bookkeeping between
+ * nodes: resolving transitions, logging and scheduling the next node.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeepGraphBenchmark {
+
+  @Param({"20", "50", "100"})
+  public int depth;
+
+  @Param({"_success", "custom"})
+  public String transition;
+
+  private Vertx vertx;
+  private Context context;
+  private FragmentsEngine engine;
+  private IndexedGraph graph;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    vertx = Vertx.vertx();
+    context = vertx.getDelegate().getOrCreateContext();
+    engine = new FragmentsEngine(vertx);
+    graph = IndexedGraph.compile(sequence(depth, transition));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public List<FragmentEvent> execute() {
+    FragmentEventContextTaskAware event = new FragmentEventContextTaskAware(
+        new Task("task", graph),
+        new FragmentEventContext(
+            new FragmentEvent(new Fragment("snippet", new JsonObject(), "body")),
+            new ClientRequest()));
+
+    return engine.execute(Collections.singletonList(event))
+        .subscribeOn(RxHelper.scheduler(context))
+        .blockingGet();
+  }
+
+  private static Node sequence(int depth, String transition) {
+    Node next = null;
+    for (int i = depth; i > 0; i--) {
+      next = new SingleNode("action-" + i,
+          fragmentContext -> Single.just(new FragmentResult(fragmentContext.getFragment(),
+              transition)),
+          next == null ? null : Collections.singletonMap(transition, next),
+          ExecutionMode.EVENT_LOOP);
+    }
+    return next;
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.ExecutionMode;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.vertx.core.Context;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.RxHelper;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares the throughput of non-blocking actions executed in different {@link ExecutionMode}s.
+ * All fragments are processed by a task with a chain of non-blocking single nodes, so the result
+ * shows the cost of thread hops between the event loop and the pools.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExecutionModeBenchmark {
+
+  @Param({"EVENT_LOOP", "COMPUTE", "BLOCKING"})
+  public String executionMode;
+
+  @Param({"1", "10"})
+  public int nodes;
+
+  @Param({"1", "50"})
+  public int fragments;
+
+  private Vertx vertx;
+  private Context context;
+  private FragmentsEngine engine;
+  private Node rootNode;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    vertx = Vertx.vertx();
+    context = vertx.getDelegate().getOrCreateContext();
+    engine = new FragmentsEngine(vertx);
+    rootNode = chain(ExecutionMode.valueOf(executionMode), nodes);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public List<FragmentEvent> execute() {
+    return engine.execute(events())
+        .subscribeOn(RxHelper.scheduler(context))
+        .blockingGet();
+  }
+
+  private List<FragmentEventContextTaskAware> events() {
+    return IntStream.range(0, fragments)
+        .mapToObj(index -> new FragmentEventContextTaskAware(new Task("task", rootNode),
+            new FragmentEventContext(
+                new FragmentEvent(new Fragment("snippet", new JsonObject(), "body")),
+                new ClientRequest())))
+        .collect(Collectors.toList());
+  }
+
+  private static Node chain(ExecutionMode executionMode, int length) {
+    Node next = null;
+    for (int i = length; i > 0; i--) {
+      next = new SingleNode("action-" + i,
+          fragmentContext -> Single.just(new FragmentResult(fragmentContext.getFragment(),
+              FragmentResult.SUCCESS_TRANSITION)),
+          next == null ? null : Collections.singletonMap(FragmentResult.SUCCESS_TRANSITION, next),
+          executionMode);
+    }
+    return next;
+  }
+}
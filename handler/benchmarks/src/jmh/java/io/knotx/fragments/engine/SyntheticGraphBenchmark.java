@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.graph.CompositeNode;
+import io.knotx.fragments.engine.graph.IndexedGraph;
+import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.ExecutionMode;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.vertx.core.Context;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.RxHelper;
+import io.vertx.reactivex.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Drives {@link FragmentsEngine#execute(List)} over synthetic requests. Each fragment is processed
+ * by a graph of {@code depth} composite nodes, chained one after another, each with {@code width}
+ * parallel single nodes. The single node actions respond:
+ * <ul>
+ *   <li>{@code instant} - immediately with the {@code _success} transition,</li>
+ *   <li>{@code delayed} - with the {@code _success} transition after 1 ms (a timer, not a blocked
+ *   thread),</li>
+ *   <li>{@code failing} - immediately with an exception, so the error handling path is measured
+ *   (composite nodes are chained with the {@code _error} transition).</li>
+ * </ul>
+ * Both throughput and latency distribution (sample time) are reported.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SyntheticGraphBenchmark {
+
+  private static final long DELAY_MS = 1;
+
+  @Param({"1", "20"})
+  public int fragments;
+
+  @Param({"1", "8"})
+  public int width;
+
+  @Param({"1", "4"})
+  public int depth;
+
+  @Param({"instant", "delayed", "failing"})
+  public String latency;
+
+  private Vertx vertx;
+  private Context context;
+  private FragmentsEngine engine;
+  private IndexedGraph graph;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    vertx = Vertx.vertx();
+    context = vertx.getDelegate().getOrCreateContext();
+    engine = new FragmentsEngine(vertx);
+    graph = IndexedGraph.compile(graph(action(latency), "failing".equals(latency)));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    vertx.close();
+  }
+
+  @Benchmark
+  public List<FragmentEvent> execute() {
+    List<FragmentEventContextTaskAware> events = new ArrayList<>(fragments);
+    for (int i = 0; i < fragments; i++) {
+      events.add(new FragmentEventContextTaskAware(
+          new Task("task", graph),
+          new FragmentEventContext(
+              new FragmentEvent(new Fragment("snippet", new JsonObject(), "body-" + i)),
+              new ClientRequest())));
+    }
+    return engine.execute(events)
+        .subscribeOn(RxHelper.scheduler(context))
+        .blockingGet();
+  }
+
+  private Node graph(Function<FragmentContext, Single<FragmentResult>> action, boolean failing) {
+    Node next = null;
+    for (int level = depth; level > 0; level--) {
+      List<Node> subtasks = new ArrayList<>(width);
+      for (int i = 0; i < width; i++) {
+        subtasks.add(new SingleNode("action-" + level + "-" + i, action, null,
+            ExecutionMode.EVENT_LOOP));
+      }
+      next = failing
+          ? new CompositeNode("composite-" + level, subtasks, null, next)
+          : new CompositeNode("composite-" + level, subtasks, next, null);
+    }
+    return next;
+  }
+
+  private Function<FragmentContext, Single<FragmentResult>> action(String latency) {
+    switch (latency) {
+      case "delayed":
+        return fragmentContext -> Single
+            .just(new FragmentResult(fragmentContext.getFragment(),
+                FragmentResult.SUCCESS_TRANSITION))
+            .delay(DELAY_MS, TimeUnit.MILLISECONDS, RxHelper.scheduler(vertx));
+      case "failing":
+        return fragmentContext -> Single.error(new IllegalStateException("Action failed"));
+      default:
+        return fragmentContext -> Single.just(new FragmentResult(fragmentContext.getFragment(),
+            FragmentResult.SUCCESS_TRANSITION));
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.server.api.context.ClientRequest;
+import io.knotx.server.common.placeholders.PlaceholdersResolver;
+import io.knotx.server.common.placeholders.SourceDefinitions;
+import io.vertx.reactivex.core.MultiMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares resolving cache keys with the compiled {@link CacheKeyTemplate} and with the
+ * {@link PlaceholdersResolver} (the way keys were resolved before), for templates with one and
+ * several request placeholders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CacheKeyTemplateBenchmark {
+
+  @Param({
+      "product-{param.id}",
+      "product-{param.id}-{param.lang}-{header.x-user-id}-{header.x-region}"
+  })
+  public String template;
+
+  private ClientRequest clientRequest;
+  private CacheKeyTemplate compiled;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    clientRequest = new ClientRequest()
+        .setParams(MultiMap.caseInsensitiveMultiMap()
+            .add("id", "product1")
+            .add("lang", "en"))
+        .setHeaders(MultiMap.caseInsensitiveMultiMap()
+            .add("X-User-Id", "user1")
+            .add("X-Region", "eu"));
+    compiled = CacheKeyTemplate.compile(template);
+  }
+
+  @Benchmark
+  public String compiledTemplate() {
+    return compiled.resolve(clientRequest);
+  }
+
+  @Benchmark
+  public String placeholdersResolver() {
+    return PlaceholdersResolver.resolve(template, SourceDefinitions.builder()
+        .addClientRequestSource(clientRequest)
+        .build());
+  }
+}
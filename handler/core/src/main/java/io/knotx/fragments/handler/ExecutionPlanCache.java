@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.Task;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keeps execution plans (tasks assigned to the fragments of a request) keyed by the types and the
+ * configurations of all fragments, so a repeated template gets its tasks in a single lookup. Tasks
+ * are immutable and share compiled graphs, so the same tasks are used by many requests.
+ *
+ * The cache assumes that task factories choose and create tasks based on the fragment type and
+ * configuration only, that is why it is disabled by default.
+ */
+class ExecutionPlanCache {
+
+  private final Cache<Key, List<Task>> cache;
+
+  ExecutionPlanCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .build();
+  }
+
+  /**
+   * Returns tasks of the fragments, planned with the planner when the fragments are not cached.
+   *
+   * @param fragments - fragments of a request
+   * @param planner - plans tasks of fragments, a task (or {@code null}) for each fragment
+   * @return tasks in the order of fragments, {@code null} for fragments without tasks
+   */
+  List<Task> get(List<Fragment> fragments, Function<List<Fragment>, List<Task>> planner) {
+    Key key = Key.of(fragments);
+    List<Task> tasks = cache.getIfPresent(key);
+    if (tasks == null) {
+      tasks = Collections.unmodifiableList(planner.apply(fragments));
+      cache.put(key, tasks);
+    }
+    return tasks;
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  private static final class Key {
+
+    // fragment types and configurations, one after another
+    private final Object[] fragments;
+    private final int hash;
+
+    private Key(Object[] fragments) {
+      this.fragments = fragments;
+      this.hash = Arrays.hashCode(fragments);
+    }
+
+    static Key of(List<Fragment> fragments) {
+      Object[] key = new Object[fragments.size() * 2];
+      int i = 0;
+      for (Fragment fragment : fragments) {
+        key[i++] = fragment.getType();
+        // configurations are immutable, so the key shares them instead of copying
+        key[i++] = fragment.getConfigurationWithoutCopy();
+      }
+      return new Key(key);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return hash == key.hash && Arrays.equals(fragments, key.fragments);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -24,36 +24,54 @@ import io.knotx.fragments.engine.FragmentEventContext;
 import io.knotx.fragments.engine.FragmentEventContextTaskAware;
 import io.knotx.fragments.engine.FragmentsEngine;
 import io.knotx.fragments.engine.Task;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.exception.FragmentsProcessingException;
 import io.knotx.server.api.context.ClientRequest;
 import io.knotx.server.api.context.RequestContext;
 import io.knotx.server.api.context.RequestEvent;
 import io.knotx.server.api.handler.DefaultRequestContextEngine;
 import io.knotx.server.api.handler.RequestContextEngine;
 import io.knotx.server.api.handler.RequestEventHandlerResult;
+import io.reactivex.Flowable;
 import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
 import io.vertx.core.Handler;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.reactivex.core.Vertx;
 import io.vertx.reactivex.ext.web.RoutingContext;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class FragmentsHandler implements Handler<RoutingContext> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FragmentsHandler.class);
+  private static final String STATIC_FRAGMENT_TYPE = "_STATIC";
+  static final String FRAGMENTS_STREAM_KEY = "fragmentsStream";
 
   private final RequestContextEngine requestContextEngine;
 
   private final FragmentsEngine engine;
   private final TaskProvider taskProvider;
+  private final ExecutionPlanCache executionPlanCache;
+  private final long requestTimeout;
+  private final boolean streaming;
 
   FragmentsHandler(Vertx vertx, JsonObject options) {
     FragmentsHandlerOptions handlerOptions = new FragmentsHandlerOptions(options);
     taskProvider = new TaskProvider(handlerOptions.getTaskFactories(), vertx);
-    engine = new FragmentsEngine(vertx);
+    engine = new FragmentsEngine(vertx, handlerOptions.getEngineOptions());
+    requestTimeout = handlerOptions.getRequestTimeout();
+    streaming = handlerOptions.isStreaming();
+    executionPlanCache = handlerOptions.getExecutionPlanCacheSize() > 0
+        ? new ExecutionPlanCache(handlerOptions.getExecutionPlanCacheSize())
+        : null;
     requestContextEngine = new DefaultRequestContextEngine(getClass().getSimpleName());
   }
 
@@ -63,26 +81,133 @@ public class FragmentsHandler implements Handler<RoutingContext> {
     final List<Fragment> fragments = routingContext.get("fragments");
     final ClientRequest clientRequest = requestContext.getRequestEvent().getClientRequest();
 
-    Single<List<FragmentEvent>> doHandle = doHandle(fragments, clientRequest);
-    doHandle
-        .doOnSuccess(events -> putFragments(routingContext, events))
+    if (streaming) {
+      // fragments are not processed yet, so nobody should read them before the stream
+      routingContext.remove("fragments");
+      routingContext.put(FRAGMENTS_STREAM_KEY, doStream(fragments, clientRequest));
+      requestContextEngine.processAndSaveResult(
+          RequestEventHandlerResult.success(copyRequestEvent(requestContext.getRequestEvent())),
+          routingContext, requestContext);
+      return;
+    }
+    Disposable processing = process(fragments, clientRequest)
+        .doOnSuccess(events -> putFragments(routingContext, fragments, events))
         .map(events -> toHandlerResult(events, requestContext))
         .subscribe(
             result -> requestContextEngine
                 .processAndSaveResult(result, routingContext, requestContext),
             error -> requestContextEngine.handleFatal(routingContext, requestContext, error)
         );
+    abandonWhenClosed(routingContext, processing);
+  }
+
+  private void abandonWhenClosed(RoutingContext routingContext, Disposable processing) {
+    if (processing.isDisposed()) {
+      return;
+    }
+    if (routingContext.response().closed()) {
+      abandon(processing);
+    } else {
+      routingContext.response().closeHandler(v -> abandon(processing));
+    }
+  }
+
+  private void abandon(Disposable processing) {
+    if (!processing.isDisposed()) {
+      LOGGER.debug("Client closed the connection, fragments processing is cancelled.");
+      processing.dispose();
+    }
   }
 
+  /**
+   * Processes fragments and responds with events of all fragments (in the incoming order).
+   * Fragments without tasks are not processed and their events are {@code UNPROCESSED}.
+   */
   protected Single<List<FragmentEvent>> doHandle(List<Fragment> fragments,
       ClientRequest clientRequest) {
+    return process(fragments, clientRequest)
+        .map(events -> merge(fragments, events, event -> event, FragmentEvent::new));
+  }
+
+  /**
+   * Creates the stream of all fragments (in the incoming order). Processing starts when the stream
+   * is subscribed. Each fragment is emitted as soon as it and all fragments before it are
+   * processed, fragments without tasks are emitted unchanged. The stream fails with {@link
+   * FragmentsProcessingException} at the first failed fragment. Disposing the subscription cancels
+   * processing of fragments not processed yet.
+   */
+  protected Flowable<Fragment> doStream(List<Fragment> fragments, ClientRequest clientRequest) {
+    return Flowable.defer(() -> {
+      List<FragmentEventContextTaskAware> events = toEvents(fragments, clientRequest, deadline());
+      // positions of processed fragments, the last one is the number of fragments
+      int[] positions = new int[events.size() + 1];
+      int eventIdx = 0;
+      for (int i = 0; i < fragments.size() && eventIdx < events.size(); i++) {
+        if (isProcessed(fragments.get(i), events.get(eventIdx))) {
+          positions[eventIdx++] = i;
+        }
+      }
+      positions[events.size()] = fragments.size();
+      AtomicInteger processed = new AtomicInteger();
+      return Flowable.fromIterable(fragments.subList(0, positions[0]))
+          .concatWith(engine.stream(events).concatMapIterable(event -> {
+            if (event.getStatus() == Status.FAILURE) {
+              throw new FragmentsProcessingException(
+                  buildErrorMessage(Collections.singletonList(event.getFragment())));
+            }
+            int position = positions[processed.getAndIncrement()];
+            int next = positions[processed.get()];
+            List<Fragment> prefix = new ArrayList<>(next - position);
+            prefix.add(event.getFragment());
+            prefix.addAll(fragments.subList(position + 1, next));
+            return prefix;
+          }));
+    });
+  }
+
+  private boolean isProcessed(Fragment fragment, FragmentEventContextTaskAware event) {
+    return fragment.getId()
+        .equals(event.getFragmentEventContext().getFragmentEvent().getFragment().getId());
+  }
+
+  /**
+   * Processes fragments having tasks with the engine. Other fragments (static ones and those not
+   * accepted by any task factory) bypass the engine, so the result contains only events of
+   * fragments processed by the engine.
+   */
+  private Single<List<FragmentEvent>> process(List<Fragment> fragments,
+      ClientRequest clientRequest) {
     return Single.just(fragments)
-        .map(f -> toEvents(f, clientRequest))
-        .flatMap(engine::execute);
+        .map(f -> toEvents(f, clientRequest, deadline()))
+        .flatMap(events -> events.isEmpty()
+            ? Single.just(Collections.<FragmentEvent>emptyList())
+            : engine.execute(events));
+  }
+
+  private void putFragments(RoutingContext routingContext, List<Fragment> fragments,
+      List<FragmentEvent> events) {
+    routingContext.put("fragments",
+        merge(fragments, events, FragmentEvent::getFragment, fragment -> fragment));
   }
 
-  private void putFragments(RoutingContext routingContext, List<FragmentEvent> events) {
-    routingContext.put("fragments", retrieveFragments(events, fragmentEvent -> true));
+  /**
+   * Replaces fragments processed by the engine with their events. The engine keeps the incoming
+   * order, so fragments and events are matched by a single pass.
+   */
+  private <T> List<T> merge(List<Fragment> fragments, List<FragmentEvent> events,
+      Function<FragmentEvent, T> processed, Function<Fragment, T> bypassed) {
+    List<T> result = new ArrayList<>(fragments.size());
+    int eventIdx = 0;
+    for (Fragment fragment : fragments) {
+      FragmentEvent event = eventIdx < events.size() ? events.get(eventIdx) : null;
+      if (event != null && event.getFragment().getId().equals(fragment.getId())) {
+        result.add(processed.apply(event));
+        eventIdx++;
+      } else {
+        result.add(bypassed.apply(fragment));
+      }
+    }
+    return result;
   }
 
   private RequestEventHandlerResult toHandlerResult(List<FragmentEvent> events,
@@ -120,28 +245,63 @@ public class FragmentsHandler implements Handler<RoutingContext> {
         .collect(Collectors.toList());
   }
 
+  private long deadline() {
+    return requestTimeout > 0
+        ? System.currentTimeMillis() + requestTimeout
+        : FragmentContext.NO_DEADLINE;
+  }
+
   private List<FragmentEventContextTaskAware> toEvents(List<Fragment> fragments,
-      ClientRequest clientRequest) {
+      ClientRequest clientRequest, long deadline) {
     LOGGER.trace("Processing fragments [{}]", fragments);
-    return fragments.stream()
-        .map(
-            fragment -> {
-              FragmentEventContext fragmentEventContext = new FragmentEventContext(
-                  new FragmentEvent(fragment), clientRequest);
-
-              return taskProvider.newInstance(fragmentEventContext)
-                  .map(task -> {
-                    LOGGER.trace("Created task [{}] for fragment [{}]", task,
-                        fragmentEventContext.getFragmentEvent().getFragment().getId());
-                    return task;
-                  })
-                  .map(
-                      task -> new FragmentEventContextTaskAware(task, fragmentEventContext))
-                  .orElseGet(() -> new FragmentEventContextTaskAware(new Task("_NOT_DEFINED"),
-                      fragmentEventContext));
-            })
-        .collect(
-            Collectors.toList());
+    // contexts created while planning, reused for processing
+    FragmentEventContext[] contexts = new FragmentEventContext[fragments.size()];
+    Function<List<Fragment>, List<Task>> planner = f -> toTasks(f, contexts, clientRequest,
+        deadline);
+    List<Task> tasks = executionPlanCache != null
+        ? executionPlanCache.get(fragments, planner)
+        : planner.apply(fragments);
+    List<FragmentEventContextTaskAware> events = new ArrayList<>();
+    for (int i = 0; i < fragments.size(); i++) {
+      Task task = tasks.get(i);
+      if (task != null) {
+        FragmentEventContext context = contexts[i] != null ? contexts[i]
+            : new FragmentEventContext(new FragmentEvent(fragments.get(i)), clientRequest,
+                deadline);
+        events.add(new FragmentEventContextTaskAware(task, context));
+      }
+    }
+    return events;
+  }
+
+  /**
+   * @return tasks of fragments, {@code null} for static fragments and fragments not accepted by any
+   * task factory
+   */
+  private List<Task> toTasks(List<Fragment> fragments, FragmentEventContext[] contexts,
+      ClientRequest clientRequest, long deadline) {
+    List<Task> tasks = new ArrayList<>(fragments.size());
+    for (int i = 0; i < fragments.size(); i++) {
+      Fragment fragment = fragments.get(i);
+      if (STATIC_FRAGMENT_TYPE.equals(fragment.getType())) {
+        tasks.add(null);
+      } else {
+        contexts[i] = new FragmentEventContext(new FragmentEvent(fragment), clientRequest,
+            deadline);
+        tasks.add(toTask(contexts[i]));
+      }
+    }
+    return tasks;
+  }
+
+  private Task toTask(FragmentEventContext fragmentEventContext) {
+    return taskProvider.newInstance(fragmentEventContext)
+        .map(task -> {
+          LOGGER.trace("Created task [{}] for fragment [{}]", task,
+              fragmentEventContext.getFragmentEvent().getFragment().getId());
+          return task;
+        })
+        .orElse(null);
   }
 
 }
@@ -15,6 +15,8 @@
  */
 package io.knotx.fragments.handler;
 
+import io.knotx.fragments.engine.FragmentsEngineOptions;
+import io.knotx.fragments.engine.MergePolicy;
 import io.knotx.fragments.task.TaskFactoryOptions;
 import io.vertx.codegen.annotations.DataObject;
 import io.vertx.core.json.JsonObject;
@@ -28,6 +30,14 @@ import java.util.Objects;
 public class FragmentsHandlerOptions {
 
   private List<TaskFactoryOptions> taskFactories;
+  private int maxInFlightFragments = FragmentsEngineOptions.UNLIMITED;
+  private int maxInFlightSubtasks = FragmentsEngineOptions.UNLIMITED;
+  private int maxInFlightNodes = FragmentsEngineOptions.UNLIMITED;
+  private String bodyMergePolicy = MergePolicy.LAST_WINS.getPolicy();
+  private String payloadMergePolicy = MergePolicy.LAST_WINS.getPolicy();
+  private long requestTimeout;
+  private long executionPlanCacheSize;
+  private boolean streaming;
 
   public FragmentsHandlerOptions(JsonObject json) {
     FragmentsHandlerOptionsConverter.fromJson(json, this);
@@ -53,6 +63,142 @@ public class FragmentsHandlerOptions {
     this.taskFactories = taskFactories;
   }
 
+  public int getMaxInFlightFragments() {
+    return maxInFlightFragments;
+  }
+
+  /**
+   * The maximum number of fragments evaluated at the same time within a single HTTP request. The
+   * remaining fragments wait until some of the evaluated ones finish. Not positive value (the
+   * default) means no limit.
+   *
+   * @param maxInFlightFragments - the limit of in-flight fragments per request
+   */
+  public void setMaxInFlightFragments(int maxInFlightFragments) {
+    this.maxInFlightFragments = maxInFlightFragments;
+  }
+
+  public int getMaxInFlightSubtasks() {
+    return maxInFlightSubtasks;
+  }
+
+  /**
+   * The maximum number of subtasks evaluated at the same time within a single composite node (e.g.
+   * the {@code subtasks} node). Not positive value (the default) means no limit.
+   *
+   * @param maxInFlightSubtasks - the limit of in-flight subtasks per composite node
+   */
+  public void setMaxInFlightSubtasks(int maxInFlightSubtasks) {
+    this.maxInFlightSubtasks = maxInFlightSubtasks;
+  }
+
+  public int getMaxInFlightNodes() {
+    return maxInFlightNodes;
+  }
+
+  /**
+   * The maximum number of graph nodes (actions) evaluated at the same time by all handlers deployed
+   * in the same Vert.x instance. Nodes above the limit are queued and started in the FIFO order.
+   * When handlers define different limits, the first one wins. Not positive value (the default)
+   * means no limit.
+   *
+   * @param maxInFlightNodes - the process-wide limit of in-flight nodes
+   */
+  public void setMaxInFlightNodes(int maxInFlightNodes) {
+    this.maxInFlightNodes = maxInFlightNodes;
+  }
+
+  public String getBodyMergePolicy() {
+    return bodyMergePolicy;
+  }
+
+  /**
+   * The policy applied when parallel subtasks of a composite node change the fragment's body to
+   * different values: {@code last-wins} (default), {@code first-wins} or {@code fail}. Subtasks
+   * are joined in the order of declaration, so {@code last-wins} means the last declared subtask.
+   *
+   * @param bodyMergePolicy - the body merge policy
+   */
+  public void setBodyMergePolicy(String bodyMergePolicy) {
+    this.bodyMergePolicy = bodyMergePolicy;
+  }
+
+  public String getPayloadMergePolicy() {
+    return payloadMergePolicy;
+  }
+
+  /**
+   * The policy applied when parallel subtasks of a composite node change the same payload key to
+   * different values: {@code last-wins} (default), {@code first-wins} or {@code fail}.
+   *
+   * @param payloadMergePolicy - the payload merge policy
+   */
+  public void setPayloadMergePolicy(String payloadMergePolicy) {
+    this.payloadMergePolicy = payloadMergePolicy;
+  }
+
+  public long getRequestTimeout() {
+    return requestTimeout;
+  }
+
+  /**
+   * The time budget of fragments processing in milliseconds. The request deadline is calculated
+   * when the handler starts processing and is propagated to all graph nodes. Each node gets the
+   * minimum of its own timeout and the remaining time. Nodes that are reached after the deadline are
+   * not started and respond with the {@code _fallback} (when configured) or {@code _error}
+   * transition. Not positive value (the default) means no deadline.
+   *
+   * @param requestTimeout - the request processing timeout in milliseconds
+   */
+  public void setRequestTimeout(long requestTimeout) {
+    this.requestTimeout = requestTimeout;
+  }
+
+  public long getExecutionPlanCacheSize() {
+    return executionPlanCacheSize;
+  }
+
+  /**
+   * The maximum number of cached execution plans. An execution plan contains tasks of all fragments
+   * of a request and is cached by the types and the configurations of the fragments, so a repeated
+   * template gets its tasks in a single lookup, without asking task factories. Enable it only when
+   * task factories choose tasks based on the fragment type and configuration only (as the default
+   * task factory does). Not positive value (the default) disables the cache.
+   *
+   * @param executionPlanCacheSize - the maximum number of cached execution plans
+   */
+  public void setExecutionPlanCacheSize(long executionPlanCacheSize) {
+    this.executionPlanCacheSize = executionPlanCacheSize;
+  }
+
+  public boolean isStreaming() {
+    return streaming;
+  }
+
+  /**
+   * Enables streaming of processed fragments. The handler does not wait for all fragments, it puts
+   * the stream of fragments (emitted in the incoming order, each one as soon as it and all
+   * fragments before it are processed) in the routing context under the {@code fragmentsStream}
+   * key and calls the next handler at once. The stream is processed when subscribed, e.g. by the
+   * fragments assembler that writes fragments to the client progressively. The stream replaces
+   * the {@code fragments} key, so the fragments assembler must be the next handler. By default it
+   * is {@code false}.
+   *
+   * @param streaming - {@code true} to stream processed fragments
+   */
+  public void setStreaming(boolean streaming) {
+    this.streaming = streaming;
+  }
+
+  FragmentsEngineOptions getEngineOptions() {
+    return new FragmentsEngineOptions()
+        .setMaxInFlightFragments(maxInFlightFragments)
+        .setMaxInFlightSubtasks(maxInFlightSubtasks)
+        .setMaxInFlightNodes(maxInFlightNodes)
+        .setBodyMergePolicy(MergePolicy.fromConfig(bodyMergePolicy))
+        .setPayloadMergePolicy(MergePolicy.fromConfig(payloadMergePolicy));
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -62,18 +208,36 @@ public class FragmentsHandlerOptions {
       return false;
     }
     FragmentsHandlerOptions that = (FragmentsHandlerOptions) o;
-    return Objects.equals(taskFactories, that.taskFactories);
+    return maxInFlightFragments == that.maxInFlightFragments &&
+        maxInFlightSubtasks == that.maxInFlightSubtasks &&
+        maxInFlightNodes == that.maxInFlightNodes &&
+        requestTimeout == that.requestTimeout &&
+        executionPlanCacheSize == that.executionPlanCacheSize &&
+        streaming == that.streaming &&
+        Objects.equals(bodyMergePolicy, that.bodyMergePolicy) &&
+        Objects.equals(payloadMergePolicy, that.payloadMergePolicy) &&
+        Objects.equals(taskFactories, that.taskFactories);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(taskFactories);
+    return Objects.hash(taskFactories, maxInFlightFragments, maxInFlightSubtasks,
+        maxInFlightNodes, bodyMergePolicy, payloadMergePolicy, requestTimeout,
+        executionPlanCacheSize, streaming);
   }
 
   @Override
   public String toString() {
     return "FragmentsHandlerOptions{" +
         "taskFactories=" + taskFactories +
+        ", maxInFlightFragments=" + maxInFlightFragments +
+        ", maxInFlightSubtasks=" + maxInFlightSubtasks +
+        ", maxInFlightNodes=" + maxInFlightNodes +
+        ", bodyMergePolicy='" + bodyMergePolicy + '\'' +
+        ", payloadMergePolicy='" + payloadMergePolicy + '\'' +
+        ", requestTimeout=" + requestTimeout +
+        ", executionPlanCacheSize=" + executionPlanCacheSize +
+        ", streaming=" + streaming +
         '}';
   }
 }
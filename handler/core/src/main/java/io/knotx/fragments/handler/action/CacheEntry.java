@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.netty.util.IllegalReferenceCountException;
+
+/**
+ * The cached value with its expiry times. The value is kept as it is (heap storage) or as a
+ * {@link SerializedValue} decoded on each read (off-heap storage).
+ */
+final class CacheEntry {
+
+  /**
+   * Returned by {@link #getValue()} when the off-heap value was released, because another thread
+   * removed the entry from the cache in the meantime.
+   */
+  static final Object NO_VALUE = new Object();
+
+  private final Object value;
+  private final long refreshAt;
+  private final long freshUntil;
+  private final long staleUntil;
+
+  CacheEntry(Object value, long refreshAt, long freshUntil, long staleUntil) {
+    this.value = value;
+    this.refreshAt = refreshAt;
+    this.freshUntil = freshUntil;
+    this.staleUntil = staleUntil;
+  }
+
+  Object getValue() {
+    if (!(value instanceof SerializedValue)) {
+      return value;
+    }
+    try {
+      return ((SerializedValue) value).decode();
+    } catch (IllegalReferenceCountException e) {
+      return NO_VALUE;
+    }
+  }
+
+  /**
+   * Frees the off-heap value, called when the entry is removed from the cache.
+   */
+  void release() {
+    if (value instanceof SerializedValue) {
+      ((SerializedValue) value).release();
+    }
+  }
+
+  /**
+   * @return the number of bytes the serialized value occupies, {@code 1} for heap storage
+   */
+  int getWeight() {
+    return value instanceof SerializedValue ? ((SerializedValue) value).getWeight() : 1;
+  }
+
+  /**
+   * @return {@code true} when the value should be refreshed in the background, it is close to its
+   * expiry or stale
+   */
+  boolean isRefreshRequired(long now) {
+    return now >= refreshAt;
+  }
+
+  /**
+   * @return {@code true} when the value can not be served anymore
+   */
+  boolean isExpired(long now) {
+    return now >= staleUntil;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.server.api.context.ClientRequest;
+import io.knotx.server.common.placeholders.PlaceholdersResolver;
+import io.knotx.server.common.placeholders.SourceDefinitions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Cache key template compiled once into literal segments and request placeholders. The
+ * {@code {param.*}} and {@code {header.*}} placeholders are resolved directly from the client
+ * request. Templates with other placeholders, and requests missing any of the params or headers,
+ * are resolved with {@link PlaceholdersResolver}, so the resolved keys are always the same.
+ */
+final class CacheKeyTemplate {
+
+  private static final String PARAM_PREFIX = "param.";
+  private static final String HEADER_PREFIX = "header.";
+
+  private final String template;
+  private final List<Segment> segments;
+  private final int literalsLength;
+
+  private CacheKeyTemplate(String template, List<Segment> segments) {
+    this.template = template;
+    this.segments = segments;
+    this.literalsLength = segments == null ? 0 : segments.stream()
+        .filter(segment -> segment.literal != null)
+        .mapToInt(segment -> segment.literal.length())
+        .sum();
+  }
+
+  /**
+   * Parses the template.
+   *
+   * @param template the cache key template, e.g. {@code product-{param.id}}
+   * @return the compiled template
+   */
+  static CacheKeyTemplate compile(String template) {
+    List<Segment> segments = new ArrayList<>();
+    int position = 0;
+    while (position < template.length()) {
+      int start = template.indexOf('{', position);
+      int end = start < 0 ? -1 : template.indexOf('}', start);
+      if (start < 0 || end < 0) {
+        segments.add(Segment.literal(template.substring(position)));
+        break;
+      }
+      if (start > position) {
+        segments.add(Segment.literal(template.substring(position, start)));
+      }
+      Segment placeholder = Segment.placeholder(template.substring(start + 1, end));
+      if (placeholder == null) {
+        // other placeholders are resolved by the placeholders resolver only
+        return new CacheKeyTemplate(template, null);
+      }
+      segments.add(placeholder);
+      position = end + 1;
+    }
+    return new CacheKeyTemplate(template, segments);
+  }
+
+  /**
+   * Resolves the cache key for the request.
+   *
+   * @param clientRequest the client request
+   * @return the cache key
+   */
+  String resolve(ClientRequest clientRequest) {
+    if (segments == null) {
+      return resolveWithPlaceholdersResolver(clientRequest);
+    }
+    StringBuilder key = new StringBuilder(literalsLength + 16 * segments.size());
+    for (Segment segment : segments) {
+      if (segment.literal != null) {
+        key.append(segment.literal);
+      } else {
+        String value = segment.accessor.apply(clientRequest, segment.name);
+        if (value == null) {
+          return resolveWithPlaceholdersResolver(clientRequest);
+        }
+        key.append(value);
+      }
+    }
+    return key.toString();
+  }
+
+  private String resolveWithPlaceholdersResolver(ClientRequest clientRequest) {
+    return PlaceholdersResolver.resolve(template, SourceDefinitions.builder()
+        .addClientRequestSource(clientRequest)
+        .build());
+  }
+
+  private static final class Segment {
+
+    private final String literal;
+    private final String name;
+    private final BiFunction<ClientRequest, String, String> accessor;
+
+    private Segment(String literal, String name,
+        BiFunction<ClientRequest, String, String> accessor) {
+      this.literal = literal;
+      this.name = name;
+      this.accessor = accessor;
+    }
+
+    static Segment literal(String literal) {
+      return new Segment(literal, null, null);
+    }
+
+    static Segment placeholder(String placeholder) {
+      if (placeholder.startsWith(PARAM_PREFIX) && placeholder.length() > PARAM_PREFIX.length()) {
+        return new Segment(null, placeholder.substring(PARAM_PREFIX.length()),
+            (request, name) -> request.getParams().get(name));
+      } else if (placeholder.startsWith(HEADER_PREFIX)
+          && placeholder.length() > HEADER_PREFIX.length()) {
+        return new Segment(null, placeholder.substring(HEADER_PREFIX.length()),
+            (request, name) -> request.getHeaders().get(name));
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A cache value load in flight. Loads are registered by key in the loads map of the cache, so there
+ * is at most one {@code doAction} call per cache instance and key, and all concurrent cache misses
+ * of the key wait for its result. Caches created with different configurations (even with the same
+ * action alias) never share loads.
+ */
+final class CacheLoad {
+
+  private final ConcurrentMap<String, CacheLoad> inFlight;
+  private final String key;
+  private List<Handler<AsyncResult<FragmentResult>>> waiting = new ArrayList<>();
+  private AsyncResult<FragmentResult> result;
+
+  /**
+   * @param inFlight loads in flight of the cache, see {@link #newLoads()}
+   * @param key the cache key
+   */
+  CacheLoad(ConcurrentMap<String, CacheLoad> inFlight, String key) {
+    this.inFlight = inFlight;
+    this.key = key;
+  }
+
+  /**
+   * @return an empty map of loads in flight, created once per cache instance
+   */
+  static ConcurrentMap<String, CacheLoad> newLoads() {
+    return new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Registers the load unless there is other load of the key in flight already.
+   *
+   * @return the load in flight; when it is this load, the caller has to load the value and
+   * {@link #complete(AsyncResult)} the load
+   */
+  CacheLoad register() {
+    CacheLoad other = inFlight.putIfAbsent(key, this);
+    return other == null ? this : other;
+  }
+
+  /**
+   * Unregisters the load and passes the result to all waiting callers.
+   *
+   * @param loadResult the load result
+   */
+  void complete(AsyncResult<FragmentResult> loadResult) {
+    inFlight.remove(key, this);
+    List<Handler<AsyncResult<FragmentResult>>> handlers;
+    synchronized (this) {
+      if (result != null) {
+        return;
+      }
+      result = loadResult;
+      handlers = waiting;
+      waiting = null;
+    }
+    handlers.forEach(handler -> handler.handle(loadResult));
+  }
+
+  /**
+   * Waits for the load result. When the result does not come in time, the handler fails with
+   * {@link TimeoutException}.
+   *
+   * @param vertx the vertx instance
+   * @param timeout the wait timeout in milliseconds, not positive values mean no timeout
+   * @param handler the handler of the load result
+   */
+  void await(Vertx vertx, long timeout, Handler<AsyncResult<FragmentResult>> handler) {
+    AtomicBoolean handled = new AtomicBoolean();
+    long timerId = timeout > 0
+        ? vertx.setTimer(timeout, id -> {
+          if (handled.compareAndSet(false, true)) {
+            handler.handle(Future.failedFuture(new TimeoutException(String
+                .format("Cache load [%s] did not finish in %d ms", key, timeout))));
+          }
+        })
+        : -1L;
+    Handler<AsyncResult<FragmentResult>> waiter = loadResult -> {
+      if (handled.compareAndSet(false, true)) {
+        if (timerId != -1L) {
+          vertx.cancelTimer(timerId);
+        }
+        handler.handle(loadResult);
+      }
+    };
+    synchronized (this) {
+      if (result == null) {
+        waiting.add(waiter);
+        return;
+      }
+    }
+    waiter.handle(result);
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import com.google.common.cache.Cache;
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.actionlog.ActionLogLevel;
+import io.knotx.fragments.handler.api.actionlog.ActionLogger;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Payload cache action. Cached values are fresh for the TTL (reduced by a random jitter). Fresh
+ * values close to their expiry (refresh-ahead) and stale values within the stale-while-revalidate
+ * window are served immediately and refreshed in the background.
+ */
+class InMemoryCacheAction implements Action {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryCacheAction.class);
+  private static final String CACHE_KEY_LOG_KEY = "cacheKey";
+  private static final String CACHED_LOG_KEY = "cached";
+  private static final String STATISTICS_LOG_KEY = "statistics";
+  private static final String NEGATIVE_CACHED_LOG_KEY = "negativeCached";
+
+  private final String alias;
+  private final Action doAction;
+  private final Vertx vertx;
+  private final Cache<String, CacheEntry> cache;
+  private final Cache<String, String> negativeCache;
+  private final InMemoryCacheOptions options;
+  private final CacheKeyTemplate cacheKeyTemplate;
+  private final InMemoryCacheStatistics statistics;
+  private final ConcurrentMap<String, CacheLoad> loads = CacheLoad.newLoads();
+
+  /**
+   * @param negativeCache failed transitions by cache key, {@code null} when negative caching is
+   * disabled
+   */
+  InMemoryCacheAction(String alias, Action doAction, Vertx vertx, Cache<String, CacheEntry> cache,
+      Cache<String, String> negativeCache, InMemoryCacheOptions options,
+      InMemoryCacheStatistics statistics) {
+    this.alias = alias;
+    this.doAction = doAction;
+    this.vertx = vertx;
+    this.cache = cache;
+    this.negativeCache = negativeCache;
+    this.options = options;
+    this.cacheKeyTemplate = CacheKeyTemplate.compile(options.getCacheKey());
+    this.statistics = statistics;
+  }
+
+  @Override
+  public void apply(FragmentContext fragmentContext,
+      Handler<AsyncResult<FragmentResult>> resultHandler) {
+    String cacheKey = cacheKeyTemplate.resolve(fragmentContext.getClientRequest());
+    CacheEntry cachedEntry = cache.getIfPresent(cacheKey);
+    long now = System.currentTimeMillis();
+    Object cachedValue = cachedEntry == null || cachedEntry.isExpired(now)
+        ? CacheEntry.NO_VALUE
+        : cachedEntry.getValue();
+    if (cachedValue == CacheEntry.NO_VALUE) {
+      String failedTransition = negativeCache != null ? negativeCache.getIfPresent(cacheKey) : null;
+      if (failedTransition != null) {
+        statistics.recordNegativeHit();
+        Future.succeededFuture(toNegativeResult(fragmentContext.getFragment(), failedTransition,
+            cacheKey))
+            .setHandler(resultHandler);
+      } else {
+        statistics.recordMiss();
+        loadOnce(fragmentContext, resultHandler, cacheKey);
+      }
+    } else {
+      statistics.recordHit();
+      if (cachedEntry.isRefreshRequired(now)) {
+        refreshInBackground(fragmentContext, cacheKey);
+      }
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(options.getPayloadKey(), cachedValue);
+      FragmentResult result = isInfoLogLevel()
+          ? new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION,
+          createActionLogger(cacheKey, true).toLog().toJson())
+          : new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION);
+      Future.succeededFuture(result)
+          .setHandler(resultHandler);
+    }
+  }
+
+  private void loadOnce(FragmentContext fragmentContext,
+      Handler<AsyncResult<FragmentResult>> resultHandler, String cacheKey) {
+    CacheLoad load = new CacheLoad(loads, cacheKey);
+    CacheLoad inFlight = load.register();
+    if (inFlight != load) {
+      inFlight.await(vertx, options.getLoadTimeout(), loadResult -> resultHandler
+          .handle(toWaitingResult(loadResult, fragmentContext.getFragment())));
+      return;
+    }
+    long startTime = System.currentTimeMillis();
+    try {
+      callDoActionAndCache(fragmentContext, asyncResult -> {
+        load.complete(asyncResult);
+        resultHandler.handle(toLoadResult(asyncResult, cacheKey, startTime));
+      }, cacheKey);
+    } catch (Exception e) {
+      load.complete(Future.failedFuture(e));
+      throw e;
+    }
+  }
+
+  /**
+   * Refreshes the cached value with a copy of the fragment, so the request processing is not
+   * affected. The refresh is not limited by the request deadline. When it fails, the cached value
+   * is kept until the end of the stale-while-revalidate window.
+   */
+  private void refreshInBackground(FragmentContext fragmentContext, String cacheKey) {
+    CacheLoad load = new CacheLoad(loads, cacheKey);
+    if (load.register() != load) {
+      return;
+    }
+    Fragment fragment = new Fragment(fragmentContext.getFragment().toJson().copy());
+    try {
+      callDoActionAndCache(new FragmentContext(fragment, fragmentContext.getClientRequest()),
+          asyncResult -> {
+            if (asyncResult.failed()) {
+              LOGGER.warn("Action [{}] could not refresh the cached value [{}]", asyncResult.cause(),
+                  alias, cacheKey);
+            }
+            load.complete(asyncResult);
+          }, cacheKey);
+    } catch (Exception e) {
+      LOGGER.warn("Action [{}] could not refresh the cached value [{}]", e, alias, cacheKey);
+      load.complete(Future.failedFuture(e));
+    }
+  }
+
+  private void callDoActionAndCache(FragmentContext fragmentContext,
+      Handler<AsyncResult<FragmentResult>> resultHandler, String cacheKey) {
+    String payloadKey = options.getPayloadKey();
+    long startNanos = System.nanoTime();
+    doAction.apply(fragmentContext, asyncResult -> {
+      statistics.recordLoad(startNanos, asyncResult.succeeded());
+      if (asyncResult.succeeded()) {
+        FragmentResult fragmentResult = asyncResult.result();
+        if (FragmentResult.SUCCESS_TRANSITION.equals(fragmentResult.getTransition())
+            && fragmentResult.getFragment()
+            .getPayload()
+            .containsKey(payloadKey)) {
+          JsonObject resultPayload = fragmentResult.getFragment()
+              .getPayload();
+          CacheEntry entry = newEntry(resultPayload.getMap().get(payloadKey));
+          statistics.recordPut(entry);
+          cache.put(cacheKey, entry);
+          if (negativeCache != null) {
+            negativeCache.invalidate(cacheKey);
+          }
+        } else if (negativeCache != null) {
+          // the transition is replayed as it is, so a cached failure takes the same graph path
+          negativeCache.put(cacheKey, fragmentResult.getTransition());
+        }
+        Future.succeededFuture(fragmentResult)
+            .setHandler(resultHandler);
+      } else {
+        if (negativeCache != null) {
+          negativeCache.put(cacheKey, FragmentResult.ERROR_TRANSITION);
+        }
+        Future.<FragmentResult>failedFuture(asyncResult.cause()).setHandler(resultHandler);
+      }
+    });
+  }
+
+  private CacheEntry newEntry(Object value) {
+    long ttl = options.getTtl();
+    if (options.getTtlJitter() > 0) {
+      ttl -= (long) (ttl * ThreadLocalRandom.current().nextDouble(options.getTtlJitter() / 100.0));
+    }
+    long freshUntil = System.currentTimeMillis() + ttl;
+    if (options.isOffHeap()) {
+      value = SerializedValue.of(value, options.isCompression());
+    }
+    return new CacheEntry(value, freshUntil - options.getRefreshAhead(), freshUntil,
+        freshUntil + options.getStaleWhileRevalidate());
+  }
+
+  /**
+   * Responds with the configured fallback payload and the success transition or, when no fallback
+   * payload is configured, with the recently failed transition.
+   */
+  private FragmentResult toNegativeResult(Fragment fragment, String failedTransition,
+      String cacheKey) {
+    String transition = failedTransition;
+    Object fallbackPayload = options.getFallbackPayload();
+    if (fallbackPayload != null) {
+      fragment.appendPayload(options.getPayloadKey(), copy(fallbackPayload));
+      transition = FragmentResult.SUCCESS_TRANSITION;
+    }
+    if (!isInfoLogLevel()) {
+      return new FragmentResult(fragment, transition);
+    }
+    ActionLogger actionLogger = createActionLogger(cacheKey, false);
+    actionLogger.info(NEGATIVE_CACHED_LOG_KEY, String.valueOf(true));
+    return new FragmentResult(fragment, transition, actionLogger.toLog().toJson());
+  }
+
+  private static Object copy(Object value) {
+    if (value instanceof JsonObject) {
+      return ((JsonObject) value).copy();
+    } else if (value instanceof JsonArray) {
+      return ((JsonArray) value).copy();
+    }
+    return value;
+  }
+
+  /**
+   * Wraps the doAction node log with the cache log, when the action log level is INFO.
+   */
+  private AsyncResult<FragmentResult> toLoadResult(AsyncResult<FragmentResult> loadResult,
+      String cacheKey, long startTime) {
+    if (loadResult.failed() || !isInfoLogLevel()) {
+      return loadResult;
+    }
+    FragmentResult result = loadResult.result();
+    ActionLogger actionLogger = createActionLogger(cacheKey, false);
+    actionLogger.doActionLog(System.currentTimeMillis() - startTime, result.getNodeLog());
+    return Future.succeededFuture(new FragmentResult(result.getFragment(), result.getTransition(),
+        actionLogger.toLog().toJson()));
+  }
+
+  private boolean isInfoLogLevel() {
+    return options.getLogLevel() == ActionLogLevel.INFO;
+  }
+
+  private ActionLogger createActionLogger(String cacheKey, boolean cached) {
+    ActionLogger actionLogger = ActionLogger.create(alias, options.getLogLevel());
+    actionLogger.info(CACHE_KEY_LOG_KEY, cacheKey);
+    actionLogger.info(CACHED_LOG_KEY, String.valueOf(cached));
+    actionLogger.info(STATISTICS_LOG_KEY, statistics.toJson());
+    return actionLogger;
+  }
+
+  private AsyncResult<FragmentResult> toWaitingResult(AsyncResult<FragmentResult> loadResult,
+      Fragment fragment) {
+    if (loadResult.failed()) {
+      return loadResult;
+    }
+    FragmentResult result = loadResult.result();
+    JsonObject resultPayload = result.getFragment().getPayload();
+    if (resultPayload.containsKey(options.getPayloadKey())) {
+      fragment.appendPayload(options.getPayloadKey(),
+          resultPayload.getMap().get(options.getPayloadKey()));
+    }
+    return Future.succeededFuture(
+        new FragmentResult(fragment, result.getTransition(), result.getNodeLog()));
+  }
+}
@@ -15,28 +15,17 @@
  */
 package io.knotx.fragments.handler.action;
 
-
-import java.util.concurrent.TimeUnit;
-
-import org.apache.commons.lang3.StringUtils;
-
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-
-import io.knotx.fragments.api.Fragment;
+import com.google.common.cache.RemovalListener;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
-import io.knotx.fragments.handler.api.domain.FragmentContext;
-import io.knotx.fragments.handler.api.domain.FragmentResult;
-import io.knotx.server.api.context.ClientRequest;
-import io.knotx.server.common.placeholders.PlaceholdersResolver;
-import io.knotx.server.common.placeholders.SourceDefinitions;
-import io.vertx.core.AsyncResult;
-import io.vertx.core.Future;
-import io.vertx.core.Handler;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Payload Cache Action factory class. It can be initialized with a configuration:
@@ -47,20 +36,32 @@ import io.vertx.core.json.JsonObject;
  *       cache {
  *         maximumSize = 1000
  *         ttl = 5000
+ *         staleWhileRevalidate = 10000
+ *         refreshAhead = 1000
+ *         ttlJitter = 10
+ *         storage = off-heap
+ *         maximumBytes = 67108864
+ *         compression = true
  *       }
  *       cacheKey = product-{param.id}
  *       payloadKey = product
+ *       loadTimeout = 5000
+ *       logLevel = info
+ *       negativeCache {
+ *         maximumSize = 100
+ *         ttl = 1000
+ *         fallbackPayload {
+ *           available = false
+ *         }
+ *       }
  *     }
  *   }
  * </pre>
  */
 @Cacheable
+@Execution(ExecutionMode.EVENT_LOOP)
 public class InMemoryCacheActionFactory implements ActionFactory {
 
-  private static final long DEFAULT_MAXIMUM_SIZE = 1000;
-  private static final long DEFAULT_TTL = 5000;
-
-
   @Override
   public String getName() {
     return "in-memory-cache";
@@ -68,83 +69,43 @@ public class InMemoryCacheActionFactory implements ActionFactory {
 
   @Override
   public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
+    InMemoryCacheOptions options = new InMemoryCacheOptions(config);
+    InMemoryCacheStatistics statistics = InMemoryCacheStatistics.register(alias);
+    Cache<String, CacheEntry> cache = createCache(options, statistics);
+    Cache<String, String> negativeCache = createNegativeCache(options);
+    statistics.attachCaches(cache, negativeCache);
+    return new InMemoryCacheAction(alias, doAction, vertx, cache, negativeCache, options,
+        statistics);
+  }
 
-    return new Action() {
-      private Cache<String, Object> cache = createCache(config);
-      private String payloadKey = getPayloadKey(config);
-
-      @Override
-      public void apply(FragmentContext fragmentContext,
-          Handler<AsyncResult<FragmentResult>> resultHandler) {
-
-        String cacheKey = getCacheKey(config, fragmentContext.getClientRequest());
-        Object cachedValue = cache.getIfPresent(cacheKey);
-        if (cachedValue == null) {
-          callDoActionAndCache(fragmentContext, resultHandler, cacheKey);
-        } else {
-          Fragment fragment = fragmentContext.getFragment();
-          fragment.appendPayload(payloadKey, cachedValue);
-          FragmentResult result = new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION);
-          Future.succeededFuture(result)
-              .setHandler(resultHandler);
-        }
-      }
-
-      private void callDoActionAndCache(FragmentContext fragmentContext,
-          Handler<AsyncResult<FragmentResult>> resultHandler, String cacheKey) {
-        doAction.apply(fragmentContext, asyncResult -> {
-          if (asyncResult.succeeded()) {
-            FragmentResult fragmentResult = asyncResult.result();
-            if (FragmentResult.SUCCESS_TRANSITION.equals(fragmentResult.getTransition())
-                && fragmentResult.getFragment()
-                .getPayload()
-                .containsKey(payloadKey)) {
-              JsonObject resultPayload = fragmentResult.getFragment()
-                  .getPayload();
-              cache.put(cacheKey, resultPayload.getMap()
-                  .get(payloadKey));
-            }
-            Future.succeededFuture(fragmentResult)
-                .setHandler(resultHandler);
-          } else {
-            Future.<FragmentResult>failedFuture(asyncResult.cause()).setHandler(resultHandler);
-          }
-        });
+  Cache<String, CacheEntry> createCache(InMemoryCacheOptions options,
+      InMemoryCacheStatistics statistics) {
+    RemovalListener<String, CacheEntry> removalListener = notification -> {
+      statistics.onRemoval(notification);
+      if (notification.getValue() != null) {
+        notification.getValue().release();
       }
     };
-  }
-
-  private String getPayloadKey(JsonObject config) {
-    String result = config.getString("payloadKey");
-    if (StringUtils.isBlank(result)) {
-      throw new IllegalArgumentException(
-          "Action requires payloadKey value in configuration.");
+    CacheBuilder<String, CacheEntry> builder = CacheBuilder.newBuilder()
+        .removalListener(removalListener);
+    if (options.isOffHeap()) {
+      builder.maximumWeight(options.getMaximumBytes())
+          .weigher((String key, CacheEntry entry) -> entry.getWeight());
+    } else {
+      builder.maximumSize(options.getMaximumSize());
     }
-    return result;
-  }
-
-  private String getCacheKey(JsonObject config, ClientRequest clientRequest) {
-    String key = config.getString("cacheKey");
-    if (StringUtils.isBlank(key)) {
-      throw new IllegalArgumentException("Action requires cacheKey value in configuration.");
-    }
-    return PlaceholdersResolver.resolve(key, buildSourceDefinitions(clientRequest));
-  }
-
-  private SourceDefinitions buildSourceDefinitions(ClientRequest clientRequest) {
-    return SourceDefinitions.builder()
-        .addClientRequestSource(clientRequest)
+    return builder
+        .expireAfterWrite(options.getMaximumLifetime(), TimeUnit.MILLISECONDS)
         .build();
   }
 
-  private Cache<String, Object> createCache(JsonObject config) {
-    JsonObject cache = config.getJsonObject("cache");
-    long maxSize =
-        cache == null ? DEFAULT_MAXIMUM_SIZE : cache.getLong("maximumSize", DEFAULT_MAXIMUM_SIZE);
-    long ttl = cache == null ? DEFAULT_TTL : cache.getLong("ttl", DEFAULT_TTL);
+  private Cache<String, String> createNegativeCache(InMemoryCacheOptions options) {
+    if (!options.isNegativeCacheEnabled()) {
+      return null;
+    }
     return CacheBuilder.newBuilder()
-        .maximumSize(maxSize)
-        .expireAfterWrite(ttl, TimeUnit.MILLISECONDS)
+        .maximumSize(options.getNegativeMaximumSize())
+        .expireAfterWrite(options.getNegativeTtl(), TimeUnit.MILLISECONDS)
         .build();
   }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static io.knotx.fragments.handler.api.actionlog.ActionLogLevel.ERROR;
+
+import io.knotx.fragments.handler.api.actionlog.ActionLogLevel;
+import io.vertx.core.json.JsonObject;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * In-memory cache action configuration.
+ */
+final class InMemoryCacheOptions {
+
+  private static final long DEFAULT_MAXIMUM_SIZE = 1000;
+  private static final long DEFAULT_TTL = 5000;
+  private static final long DEFAULT_LOAD_TIMEOUT = 5000;
+  private static final long DEFAULT_MAXIMUM_BYTES = 64L * 1024 * 1024;
+  private static final long DEFAULT_NEGATIVE_MAXIMUM_SIZE = 100;
+  private static final long DEFAULT_NEGATIVE_TTL = 1000;
+  private static final String HEAP_STORAGE = "heap";
+  private static final String OFF_HEAP_STORAGE = "off-heap";
+
+  private final long maximumSize;
+  private final boolean offHeap;
+  private final long maximumBytes;
+  private final boolean compression;
+  private final long ttl;
+  private final long staleWhileRevalidate;
+  private final long refreshAhead;
+  private final int ttlJitter;
+  private final String cacheKey;
+  private final String payloadKey;
+  private final long loadTimeout;
+  private final ActionLogLevel logLevel;
+  private final boolean negativeCacheEnabled;
+  private final long negativeMaximumSize;
+  private final long negativeTtl;
+  private final Object fallbackPayload;
+
+  InMemoryCacheOptions(JsonObject config) {
+    JsonObject cache = config.getJsonObject("cache", new JsonObject());
+    maximumSize = cache.getLong("maximumSize", DEFAULT_MAXIMUM_SIZE);
+    String storage = cache.getString("storage", HEAP_STORAGE);
+    if (!HEAP_STORAGE.equals(storage) && !OFF_HEAP_STORAGE.equals(storage)) {
+      throw new IllegalArgumentException(
+          "Unsupported cache storage [" + storage + "], expected heap or off-heap.");
+    }
+    offHeap = OFF_HEAP_STORAGE.equals(storage);
+    maximumBytes = cache.getLong("maximumBytes", DEFAULT_MAXIMUM_BYTES);
+    compression = cache.getBoolean("compression", false);
+    ttl = cache.getLong("ttl", DEFAULT_TTL);
+    staleWhileRevalidate = Math.max(cache.getLong("staleWhileRevalidate", 0L), 0L);
+    refreshAhead = Math.min(Math.max(cache.getLong("refreshAhead", 0L), 0L), ttl);
+    ttlJitter = Math.min(Math.max(cache.getInteger("ttlJitter", 0), 0), 100);
+    cacheKey = config.getString("cacheKey");
+    if (StringUtils.isBlank(cacheKey)) {
+      throw new IllegalArgumentException("Action requires cacheKey value in configuration.");
+    }
+    payloadKey = config.getString("payloadKey");
+    if (StringUtils.isBlank(payloadKey)) {
+      throw new IllegalArgumentException(
+          "Action requires payloadKey value in configuration.");
+    }
+    loadTimeout = config.getLong("loadTimeout", DEFAULT_LOAD_TIMEOUT);
+    logLevel = ActionLogLevel.fromConfig(config.getString("logLevel", ERROR.getLevel()));
+    JsonObject negativeCache = config.getJsonObject("negativeCache");
+    negativeCacheEnabled = negativeCache != null;
+    if (negativeCacheEnabled) {
+      negativeMaximumSize = negativeCache.getLong("maximumSize", DEFAULT_NEGATIVE_MAXIMUM_SIZE);
+      negativeTtl = negativeCache.getLong("ttl", DEFAULT_NEGATIVE_TTL);
+      fallbackPayload = negativeCache.getValue("fallbackPayload");
+    } else {
+      negativeMaximumSize = 0;
+      negativeTtl = 0;
+      fallbackPayload = null;
+    }
+  }
+
+  long getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * @return {@code true} when cached values are stored serialized in direct memory
+   */
+  boolean isOffHeap() {
+    return offHeap;
+  }
+
+  /**
+   * @return the maximum number of bytes occupied by the off-heap cached values
+   */
+  long getMaximumBytes() {
+    return maximumBytes;
+  }
+
+  /**
+   * @return {@code true} when off-heap cached values are compressed
+   */
+  boolean isCompression() {
+    return compression;
+  }
+
+  /**
+   * @return time (in milliseconds) the cached value is fresh
+   */
+  long getTtl() {
+    return ttl;
+  }
+
+  /**
+   * @return time (in milliseconds) after the TTL the stale value is still served while it is
+   * refreshed in the background
+   */
+  long getStaleWhileRevalidate() {
+    return staleWhileRevalidate;
+  }
+
+  /**
+   * @return time (in milliseconds) before the TTL the fresh value is refreshed in the background
+   */
+  long getRefreshAhead() {
+    return refreshAhead;
+  }
+
+  /**
+   * @return maximum percentage of the TTL randomly cut from each cached value TTL, so values
+   * cached at the same moment do not expire at the same moment
+   */
+  int getTtlJitter() {
+    return ttlJitter;
+  }
+
+  /**
+   * @return time (in milliseconds) after which the cached value is removed from the cache
+   */
+  long getMaximumLifetime() {
+    return ttl + staleWhileRevalidate;
+  }
+
+  String getCacheKey() {
+    return cacheKey;
+  }
+
+  String getPayloadKey() {
+    return payloadKey;
+  }
+
+  long getLoadTimeout() {
+    return loadTimeout;
+  }
+
+  ActionLogLevel getLogLevel() {
+    return logLevel;
+  }
+
+  /**
+   * @return {@code true} when failed doAction results are cached
+   */
+  boolean isNegativeCacheEnabled() {
+    return negativeCacheEnabled;
+  }
+
+  long getNegativeMaximumSize() {
+    return negativeMaximumSize;
+  }
+
+  /**
+   * @return time (in milliseconds) the failed doAction result is cached
+   */
+  long getNegativeTtl() {
+    return negativeTtl;
+  }
+
+  /**
+   * @return the payload value served instead of the cached failure, {@code null} when the failed
+   * transition is served
+   */
+  Object getFallbackPayload() {
+    return fallbackPayload;
+  }
+}
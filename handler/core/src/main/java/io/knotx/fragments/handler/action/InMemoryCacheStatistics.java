@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import io.vertx.core.json.JsonObject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the in-memory-cache action, identified by the action alias. Statistics of all
+ * actions created with the same alias (e.g. in many verticle instances) are aggregated. The
+ * counters are updated lock-free, so they can be polled at any moment, e.g.
+ * <pre>
+ *   InMemoryCacheStatistics.forAlias("product-cache")
+ *       .ifPresent(statistics -&gt; LOGGER.info(statistics.toJson()));
+ * </pre>
+ */
+public final class InMemoryCacheStatistics {
+
+  private static final Map<String, InMemoryCacheStatistics> REGISTRY = new ConcurrentHashMap<>();
+
+  private final String alias;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder negativeHitCount = new LongAdder();
+  private final LongAdder loadCount = new LongAdder();
+  private final LongAdder loadFailureCount = new LongAdder();
+  private final LongAdder totalLoadTime = new LongAdder();
+  private final LongAdder weight = new LongAdder();
+  private final Map<RemovalCause, LongAdder> evictionCounts = new EnumMap<>(RemovalCause.class);
+  // caches are held weakly, so statistics do not keep dropped caches in memory
+  private final Set<Cache<String, CacheEntry>> caches = Collections
+      .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+  private final Set<Cache<String, String>> negativeCaches = Collections
+      .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private InMemoryCacheStatistics(String alias) {
+    this.alias = alias;
+    for (RemovalCause cause : RemovalCause.values()) {
+      if (cause.wasEvicted()) {
+        evictionCounts.put(cause, new LongAdder());
+      }
+    }
+  }
+
+  /**
+   * Returns statistics registered under the action alias, creating them for the first action with
+   * the alias.
+   */
+  static InMemoryCacheStatistics register(String alias) {
+    return REGISTRY.computeIfAbsent(alias, InMemoryCacheStatistics::new);
+  }
+
+  /**
+   * @param alias action alias
+   * @return statistics of the in-memory-cache actions with the alias
+   */
+  public static Optional<InMemoryCacheStatistics> forAlias(String alias) {
+    return Optional.ofNullable(REGISTRY.get(alias));
+  }
+
+  /**
+   * @return statistics of all in-memory-cache actions
+   */
+  public static Collection<InMemoryCacheStatistics> all() {
+    return Collections.unmodifiableCollection(REGISTRY.values());
+  }
+
+  void attachCaches(Cache<String, CacheEntry> cache, Cache<String, String> negativeCache) {
+    caches.add(cache);
+    if (negativeCache != null) {
+      negativeCaches.add(negativeCache);
+    }
+  }
+
+  void recordHit() {
+    hitCount.increment();
+  }
+
+  void recordMiss() {
+    missCount.increment();
+  }
+
+  void recordNegativeHit() {
+    negativeHitCount.increment();
+  }
+
+  void recordLoad(long startNanos, boolean succeeded) {
+    loadCount.increment();
+    totalLoadTime.add(System.nanoTime() - startNanos);
+    if (!succeeded) {
+      loadFailureCount.increment();
+    }
+  }
+
+  void recordPut(CacheEntry entry) {
+    weight.add(entry.getWeight());
+  }
+
+  void onRemoval(RemovalNotification<String, CacheEntry> notification) {
+    if (notification.getValue() != null) {
+      weight.add(-notification.getValue().getWeight());
+    }
+    LongAdder evictionCount = evictionCounts.get(notification.getCause());
+    if (evictionCount != null) {
+      evictionCount.increment();
+    }
+  }
+
+  public String getAlias() {
+    return alias;
+  }
+
+  /**
+   * @return the number of invocations served with the cached (fresh or stale) value
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * @return the number of invocations that did not find a value in the cache
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * @return the number of invocations served with the cached failure, without calling doAction
+   */
+  public long getNegativeHitCount() {
+    return negativeHitCount.sum();
+  }
+
+  /**
+   * @return the ratio of hits to all invocations, {@code 1.0} when there were no invocations
+   */
+  public double getHitRate() {
+    long hits = getHitCount();
+    long requests = hits + getMissCount();
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+
+  /**
+   * @return the number of doAction calls (including background refreshes)
+   */
+  public long getLoadCount() {
+    return loadCount.sum();
+  }
+
+  /**
+   * @return the number of failed doAction calls
+   */
+  public long getLoadFailureCount() {
+    return loadFailureCount.sum();
+  }
+
+  /**
+   * @return the average time (in milliseconds) of the doAction calls
+   */
+  public double getAverageLoadTime() {
+    long loads = getLoadCount();
+    return loads == 0 ? 0.0
+        : (double) totalLoadTime.sum() / loads / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  /**
+   * @param cause eviction cause
+   * @return the number of values evicted from the cache for the cause
+   */
+  public long getEvictionCount(RemovalCause cause) {
+    LongAdder evictionCount = evictionCounts.get(cause);
+    return evictionCount == null ? 0 : evictionCount.sum();
+  }
+
+  /**
+   * @return the approximate number of values in all caches of the alias
+   */
+  public long getSize() {
+    synchronized (caches) {
+      return caches.stream().mapToLong(Cache::size).sum();
+    }
+  }
+
+  /**
+   * @return the approximate number of failures in all negative caches of the alias
+   */
+  public long getNegativeSize() {
+    synchronized (negativeCaches) {
+      return negativeCaches.stream().mapToLong(Cache::size).sum();
+    }
+  }
+
+  /**
+   * @return the estimated weight of the cached values: the number of bytes for the off-heap
+   * storage, the number of values for the heap storage
+   */
+  public long getWeight() {
+    return weight.sum();
+  }
+
+  public JsonObject toJson() {
+    JsonObject evictions = new JsonObject();
+    evictionCounts.forEach((cause, count) -> evictions.put(cause.name(), count.sum()));
+    return new JsonObject()
+        .put("alias", alias)
+        .put("hitCount", getHitCount())
+        .put("missCount", getMissCount())
+        .put("negativeHitCount", getNegativeHitCount())
+        .put("hitRate", getHitRate())
+        .put("loadCount", getLoadCount())
+        .put("loadFailureCount", getLoadFailureCount())
+        .put("averageLoadTime", getAverageLoadTime())
+        .put("evictionCount", evictions)
+        .put("size", getSize())
+        .put("weight", getWeight())
+        .put("negativeSize", getNegativeSize());
+  }
+
+  @Override
+  public String toString() {
+    return "InMemoryCacheStatistics" + toJson().encode();
+  }
+}
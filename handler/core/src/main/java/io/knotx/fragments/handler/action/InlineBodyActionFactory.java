@@ -18,6 +18,8 @@ package io.knotx.fragments.handler.action;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.fragments.task.factory.node.subtasks.SubtasksNodeFactory;
 import io.vertx.core.Future;
@@ -38,6 +40,7 @@ import io.vertx.core.json.JsonObject;
  * {@link SubtasksNodeFactory}.
  */
 @Cacheable
+@Execution(ExecutionMode.EVENT_LOOP)
 public class InlineBodyActionFactory implements ActionFactory {
 
   private static final String DEFAULT_EMPTY_BODY = "";
@@ -19,6 +19,8 @@ import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.vertx.core.Future;
@@ -26,6 +28,7 @@ import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 
 @Cacheable
+@Execution(ExecutionMode.EVENT_LOOP)
 public class InlinePayloadActionFactory implements ActionFactory {
 
   @Override
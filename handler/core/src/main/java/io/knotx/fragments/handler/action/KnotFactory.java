@@ -19,11 +19,14 @@ import io.knotx.fragments.handler.api.Knot;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.json.JsonObject;
 
 @Cacheable
+@Execution(ExecutionMode.EVENT_LOOP)
 public class KnotFactory implements ActionFactory {
 
   @Override
@@ -39,7 +42,19 @@ public class KnotFactory implements ActionFactory {
         config.getJsonObject("deliveryOptions") == null ? new JsonObject()
             : config.getJsonObject("deliveryOptions"));
 
-    return Knot.createProxyWithOptions(vertx, address, deliveryOptions);
+    Knot knot = Knot.createProxyWithOptions(vertx, address, deliveryOptions);
+    return (fragmentContext, resultHandler) -> {
+      long remainingTime = fragmentContext.getRemainingTime();
+      if (remainingTime < deliveryOptions.getSendTimeout()) {
+        // the reply is not awaited longer than the request deadline
+        DeliveryOptions callOptions = new DeliveryOptions(deliveryOptions)
+            .setSendTimeout(Math.max(remainingTime, 1L));
+        Knot.createProxyWithOptions(vertx, address, callOptions)
+            .apply(fragmentContext, resultHandler);
+      } else {
+        knot.apply(fragmentContext, resultHandler);
+      }
+    };
   }
 
 }
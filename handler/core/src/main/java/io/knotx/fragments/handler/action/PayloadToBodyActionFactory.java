@@ -21,6 +21,8 @@ import static io.vertx.core.Future.succeededFuture;
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
@@ -28,6 +30,7 @@ import io.vertx.core.json.JsonObject;
 import java.util.Objects;
 import java.util.Optional;
 
+@Execution(ExecutionMode.EVENT_LOOP)
 public class PayloadToBodyActionFactory implements ActionFactory {
 
   private static final String KEY = "key";
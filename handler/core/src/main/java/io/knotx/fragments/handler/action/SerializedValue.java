@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.IllegalReferenceCountException;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cached value stored as UTF-8 JSON text (optionally deflated) in pooled direct memory, outside of
+ * the heap. The value is decoded on each read, so every reader gets its own copy. The memory is
+ * returned to the pool with {@link #release()} when the value is removed from the cache, it does
+ * not wait for the garbage collector.
+ * <p>
+ * Released pooled buffers are recycled (the same {@code ByteBuf} object is handed out by the next
+ * allocation), so the buffer reference count can not tell a released value from a reused buffer.
+ * The value keeps its own reference count instead: the cache holds one reference, each read holds
+ * one while copying the bytes, and the buffer is returned to the pool when the count drops to
+ * {@code 0}. A released value is never retained again.
+ */
+final class SerializedValue {
+
+  private static final int BUFFER_SIZE = 4096;
+
+  private final ByteBuf data;
+  // the cache reference and the reads in progress
+  private final AtomicInteger references = new AtomicInteger(1);
+  private final int size;
+  private final boolean compressed;
+
+  private SerializedValue(byte[] bytes, int size, boolean compressed) {
+    this.data = PooledByteBufAllocator.DEFAULT.directBuffer(bytes.length, bytes.length)
+        .writeBytes(bytes);
+    this.size = size;
+    this.compressed = compressed;
+  }
+
+  /**
+   * Serializes the value.
+   *
+   * @param value JSON value: object, array, string, number or boolean
+   * @param compress {@code true} to deflate the serialized value
+   * @return serialized value
+   */
+  static SerializedValue of(Object value, boolean compress) {
+    byte[] bytes = new JsonArray().add(value).toBuffer().getBytes();
+    return compress
+        ? new SerializedValue(deflate(bytes), bytes.length, true)
+        : new SerializedValue(bytes, bytes.length, false);
+  }
+
+  /**
+   * @return the decoded value
+   * @throws IllegalReferenceCountException when the value was already released (removed from the
+   * cache by another thread)
+   */
+  Object decode() {
+    if (!tryRetain()) {
+      throw new IllegalReferenceCountException(0);
+    }
+    byte[] bytes;
+    try {
+      bytes = new byte[data.readableBytes()];
+      data.getBytes(data.readerIndex(), bytes);
+    } finally {
+      release();
+    }
+    if (compressed) {
+      bytes = inflate(bytes, size);
+    }
+    return new JsonArray(Buffer.buffer(bytes)).getValue(0);
+  }
+
+  /**
+   * Drops the cache reference, called when the value is removed from the cache. The direct memory
+   * is returned to the pool once the reads in progress end, then the value can not be decoded
+   * anymore.
+   */
+  void release() {
+    if (references.decrementAndGet() == 0) {
+      data.release();
+    }
+  }
+
+  boolean isReleased() {
+    return references.get() == 0;
+  }
+
+  private boolean tryRetain() {
+    int current;
+    do {
+      current = references.get();
+      if (current == 0) {
+        return false;
+      }
+    } while (!references.compareAndSet(current, current + 1));
+    return true;
+  }
+
+  /**
+   * @return the number of bytes occupied in direct memory
+   */
+  int getWeight() {
+    return data.capacity();
+  }
+
+  private static byte[] deflate(byte[] bytes) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(bytes.length, BUFFER_SIZE));
+      byte[] buffer = new byte[BUFFER_SIZE];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static byte[] inflate(byte[] bytes, int size) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(bytes);
+      byte[] result = new byte[size];
+      int length = 0;
+      while (length < size && !inflater.finished()) {
+        length += inflater.inflate(result, length, size - length);
+      }
+      return result;
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Cached value is corrupted", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -23,6 +23,7 @@ import static java.time.Instant.now;
 
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.Cancellable;
 import io.knotx.fragments.handler.api.actionlog.ActionLog;
 import io.knotx.fragments.handler.api.actionlog.ActionLogLevel;
 import io.knotx.fragments.handler.api.actionlog.ActionLogger;
@@ -34,12 +35,19 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Promise;
 import io.vertx.core.json.JsonObject;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
-class CircuitBreakerAction implements Action {
+class CircuitBreakerAction implements Action, Cancellable {
 
   static final String INVOCATION_COUNT_LOG_KEY = "invocationCount";
   static final String ERROR_LOG_KEY = "error";
+  private final Map<FragmentContext, AtomicBoolean> invocations = Collections
+      .synchronizedMap(new IdentityHashMap<>());
   private final CircuitBreaker circuitBreaker;
   private final Action doAction;
   private final ActionLogLevel actionLogLevel;
@@ -57,15 +65,40 @@ class CircuitBreakerAction implements Action {
   public void apply(FragmentContext fragmentContext,
       Handler<AsyncResult<FragmentResult>> resultHandler) {
     AtomicInteger counter = new AtomicInteger();
+    AtomicBoolean cancelled = new AtomicBoolean();
     ActionLogger actionLogger = ActionLogger.create(alias, actionLogLevel);
+    invocations.put(fragmentContext, cancelled);
     circuitBreaker.executeWithFallback(
-        promise -> executeCommand(promise, fragmentContext, counter, actionLogger),
+        promise -> executeCommand(promise, fragmentContext, counter, cancelled, actionLogger),
         throwable -> handleFallback(fragmentContext, throwable, counter, actionLogger)
-    ).setHandler(resultHandler);
+    ).setHandler(result -> {
+      invocations.remove(fragmentContext);
+      resultHandler.handle(result);
+    });
+  }
+
+  /**
+   * Stops retries of the cancelled invocation and cancels the {@code doAction} invocation when it
+   * supports cancellation.
+   */
+  @Override
+  public void cancel(FragmentContext fragmentContext) {
+    AtomicBoolean cancelled = invocations.remove(fragmentContext);
+    if (cancelled != null) {
+      cancelled.set(true);
+    }
+    if (doAction instanceof Cancellable) {
+      ((Cancellable) doAction).cancel(fragmentContext);
+    }
   }
 
   private void executeCommand(Promise<FragmentResult> promise, FragmentContext fragmentContext,
-      AtomicInteger counter, ActionLogger actionLogger) {
+      AtomicInteger counter, AtomicBoolean cancelled, ActionLogger actionLogger) {
+    if (cancelled.get()) {
+      // retries follow failures only, so the cancelled retry is reported as a failure as well
+      promise.fail(new CancellationException(format("Action [%s] is cancelled", alias)));
+      return;
+    }
     counter.incrementAndGet();
     long startTime = now().toEpochMilli();
     try {
@@ -21,6 +21,8 @@ import static java.util.Objects.isNull;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
 import io.vertx.circuitbreaker.CircuitBreaker;
 import io.vertx.circuitbreaker.impl.CircuitBreakerImpl;
@@ -32,6 +34,7 @@ import io.vertx.core.json.JsonObject;
  * the `doAction` action against overloading when it does not respond on time. If t
  */
 @Cacheable
+@Execution(ExecutionMode.EVENT_LOOP)
 public class CircuitBreakerActionFactory implements ActionFactory {
 
   static final String FALLBACK_TRANSITION = "_fallback";
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.hedge;
+
+import static java.lang.String.valueOf;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.Cancellable;
+import io.knotx.fragments.handler.api.actionlog.ActionLogLevel;
+import io.knotx.fragments.handler.api.actionlog.ActionLogger;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calls the {@code doAction} and, when it does not respond within the hedge delay, calls it once
+ * again with a copy of the fragment. The first result wins, the other call is cancelled (when the
+ * {@code doAction} is {@link Cancellable}) or its result is ignored. A failure of one call waits
+ * for the result of the other one.
+ */
+class HedgeAction implements Action, Cancellable {
+
+  static final String HEDGED_LOG_KEY = "hedged";
+  static final String WINNER_LOG_KEY = "winner";
+  static final String PRIMARY = "primary";
+  static final String HEDGE = "hedge";
+
+  private static final long NO_TIMER = -1L;
+
+  private final Map<FragmentContext, Invocation> invocations = Collections
+      .synchronizedMap(new IdentityHashMap<>());
+  private final Vertx vertx;
+  private final Action doAction;
+  private final String alias;
+  private final ActionLogLevel actionLogLevel;
+  private final HedgeActionFactoryOptions options;
+  private final LatencyWindow latencies;
+  private final HedgeBudget budget;
+
+  HedgeAction(Vertx vertx, Action doAction, String alias, ActionLogLevel actionLogLevel,
+      HedgeActionFactoryOptions options) {
+    this.vertx = vertx;
+    this.doAction = doAction;
+    this.alias = alias;
+    this.actionLogLevel = actionLogLevel;
+    this.options = options;
+    this.latencies = new LatencyWindow(options.getSampleSize(), options.getPercentile());
+    this.budget = new HedgeBudget(options.getMaxHedgePercentage());
+  }
+
+  @Override
+  public void apply(FragmentContext fragmentContext,
+      Handler<AsyncResult<FragmentResult>> resultHandler) {
+    budget.onCall();
+    Invocation invocation = new Invocation(fragmentContext, resultHandler);
+    invocations.put(fragmentContext, invocation);
+    invocation.call(PRIMARY, fragmentContext);
+
+    long delay = hedgeDelay();
+    // hedging makes no sense when the deadline comes before the hedged call starts
+    if (delay < fragmentContext.getRemainingTime()) {
+      invocation.scheduleHedge(delay);
+    }
+  }
+
+  @Override
+  public void cancel(FragmentContext fragmentContext) {
+    Invocation invocation = invocations.remove(fragmentContext);
+    if (invocation != null) {
+      cancelAll(invocation.cancel());
+    }
+  }
+
+  long hedgeDelay() {
+    return options.getPercentile() > 0
+        ? latencies.percentile(options.getDelay())
+        : options.getDelay();
+  }
+
+  private void cancelAll(List<FragmentContext> calls) {
+    if (doAction instanceof Cancellable) {
+      calls.forEach(((Cancellable) doAction)::cancel);
+    }
+  }
+
+  private static FragmentContext copyOf(FragmentContext fragmentContext) {
+    Fragment fragment = new Fragment(fragmentContext.getFragment().toJson().copy());
+    return new FragmentContext(fragment, fragmentContext.getClientRequest(),
+        fragmentContext.getDeadline());
+  }
+
+  private class Invocation {
+
+    private final FragmentContext fragmentContext;
+    private final Handler<AsyncResult<FragmentResult>> resultHandler;
+    private final Map<String, FragmentContext> pending = new HashMap<>();
+    private final Map<String, Long> startTimes = new HashMap<>();
+    private final long startNanos = System.nanoTime();
+    private long timerId = NO_TIMER;
+    private boolean done;
+    private AsyncResult<FragmentResult> failure;
+
+    Invocation(FragmentContext fragmentContext,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      this.fragmentContext = fragmentContext;
+      this.resultHandler = resultHandler;
+    }
+
+    void call(String name, FragmentContext callContext) {
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        pending.put(name, callContext);
+        startTimes.put(name, System.currentTimeMillis());
+      }
+      try {
+        doAction.apply(callContext, result -> handle(name, result));
+      } catch (Exception e) {
+        handle(name, Future.failedFuture(e));
+      }
+    }
+
+    synchronized void scheduleHedge(long delay) {
+      if (!done) {
+        timerId = vertx.setTimer(Math.max(delay, 1L), id -> hedge());
+      }
+    }
+
+    private void hedge() {
+      synchronized (this) {
+        timerId = NO_TIMER;
+        if (done || !budget.tryHedge()) {
+          return;
+        }
+      }
+      call(HEDGE, copyOf(fragmentContext));
+    }
+
+    private void handle(String name, AsyncResult<FragmentResult> result) {
+      List<FragmentContext> losers;
+      long latency;
+      long elapsedNanos;
+      synchronized (this) {
+        if (done || pending.remove(name) == null) {
+          return;
+        }
+        if (result.failed() && !pending.isEmpty()) {
+          // the other call may still succeed
+          failure = result;
+          return;
+        }
+        done = true;
+        cancelTimer();
+        losers = new ArrayList<>(pending.values());
+        pending.clear();
+        latency = System.currentTimeMillis() - startTimes.get(name);
+        // the latency of the primary call is at least the time since the invocation start, even
+        // when the hedge wins, so the window is not biased towards fast hedged calls
+        elapsedNanos = System.nanoTime() - startNanos;
+      }
+      invocations.remove(fragmentContext);
+      cancelAll(losers);
+      if (result.succeeded()) {
+        latencies.record(elapsedNanos);
+        resultHandler.handle(Future.succeededFuture(toResult(name, result.result(), latency)));
+      } else {
+        resultHandler.handle(failure != null ? failure : result);
+      }
+    }
+
+    synchronized List<FragmentContext> cancel() {
+      done = true;
+      cancelTimer();
+      List<FragmentContext> calls = new ArrayList<>(pending.values());
+      pending.clear();
+      return calls;
+    }
+
+    private void cancelTimer() {
+      if (timerId != NO_TIMER) {
+        vertx.cancelTimer(timerId);
+        timerId = NO_TIMER;
+      }
+    }
+
+    private FragmentResult toResult(String name, FragmentResult result, long latency) {
+      ActionLogger actionLogger = ActionLogger.create(alias, actionLogLevel);
+      actionLogger.info(HEDGED_LOG_KEY, valueOf(startTimes.containsKey(HEDGE)));
+      actionLogger.info(WINNER_LOG_KEY, name);
+      actionLogger.doActionLog(latency, result.getNodeLog());
+      return new FragmentResult(result.getFragment(), result.getTransition(),
+          actionLogger.toLog().toJson());
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.hedge;
+
+import static io.knotx.fragments.handler.api.actionlog.ActionLogLevel.fromConfig;
+import static java.util.Objects.isNull;
+
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
+import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * This is a factory class creating action, which hedges slow `doAction` calls. When the `doAction`
+ * does not respond within the configured delay (or the configured percentile of recently observed
+ * latencies), the second, identical call is started and the first result wins. Only the configured
+ * percentage of calls can be hedged. It can be initialized with a configuration:
+ * <pre>
+ *   productDetails {
+ *     factory = hedge
+ *     config {
+ *       delay = 100
+ *       percentile = 95
+ *       maxHedgePercentage = 10
+ *     }
+ *     doAction = product
+ *   }
+ * </pre>
+ */
+@Cacheable
+@Execution(ExecutionMode.EVENT_LOOP)
+public class HedgeActionFactory implements ActionFactory {
+
+  static final String FACTORY_NAME = "hedge";
+
+  @Override
+  public String getName() {
+    return FACTORY_NAME;
+  }
+
+  @Override
+  public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
+    if (isNull(doAction)) {
+      throw new DoActionNotDefinedException("Hedge action requires `doAction` defined");
+    }
+    HedgeActionFactoryOptions options = new HedgeActionFactoryOptions(config);
+    return new HedgeAction(vertx, doAction, alias, fromConfig(options.getLogLevel()), options);
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.hedge;
+
+import static io.knotx.fragments.handler.api.actionlog.ActionLogLevel.ERROR;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+@DataObject(generateConverter = true)
+public class HedgeActionFactoryOptions {
+
+  /**
+   * Default delay (in milliseconds) after which the hedged call is started.
+   */
+  public static final long DEFAULT_DELAY = 100L;
+
+  /**
+   * Default number of the latest latencies the percentile is calculated from.
+   */
+  public static final int DEFAULT_SAMPLE_SIZE = 100;
+
+  /**
+   * Default percentage of calls that can be hedged.
+   */
+  public static final int DEFAULT_MAX_HEDGE_PERCENTAGE = 10;
+
+  private long delay = DEFAULT_DELAY;
+
+  private int percentile;
+
+  private int sampleSize = DEFAULT_SAMPLE_SIZE;
+
+  private int maxHedgePercentage = DEFAULT_MAX_HEDGE_PERCENTAGE;
+
+  private String logLevel = ERROR.getLevel();
+
+  /**
+   * Creates a new instance of {@link HedgeActionFactoryOptions} using the default values.
+   */
+  public HedgeActionFactoryOptions() {
+    // Empty constructor
+  }
+
+  /**
+   * Creates a new instance of {@link HedgeActionFactoryOptions} from the given json object.
+   *
+   * @param json the json object
+   */
+  public HedgeActionFactoryOptions(JsonObject json) {
+    HedgeActionFactoryOptionsConverter.fromJson(json, this);
+  }
+
+  /**
+   * @return a json object representing the current configuration.
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    HedgeActionFactoryOptionsConverter.toJson(this, json);
+    return json;
+  }
+
+  /**
+   * @return the hedge delay in milliseconds
+   */
+  public long getDelay() {
+    return delay;
+  }
+
+  /**
+   * Sets the time (in milliseconds) after which the second, identical call is started when the
+   * first one has not finished. It is used until the latency window is filled when the percentile
+   * is configured.
+   *
+   * @param delay the hedge delay in milliseconds
+   * @return the current {@link HedgeActionFactoryOptions} instance
+   */
+  public HedgeActionFactoryOptions setDelay(long delay) {
+    this.delay = delay;
+    return this;
+  }
+
+  /**
+   * @return the latency percentile
+   */
+  public int getPercentile() {
+    return percentile;
+  }
+
+  /**
+   * Sets the percentile (1 - 99) of the recently observed latencies used as the hedge delay. The
+   * default value {@code 0} means that the fixed delay is used.
+   *
+   * @param percentile the latency percentile
+   * @return the current {@link HedgeActionFactoryOptions} instance
+   */
+  public HedgeActionFactoryOptions setPercentile(int percentile) {
+    this.percentile = percentile;
+    return this;
+  }
+
+  /**
+   * @return the number of the latest latencies the percentile is calculated from
+   */
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  /**
+   * Sets the number of the latest latencies the percentile is calculated from. The percentile is
+   * recalculated each time this number of latencies is recorded.
+   *
+   * @param sampleSize the latency window size
+   * @return the current {@link HedgeActionFactoryOptions} instance
+   */
+  public HedgeActionFactoryOptions setSampleSize(int sampleSize) {
+    this.sampleSize = sampleSize;
+    return this;
+  }
+
+  /**
+   * @return the percentage of calls that can be hedged
+   */
+  public int getMaxHedgePercentage() {
+    return maxHedgePercentage;
+  }
+
+  /**
+   * Sets the percentage of calls that can be hedged. When the limit is reached, slow calls are not
+   * hedged, so hedging can not amplify the load of a slow backend.
+   *
+   * @param maxHedgePercentage the percentage of calls that can be hedged
+   * @return the current {@link HedgeActionFactoryOptions} instance
+   */
+  public HedgeActionFactoryOptions setMaxHedgePercentage(int maxHedgePercentage) {
+    this.maxHedgePercentage = maxHedgePercentage;
+    return this;
+  }
+
+  /**
+   * @return the action node log level
+   */
+  public String getLogLevel() {
+    return logLevel;
+  }
+
+  /**
+   * Sets the action node log level.
+   *
+   * @param logLevel the log level.
+   * @return the current {@link HedgeActionFactoryOptions} instance
+   */
+  public HedgeActionFactoryOptions setLogLevel(String logLevel) {
+    this.logLevel = logLevel;
+    return this;
+  }
+}
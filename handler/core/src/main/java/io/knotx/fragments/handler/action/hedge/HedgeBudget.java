@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.hedge;
+
+/**
+ * Token bucket limiting hedged calls to a percentage of all calls. Each call adds a fraction of a
+ * token, each hedged call takes a whole token. The bucket capacity allows short bursts of slow
+ * calls to be hedged, while in the long term no more than the configured percentage of calls is
+ * hedged.
+ */
+class HedgeBudget {
+
+  private static final double CAPACITY = 10.0;
+
+  private final double tokensPerCall;
+  private double tokens;
+
+  HedgeBudget(int maxHedgePercentage) {
+    this.tokensPerCall = Math.max(maxHedgePercentage, 0) / 100.0;
+  }
+
+  synchronized void onCall() {
+    tokens = Math.min(tokens + tokensPerCall, CAPACITY);
+  }
+
+  synchronized boolean tryHedge() {
+    if (tokens >= 1.0) {
+      tokens -= 1.0;
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.hedge;
+
+import io.knotx.fragments.engine.metrics.LatencyHistogram;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency percentile of the latest window of calls. Latencies are recorded lock-free to a {@link
+ * LatencyHistogram}. When the window of {@code sampleSize} latencies is filled, the percentile is
+ * calculated once and a new window starts, so reading the percentile costs a volatile read. Windows
+ * are approximate: latencies recorded concurrently with the window switch may fall into either
+ * window.
+ */
+class LatencyWindow {
+
+  private static final long NOT_CALCULATED = -1L;
+
+  private final int sampleSize;
+  private final int percentile;
+  private final AtomicInteger recorded = new AtomicInteger();
+  private volatile LatencyHistogram current = new LatencyHistogram();
+  private volatile long value = NOT_CALCULATED;
+
+  /**
+   * @param sampleSize the number of latencies the percentile is calculated from
+   * @param percentile the percentile (1 - 99)
+   */
+  LatencyWindow(int sampleSize, int percentile) {
+    this.sampleSize = Math.max(sampleSize, 1);
+    this.percentile = percentile;
+  }
+
+  /**
+   * @param latencyNanos the call latency in nanoseconds
+   */
+  void record(long latencyNanos) {
+    LatencyHistogram histogram = current;
+    histogram.record(latencyNanos);
+    if (recorded.incrementAndGet() == sampleSize) {
+      // only one caller fills the window
+      current = new LatencyHistogram();
+      recorded.set(0);
+      value = histogram.getValueAtPercentile(percentile, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Returns the percentile calculated from the latest filled window. Until the first window is
+   * filled, the default value is returned, as a few samples do not describe the latency
+   * distribution.
+   *
+   * @param defaultValue the value returned when no window is filled yet
+   * @return the latency percentile in milliseconds
+   */
+  long percentile(long defaultValue) {
+    long calculated = value;
+    return calculated == NOT_CALCULATED ? defaultValue : calculated;
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.singleflight;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.knotx.server.common.placeholders.PlaceholdersResolver;
+import io.knotx.server.common.placeholders.SourceDefinitions;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares one {@code doAction} call between all invocations of the request resolving to the same
+ * key. The first invocation calls the {@code doAction}, the others wait for its result and get the
+ * copy of its payload value. Calls are tracked per client request instance, which is shared by all
+ * fragments of the request, and are forgotten when the request is garbage collected. The number of
+ * calls and shared invocations is available in {@link SingleFlightStatistics}.
+ */
+class SingleFlightAction implements Action {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlightAction.class);
+
+  private final Cache<ClientRequest, ConcurrentMap<String, SharedCall>> requests = CacheBuilder
+      .newBuilder()
+      .weakKeys()
+      .build();
+  private final SingleFlightStatistics statistics;
+  private final String alias;
+  private final Action doAction;
+  private final String key;
+  private final String payloadKey;
+
+  SingleFlightAction(String alias, Action doAction, String key, String payloadKey) {
+    this.alias = alias;
+    this.doAction = doAction;
+    this.key = key;
+    this.payloadKey = payloadKey;
+    this.statistics = SingleFlightStatistics.register(alias);
+  }
+
+  @Override
+  public void apply(FragmentContext fragmentContext,
+      Handler<AsyncResult<FragmentResult>> resultHandler) {
+    ClientRequest clientRequest = fragmentContext.getClientRequest();
+    String callKey = PlaceholdersResolver.resolve(key, buildSourceDefinitions(clientRequest));
+
+    SharedCall call = new SharedCall();
+    SharedCall inFlight = requests.asMap()
+        .computeIfAbsent(clientRequest, request -> new ConcurrentHashMap<>())
+        .putIfAbsent(callKey, call);
+
+    if (inFlight == null) {
+      statistics.recordCall();
+      call.addFollower(resultHandler::handle);
+      try {
+        doAction.apply(fragmentContext, call::complete);
+      } catch (Exception e) {
+        call.complete(Future.failedFuture(e));
+      }
+    } else {
+      statistics.recordSavedCall();
+      LOGGER.trace("Action [{}] shares the call [{}] of the request.", alias, callKey);
+      inFlight.addFollower(result -> resultHandler.handle(result.succeeded()
+          ? Future.succeededFuture(share(result.result(), fragmentContext.getFragment()))
+          : result));
+    }
+  }
+
+  private FragmentResult share(FragmentResult result, Fragment fragment) {
+    JsonObject payload = result.getFragment().getPayload();
+    if (payload.containsKey(payloadKey)) {
+      fragment.appendPayload(payloadKey, copyOf(payload.getValue(payloadKey)));
+    }
+    return new FragmentResult(fragment, result.getTransition(), result.getNodeLog());
+  }
+
+  private static Object copyOf(Object value) {
+    if (value instanceof JsonObject) {
+      return ((JsonObject) value).copy();
+    } else if (value instanceof JsonArray) {
+      return ((JsonArray) value).copy();
+    }
+    return value;
+  }
+
+  private static SourceDefinitions buildSourceDefinitions(ClientRequest clientRequest) {
+    return SourceDefinitions.builder()
+        .addClientRequestSource(clientRequest)
+        .build();
+  }
+
+  /**
+   * The {@code doAction} call with invocations waiting for its result. Invocations coming after the
+   * call completes get the result immediately.
+   */
+  private static class SharedCall {
+
+    private List<Handler<AsyncResult<FragmentResult>>> followers = new ArrayList<>();
+    private AsyncResult<FragmentResult> result;
+
+    void addFollower(Handler<AsyncResult<FragmentResult>> follower) {
+      synchronized (this) {
+        if (result == null) {
+          followers.add(follower);
+          return;
+        }
+      }
+      follower.handle(result);
+    }
+
+    void complete(AsyncResult<FragmentResult> callResult) {
+      List<Handler<AsyncResult<FragmentResult>>> waiting;
+      synchronized (this) {
+        if (result != null) {
+          return;
+        }
+        result = callResult;
+        waiting = followers;
+        followers = null;
+      }
+      waiting.forEach(follower -> follower.handle(callResult));
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.singleflight;
+
+import static java.util.Objects.isNull;
+
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
+import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * This is a factory class creating action, which deduplicates identical `doAction` invocations
+ * within a request. All fragments of the request resolving to the same key share one `doAction`
+ * call and its payload result. It can be initialized with a configuration:
+ * <pre>
+ *   productDetails {
+ *     factory = single-flight
+ *     config {
+ *       key = product-{param.id}
+ *       payloadKey = product
+ *     }
+ *     doAction = product
+ *   }
+ * </pre>
+ */
+@Cacheable
+@Execution(ExecutionMode.EVENT_LOOP)
+public class SingleFlightActionFactory implements ActionFactory {
+
+  static final String FACTORY_NAME = "single-flight";
+
+  @Override
+  public String getName() {
+    return FACTORY_NAME;
+  }
+
+  @Override
+  public Action create(String alias, JsonObject config, Vertx vertx, Action doAction) {
+    if (isNull(doAction)) {
+      throw new DoActionNotDefinedException("Single flight action requires `doAction` defined");
+    }
+    SingleFlightActionFactoryOptions options = new SingleFlightActionFactoryOptions(config);
+    if (StringUtils.isBlank(options.getKey())) {
+      throw new IllegalArgumentException("Action requires key value in configuration.");
+    }
+    if (StringUtils.isBlank(options.getPayloadKey())) {
+      throw new IllegalArgumentException("Action requires payloadKey value in configuration.");
+    }
+    return new SingleFlightAction(alias, doAction, options.getKey(), options.getPayloadKey());
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.singleflight;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+@DataObject(generateConverter = true)
+public class SingleFlightActionFactoryOptions {
+
+  private String key;
+
+  private String payloadKey;
+
+  /**
+   * Creates a new instance of {@link SingleFlightActionFactoryOptions} using the default values.
+   */
+  public SingleFlightActionFactoryOptions() {
+    // Empty constructor
+  }
+
+  /**
+   * Creates a new instance of {@link SingleFlightActionFactoryOptions} from the given json object.
+   *
+   * @param json the json object
+   */
+  public SingleFlightActionFactoryOptions(JsonObject json) {
+    SingleFlightActionFactoryOptionsConverter.fromJson(json, this);
+  }
+
+  /**
+   * @return a json object representing the current configuration.
+   */
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    SingleFlightActionFactoryOptionsConverter.toJson(this, json);
+    return json;
+  }
+
+  /**
+   * @return the key template
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Sets the key template identifying identical invocations within a request, e.g.
+   * <code>product-{param.id}</code>. It can be parametrized with request data like params,
+   * headers etc. All invocations resolving to the same key share one <code>doAction</code> call.
+   *
+   * @param key the key template
+   * @return the current {@link SingleFlightActionFactoryOptions} instance
+   */
+  public SingleFlightActionFactoryOptions setKey(String key) {
+    this.key = key;
+    return this;
+  }
+
+  /**
+   * @return the payload key
+   */
+  public String getPayloadKey() {
+    return payloadKey;
+  }
+
+  /**
+   * Sets the payload key under which the <code>doAction</code> stores its result. The value is
+   * copied to the payload of all fragments sharing the call.
+   *
+   * @param payloadKey the payload key
+   * @return the current {@link SingleFlightActionFactoryOptions} instance
+   */
+  public SingleFlightActionFactoryOptions setPayloadKey(String payloadKey) {
+    this.payloadKey = payloadKey;
+    return this;
+  }
+}
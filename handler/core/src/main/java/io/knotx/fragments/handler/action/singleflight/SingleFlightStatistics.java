@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.singleflight;
+
+import io.vertx.core.json.JsonObject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the single-flight action, identified by the action alias. Statistics of all
+ * actions created with the same alias (e.g. in many verticle instances) are aggregated. The
+ * counters are updated lock-free, so they can be polled at any moment, e.g.
+ * <pre>
+ *   SingleFlightStatistics.forAlias("product-details")
+ *       .ifPresent(statistics -&gt; LOGGER.info(statistics.toJson()));
+ * </pre>
+ */
+public final class SingleFlightStatistics {
+
+  private static final Map<String, SingleFlightStatistics> REGISTRY = new ConcurrentHashMap<>();
+
+  private final String alias;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder savedCalls = new LongAdder();
+
+  private SingleFlightStatistics(String alias) {
+    this.alias = alias;
+  }
+
+  /**
+   * Returns statistics registered under the action alias, creating them for the first action with
+   * the alias.
+   */
+  static SingleFlightStatistics register(String alias) {
+    return REGISTRY.computeIfAbsent(alias, SingleFlightStatistics::new);
+  }
+
+  /**
+   * @param alias action alias
+   * @return statistics of the single-flight actions with the alias
+   */
+  public static Optional<SingleFlightStatistics> forAlias(String alias) {
+    return Optional.ofNullable(REGISTRY.get(alias));
+  }
+
+  /**
+   * @return statistics of all single-flight actions
+   */
+  public static Collection<SingleFlightStatistics> all() {
+    return Collections.unmodifiableCollection(REGISTRY.values());
+  }
+
+  void recordCall() {
+    calls.increment();
+  }
+
+  void recordSavedCall() {
+    savedCalls.increment();
+  }
+
+  public String getAlias() {
+    return alias;
+  }
+
+  /**
+   * @return the number of {@code doAction} calls
+   */
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  /**
+   * @return the number of invocations that shared the call started by other invocation
+   */
+  public long getSavedCalls() {
+    return savedCalls.sum();
+  }
+
+  /**
+   * @return the ratio of shared invocations to all invocations, {@code 0.0} when there were no
+   * invocations
+   */
+  public double getSavedCallsRate() {
+    long saved = getSavedCalls();
+    long invocations = saved + getCalls();
+    return invocations == 0 ? 0.0 : (double) saved / invocations;
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+        .put("alias", alias)
+        .put("calls", getCalls())
+        .put("savedCalls", getSavedCalls())
+        .put("savedCallsRate", getSavedCallsRate());
+  }
+
+  @Override
+  public String toString() {
+    return "SingleFlightStatistics" + toJson().encode();
+  }
+}
@@ -26,6 +26,8 @@ public class ActionFactoryOptions {
   private String factory;
   private JsonObject config;
   private String doAction;
+  private String executionMode;
+  private long timeout;
 
   private ActionFactoryOptions() {
   }
@@ -103,6 +105,42 @@ public class ActionFactoryOptions {
     return this;
   }
 
+  public String getExecutionMode() {
+    return executionMode;
+  }
+
+  /**
+   * Sets the execution mode of the {@code Action}: {@code event-loop}, {@code compute} or {@code
+   * blocking}. If not set ({@code null}), the mode declared by the action factory is used and
+   * {@code blocking} when the factory does not declare any.
+   *
+   * @param executionMode action execution mode.
+   * @return reference to this, so the API can be used fluently
+   */
+  public ActionFactoryOptions setExecutionMode(String executionMode) {
+    this.executionMode = executionMode;
+    return this;
+  }
+
+  public long getTimeout() {
+    return timeout;
+  }
+
+  /**
+   * Sets the {@code Action} timeout in milliseconds. The action gets the time budget that is the
+   * minimum of the timeout and the time remaining to the request deadline. When the budget is
+   * exceeded, the action responds with the {@code _fallback} transition (when configured) or the
+   * {@code _error} transition. If not set ({@code 0}), the action is limited only by the request
+   * deadline.
+   *
+   * @param timeout action timeout in milliseconds.
+   * @return reference to this, so the API can be used fluently
+   */
+  public ActionFactoryOptions setTimeout(long timeout) {
+    this.timeout = timeout;
+    return this;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -112,14 +150,16 @@ public class ActionFactoryOptions {
       return false;
     }
     ActionFactoryOptions that = (ActionFactoryOptions) o;
-    return Objects.equals(factory, that.factory) &&
+    return timeout == that.timeout &&
+        Objects.equals(factory, that.factory) &&
         Objects.equals(config, that.config) &&
-        Objects.equals(doAction, that.doAction);
+        Objects.equals(doAction, that.doAction) &&
+        Objects.equals(executionMode, that.executionMode);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(factory, config, doAction);
+    return Objects.hash(factory, config, doAction, executionMode, timeout);
   }
 
   @Override
@@ -128,6 +168,8 @@ public class ActionFactoryOptions {
         "factory='" + factory + '\'' +
         ", config=" + config +
         ", doAction='" + doAction + '\'' +
+        ", executionMode='" + executionMode + '\'' +
+        ", timeout=" + timeout +
         '}';
   }
 }
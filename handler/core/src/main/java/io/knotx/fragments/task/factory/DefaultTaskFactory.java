@@ -18,12 +18,15 @@ package io.knotx.fragments.task.factory;
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.engine.FragmentEventContext;
 import io.knotx.fragments.engine.Task;
+import io.knotx.fragments.engine.graph.IndexedGraph;
 import io.knotx.fragments.engine.graph.Node;
 import io.knotx.fragments.task.TaskFactory;
 import io.knotx.fragments.task.exception.NodeFactoryNotFoundException;
 import io.knotx.fragments.task.exception.TaskNotFoundException;
 import io.knotx.fragments.task.factory.node.NodeFactory;
 import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
 import io.vertx.reactivex.core.Vertx;
 import java.util.HashMap;
 import java.util.Map;
@@ -31,16 +34,20 @@ import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class DefaultTaskFactory implements TaskFactory, NodeProvider {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(DefaultTaskFactory.class);
+
   public static final String NAME = "default";
 
   private DefaultTaskFactoryConfig taskFactoryConfig;
   private Map<String, NodeFactory> nodeFactories;
+  private final Map<String, IndexedGraph> compiledTasks = new ConcurrentHashMap<>();
 
   @Override
   public String getName() {
@@ -51,6 +58,8 @@ public class DefaultTaskFactory implements TaskFactory, NodeProvider {
   public DefaultTaskFactory configure(JsonObject taskFactoryConfig, Vertx vertx) {
     this.taskFactoryConfig = new DefaultTaskFactoryConfig(taskFactoryConfig);
     nodeFactories = initFactories(vertx);
+    compiledTasks.clear();
+    this.taskFactoryConfig.getTasks().forEach(this::compile);
     return this;
   }
 
@@ -76,12 +85,26 @@ public class DefaultTaskFactory implements TaskFactory, NodeProvider {
     Map<String, GraphNodeOptions> tasks = taskFactoryConfig.getTasks();
     return Optional.ofNullable(tasks.get(taskName))
         .map(rootGraphNodeOptions -> {
-          Node rootNode = initNode(rootGraphNodeOptions);
-          return new Task(taskName, rootNode);
+          IndexedGraph graph = compiledTasks
+              .computeIfAbsent(taskName, name -> compile(rootGraphNodeOptions));
+          return new Task(taskName, graph);
         })
         .orElseThrow(() -> new TaskNotFoundException(taskName));
   }
 
+  private IndexedGraph compile(GraphNodeOptions rootGraphNodeOptions) {
+    return IndexedGraph.compile(initNode(rootGraphNodeOptions));
+  }
+
+  private void compile(String taskName, GraphNodeOptions rootGraphNodeOptions) {
+    try {
+      compiledTasks.put(taskName, compile(rootGraphNodeOptions));
+    } catch (RuntimeException e) {
+      // tasks that are never requested should not break the handler start
+      LOGGER.warn("Task [{}] can not be compiled, it will fail when requested.", taskName, e);
+    }
+  }
+
   @Override
   public Node initNode(GraphNodeOptions nodeOptions) {
     return findNodeFactory(nodeOptions)
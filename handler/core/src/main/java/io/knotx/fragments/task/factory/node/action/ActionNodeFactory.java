@@ -19,6 +19,7 @@ import io.knotx.fragments.engine.graph.Node;
 import io.knotx.fragments.engine.graph.SingleNode;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
+import io.knotx.fragments.handler.api.Cancellable;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.fragments.task.factory.NodeProvider;
@@ -56,13 +57,21 @@ public class ActionNodeFactory implements NodeFactory {
     ActionNodeConfig config = new ActionNodeConfig(nodeOptions.getNode().getConfig());
     Action action = actionProvider.get(config.getAction()).orElseThrow(
         () -> new ActionNotFoundException(config.getAction()));
-    return new SingleNode(config.getAction(), toRxFunction(action), edges);
+    return new SingleNode(config.getAction(), toRxFunction(action), edges,
+        actionProvider.getExecutionMode(config.getAction()),
+        actionProvider.getTimeout(config.getAction()));
   }
 
   private Function<FragmentContext, Single<FragmentResult>> toRxFunction(
       Action action) {
     io.knotx.fragments.handler.reactivex.api.Action rxAction = io.knotx.fragments.handler.reactivex.api.Action
         .newInstance(action);
+    if (action instanceof Cancellable) {
+      // disposing the node subscription before the action responds cancels the action
+      Cancellable cancellable = (Cancellable) action;
+      return fragmentContext -> rxAction.rxApply(fragmentContext)
+          .doOnDispose(() -> cancellable.cancel(fragmentContext));
+    }
     return rxAction::rxApply;
   }
 
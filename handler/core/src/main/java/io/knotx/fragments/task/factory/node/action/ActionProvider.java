@@ -19,6 +19,8 @@ import io.knotx.fragments.task.factory.ActionFactoryOptions;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.reactivex.core.Vertx;
@@ -71,6 +73,44 @@ public class ActionProvider {
     }
   }
 
+  /**
+   * Resolves the execution mode of the action. The mode configured in action options wins,
+   * otherwise the mode declared by the action factory is combined with the mode of its {@code
+   * doAction}, as the base action is invoked on the same thread.
+   *
+   * @param action action alias
+   * @return execution mode of the action, {@link ExecutionMode#BLOCKING} when not declared
+   */
+  public ExecutionMode getExecutionMode(String action) {
+    ActionFactoryOptions actionFactoryOptions = actionNameToOptions.get(action);
+    if (actionFactoryOptions == null) {
+      return ExecutionMode.BLOCKING;
+    }
+    if (StringUtils.isNotBlank(actionFactoryOptions.getExecutionMode())) {
+      return ExecutionMode.fromConfig(actionFactoryOptions.getExecutionMode());
+    }
+    ExecutionMode declared = Optional.ofNullable(factories.get(actionFactoryOptions.getFactory()))
+        .map(factory -> factory.getClass().getAnnotation(Execution.class))
+        .map(Execution::value)
+        .orElse(ExecutionMode.BLOCKING);
+    return Optional.ofNullable(actionFactoryOptions.getDoAction())
+        .map(this::getExecutionMode)
+        .filter(doActionMode -> doActionMode.compareTo(declared) > 0)
+        .orElse(declared);
+  }
+
+  /**
+   * Resolves the timeout of the action.
+   *
+   * @param action action alias
+   * @return timeout of the action in milliseconds, {@code 0} when not configured
+   */
+  public long getTimeout(String action) {
+    return Optional.ofNullable(actionNameToOptions.get(action))
+        .map(ActionFactoryOptions::getTimeout)
+        .orElse(0L);
+  }
+
   private Function<String, Action> toAction(ActionFactoryOptions actionFactoryOptions,
       ActionFactory factory) {
     return action -> createAction(action, actionFactoryOptions, factory);
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.Task;
+import io.vertx.core.json.JsonObject;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ExecutionPlanCacheTest {
+
+  private final AtomicInteger plans = new AtomicInteger();
+
+  @Test
+  @DisplayName("Expect tasks of the repeated fragments planned once.")
+  void planRepeatedFragmentsOnce() {
+    // given
+    ExecutionPlanCache tested = new ExecutionPlanCache(10);
+    List<Task> first = tested.get(Arrays.asList(fragment("a", "task-a"), fragment("b", "task-b")),
+        this::plan);
+
+    // when
+    List<Task> second = tested.get(Arrays.asList(fragment("a", "task-a"), fragment("b", "task-b")),
+        this::plan);
+
+    // then
+    assertEquals(1, plans.get());
+    assertSame(first, second);
+    assertEquals(1, tested.size());
+  }
+
+  @Test
+  @DisplayName("Expect tasks planned again when a fragment configuration differs.")
+  void planDifferentConfigurations() {
+    // given
+    ExecutionPlanCache tested = new ExecutionPlanCache(10);
+    tested.get(Arrays.asList(fragment("a", "task-a")), this::plan);
+
+    // when
+    List<Task> tasks = tested.get(Arrays.asList(fragment("a", "task-b")), this::plan);
+
+    // then
+    assertEquals(2, plans.get());
+    assertEquals("task-b", tasks.get(0).getName());
+  }
+
+  @Test
+  @DisplayName("Expect tasks planned again when fragment types differ.")
+  void planDifferentTypes() {
+    // given
+    ExecutionPlanCache tested = new ExecutionPlanCache(10);
+    tested.get(Arrays.asList(fragment("a", "task-a")), this::plan);
+
+    // when
+    tested.get(Arrays.asList(fragment("b", "task-a")), this::plan);
+
+    // then
+    assertEquals(2, plans.get());
+  }
+
+  @Test
+  @DisplayName("Expect tasks planned once when fragments share the configuration instance.")
+  void planSharedConfigurationOnce() {
+    // given
+    ExecutionPlanCache tested = new ExecutionPlanCache(10);
+    JsonObject configuration = new JsonObject().put("task", "task-a");
+    tested.get(Arrays.asList(new Fragment("a", configuration, "body")), this::plan);
+
+    // when
+    List<Task> tasks = tested.get(Arrays.asList(new Fragment("a", configuration, "other body")),
+        this::plan);
+
+    // then
+    assertEquals(1, plans.get());
+    assertEquals("task-a", tasks.get(0).getName());
+  }
+
+  private List<Task> plan(List<Fragment> fragments) {
+    plans.incrementAndGet();
+    return fragments.stream()
+        .map(fragment -> new Task(fragment.getConfiguration().getString("task")))
+        .collect(Collectors.toList());
+  }
+
+  private Fragment fragment(String type, String task) {
+    return new Fragment(type, new JsonObject().put("task", task), "body");
+  }
+}
@@ -17,25 +17,33 @@ package io.knotx.fragments.handler;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import io.knotx.fragments.HoconLoader;
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.engine.FragmentEvent;
 import io.knotx.fragments.engine.FragmentEvent.Status;
+import io.knotx.fragments.handler.exception.FragmentsProcessingException;
 import io.knotx.fragments.handler.exception.TaskFactoryNameNotDefinedException;
 import io.knotx.fragments.handler.exception.TaskFactoryNotFoundException;
 import io.knotx.fragments.task.factory.DefaultTaskFactoryConfig;
 import io.knotx.server.api.context.ClientRequest;
 import io.knotx.server.api.context.RequestContext;
 import io.knotx.server.api.context.RequestEvent;
+import io.reactivex.Flowable;
 import io.reactivex.Single;
 import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import io.vertx.reactivex.core.Vertx;
+import io.vertx.reactivex.core.http.HttpServerResponse;
 import io.vertx.reactivex.ext.web.RoutingContext;
 import java.util.Collections;
 import java.util.List;
@@ -77,6 +85,28 @@ class FragmentsHandlerTest {
     }, testContext, vertx);
   }
 
+  @Test
+  @DisplayName("Expect no next handler and no failure when client closed the connection.")
+  void shouldCancelWhenConnectionClosed(Vertx vertx, VertxTestContext testContext)
+      throws Throwable {
+    HoconLoader.verify("handler/singleTaskFactoryWithSuccessTask.conf", config -> {
+      //given
+      RoutingContext routingContext = mockRoutingContext("success-task");
+      when(routingContext.response().closed()).thenReturn(true);
+      FragmentsHandler underTest = new FragmentsHandler(vertx, config);
+
+      //when
+      underTest.handle(routingContext);
+
+      //then
+      vertx.setTimer(500, timerId -> testContext.verify(() -> {
+        verify(routingContext, never()).next();
+        verify(routingContext, never()).fail(anyInt());
+        testContext.completeNow();
+      }));
+    }, testContext, vertx);
+  }
+
   @Test
   @DisplayName("Expect fail with Status Code 500 when any fragment is failed.")
   void shouldFail(Vertx vertx, VertxTestContext testContext)
@@ -151,6 +181,130 @@ class FragmentsHandlerTest {
     }, testContext, vertx);
   }
 
+  @Test
+  @DisplayName("Expect static fragments not processed and kept in the incoming order.")
+  void staticFragmentsBypassEngine(Vertx vertx, VertxTestContext testContext)
+      throws Throwable {
+    HoconLoader.verify("handler/singleTaskFactoryWithSuccessTask.conf", config -> {
+      //given
+      FragmentsHandler underTest = new FragmentsHandler(vertx, config);
+      JsonObject configuration = new JsonObject()
+          .put(DefaultTaskFactoryConfig.DEFAULT_TASK_NAME_KEY, "success-task");
+      List<Fragment> fragments = newArrayList(
+          new Fragment("_STATIC", configuration, "static-1"),
+          new Fragment("type", configuration, EMPTY_BODY),
+          new Fragment("_STATIC", new JsonObject(), "static-2"));
+
+      //when
+      Single<List<FragmentEvent>> rxDoHandle = underTest
+          .doHandle(fragments, new ClientRequest());
+
+      rxDoHandle.subscribe(
+          result -> testContext.verify(() -> {
+            // then
+            assertEquals(3, result.size());
+            assertEquals(Status.UNPROCESSED, result.get(0).getStatus());
+            assertEquals("static-1", result.get(0).getFragment().getBody());
+            assertEquals(Status.SUCCESS, result.get(1).getStatus());
+            assertEquals("success", result.get(1).getFragment().getBody());
+            assertEquals(Status.UNPROCESSED, result.get(2).getStatus());
+            assertEquals("static-2", result.get(2).getFragment().getBody());
+            testContext.completeNow();
+          }),
+          testContext::failNow
+      );
+    }, testContext, vertx);
+  }
+
+  @Test
+  @DisplayName("Expect fragments replaced by the stream before the next handler is called.")
+  void streamingReplacesFragments(Vertx vertx, VertxTestContext testContext)
+      throws Throwable {
+    HoconLoader.verify("handler/singleTaskFactoryWithStreaming.conf", config -> {
+      //given
+      RoutingContext routingContext = mockRoutingContext("success-task");
+      FragmentsHandler underTest = new FragmentsHandler(vertx, config);
+      doAnswer(invocation -> {
+        testContext.verify(() -> {
+          //then
+          verify(routingContext).remove("fragments");
+          verify(routingContext)
+              .put(eq(FragmentsHandler.FRAGMENTS_STREAM_KEY), any(Flowable.class));
+        });
+        testContext.completeNow();
+        return null;
+      })
+          .when(routingContext)
+          .next();
+
+      //when
+      underTest.handle(routingContext);
+    }, testContext, vertx);
+  }
+
+  @Test
+  @DisplayName("Expect streamed fragments in the incoming order.")
+  void streamFragments(Vertx vertx, VertxTestContext testContext)
+      throws Throwable {
+    HoconLoader.verify("handler/singleTaskFactoryWithSuccessTask.conf", config -> {
+      //given
+      FragmentsHandler underTest = new FragmentsHandler(vertx, config);
+      JsonObject configuration = new JsonObject()
+          .put(DefaultTaskFactoryConfig.DEFAULT_TASK_NAME_KEY, "success-task");
+      List<Fragment> fragments = newArrayList(
+          new Fragment("_STATIC", new JsonObject(), "static-1"),
+          new Fragment("type", configuration, EMPTY_BODY),
+          new Fragment("_STATIC", new JsonObject(), "static-2"),
+          new Fragment("type", new JsonObject(), "not-accepted"));
+
+      //when
+      Single<List<Fragment>> rxDoStream = underTest
+          .doStream(fragments, new ClientRequest())
+          .toList();
+
+      rxDoStream.subscribe(
+          result -> testContext.verify(() -> {
+            // then
+            assertEquals(4, result.size());
+            assertEquals("static-1", result.get(0).getBody());
+            assertEquals("success", result.get(1).getBody());
+            assertEquals("static-2", result.get(2).getBody());
+            assertEquals("not-accepted", result.get(3).getBody());
+            testContext.completeNow();
+          }),
+          testContext::failNow
+      );
+    }, testContext, vertx);
+  }
+
+  @Test
+  @DisplayName("Expect stream failed when any fragment is failed.")
+  void streamFailedFragment(Vertx vertx, VertxTestContext testContext)
+      throws Throwable {
+    HoconLoader.verify("handler/singleTaskFactoryWithFailingTask.conf", config -> {
+      //given
+      FragmentsHandler underTest = new FragmentsHandler(vertx, config);
+      List<Fragment> fragments = newArrayList(
+          new Fragment("_STATIC", new JsonObject(), "static"),
+          new Fragment("type", new JsonObject()
+              .put(DefaultTaskFactoryConfig.DEFAULT_TASK_NAME_KEY, "failing-task"), EMPTY_BODY));
+
+      //when
+      Single<List<Fragment>> rxDoStream = underTest
+          .doStream(fragments, new ClientRequest())
+          .toList();
+
+      rxDoStream.subscribe(
+          result -> testContext.failNow(new IllegalStateException("Expected failure")),
+          error -> testContext.verify(() -> {
+            // then
+            assertTrue(error instanceof FragmentsProcessingException);
+            testContext.completeNow();
+          })
+      );
+    }, testContext, vertx);
+  }
+
   @Test
   @DisplayName("Expect processed fragment when second factory accepts fragment.")
   void twoFactoriesWithTheSameName(Vertx vertx, VertxTestContext testContext)
@@ -176,6 +330,37 @@ class FragmentsHandlerTest {
     }, testContext, vertx);
   }
 
+  @Test
+  @DisplayName("Expect processed fragments of the repeated template when execution plans are cached.")
+  void executionPlanCache(Vertx vertx, VertxTestContext testContext)
+      throws Throwable {
+    HoconLoader.verify("handler/singleTaskFactoryWithExecutionPlanCache.conf", config -> {
+      //given
+      FragmentsHandler underTest = new FragmentsHandler(vertx, config);
+      JsonObject configuration = new JsonObject()
+          .put(DefaultTaskFactoryConfig.DEFAULT_TASK_NAME_KEY, "success-task");
+
+      //when
+      Single<List<FragmentEvent>> rxDoHandle = underTest
+          .doHandle(newArrayList(new Fragment("type", configuration, EMPTY_BODY),
+              new Fragment("type", new JsonObject(), EMPTY_BODY)), new ClientRequest())
+          .flatMap(first -> underTest
+              .doHandle(newArrayList(new Fragment("type", configuration, EMPTY_BODY),
+                  new Fragment("type", new JsonObject(), EMPTY_BODY)), new ClientRequest()));
+
+      rxDoHandle.subscribe(
+          result -> testContext.verify(() -> {
+            // then
+            assertEquals(Status.SUCCESS, result.get(0).getStatus());
+            assertEquals("success", result.get(0).getFragment().getBody());
+            assertEquals(Status.UNPROCESSED, result.get(1).getStatus());
+            testContext.completeNow();
+          }),
+          testContext::failNow
+      );
+    }, testContext, vertx);
+  }
+
   @Test
   @DisplayName("Expect exception when task factory name is not defined")
   void taskFactoryNameNotDefined(Vertx vertx, VertxTestContext testContext)
@@ -209,6 +394,9 @@ class FragmentsHandlerTest {
         new RequestEvent(new ClientRequest(), new JsonObject()));
 
     RoutingContext routingContext = Mockito.mock(RoutingContext.class);
+    HttpServerResponse response = Mockito.mock(HttpServerResponse.class);
+
+    when(routingContext.response()).thenReturn(response);
 
     when(routingContext.get(eq(RequestContext.KEY))).thenReturn(requestContext);
     when(routingContext.get(eq("fragments"))).thenReturn(
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.knotx.server.api.context.ClientRequest;
+import io.knotx.server.common.placeholders.PlaceholdersResolver;
+import io.knotx.server.common.placeholders.SourceDefinitions;
+import io.vertx.reactivex.core.MultiMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CacheKeyTemplateTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "product",
+      "product-{param.id}",
+      "{param.id}",
+      "product-{param.id}-{header.x-user-id}-{param.lang}",
+      "product-{param.missing}",
+      "product-{uri.path}-{param.id}",
+      "product-{param.id",
+      "product-}{param.id}{"
+  })
+  @DisplayName("Expect the same key as resolved by placeholders resolver.")
+  void expectKeyResolvedByPlaceholdersResolver(String template) {
+    // given
+    ClientRequest clientRequest = new ClientRequest()
+        .setPath("/products/list.html")
+        .setParams(MultiMap.caseInsensitiveMultiMap().add("id", "product1").add("lang", "en"))
+        .setHeaders(MultiMap.caseInsensitiveMultiMap().add("X-User-Id", "user1"));
+
+    // when
+    String key = CacheKeyTemplate.compile(template).resolve(clientRequest);
+
+    // then
+    assertEquals(PlaceholdersResolver.resolve(template, SourceDefinitions.builder()
+        .addClientRequestSource(clientRequest)
+        .build()), key);
+  }
+}
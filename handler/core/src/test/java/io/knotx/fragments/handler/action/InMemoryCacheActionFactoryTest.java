@@ -16,21 +16,39 @@
 package io.knotx.fragments.handler.action;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.google.common.cache.Cache;
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.junit5.KnotxExtension;
 import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxTestContext;
 import io.vertx.reactivex.core.MultiMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -316,8 +334,608 @@ class InMemoryCacheActionFactoryTest {
     }
   }
 
+  @DisplayName("doAction invoked once when concurrent cache misses have the same cacheKey")
+  @Test
+  void callDoActionOnceWhenConcurrentMisses() {
+    // given
+    List<Handler<AsyncResult<FragmentResult>>> pending = new ArrayList<>();
+    Action doAction = (fragmentContext, resultHandler) -> pending.add(result -> {
+      fragmentContext.getFragment().appendPayload(PAYLOAD_KEY, EXPECTED_PAYLOAD_DATA);
+      resultHandler.handle(Future.succeededFuture(
+          new FragmentResult(fragmentContext.getFragment(), FragmentResult.SUCCESS_TRANSITION)));
+    });
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "concurrent-product"), null, doAction);
+    List<AsyncResult<FragmentResult>> results = new ArrayList<>();
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()), results::add);
+    tested.apply(new FragmentContext(secondFragment, new ClientRequest()), results::add);
+    pending.forEach(handler -> handler.handle(null));
+
+    // then
+    assertEquals(1, pending.size());
+    assertEquals(2, results.size());
+    results.forEach(result -> assertEquals(EXPECTED_PAYLOAD_DATA,
+        result.result().getFragment().getPayload().getString(PAYLOAD_KEY)));
+    assertEquals(secondFragment, results.get(1).result().getFragment());
+  }
+
+  @DisplayName("doAction invoked by each cache when actions with the same alias have different configurations")
+  @Test
+  void callDoActionPerCacheWhenSameAlias() {
+    // given
+    List<FragmentContext> calls = new ArrayList<>();
+    Action doAction = (fragmentContext, resultHandler) -> calls.add(fragmentContext);
+    Action first = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "configured-product"), null, doAction);
+    Action second = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", "otherPayloadKey")
+            .put("cacheKey", "configured-product"), null, doAction);
+
+    // when
+    first.apply(new FragmentContext(firstFragment, new ClientRequest()), result -> {
+    });
+    second.apply(new FragmentContext(secondFragment, new ClientRequest()), result -> {
+    });
+
+    // then
+    assertEquals(2, calls.size());
+    assertEquals(secondFragment, calls.get(1).getFragment());
+  }
+
+  @DisplayName("Waiting invocation fails when doAction of the same cacheKey fails")
+  @Test
+  void propagateFailureToWaitingInvocations() {
+    // given
+    List<Handler<AsyncResult<FragmentResult>>> pending = new ArrayList<>();
+    Action doAction = (fragmentContext, resultHandler) -> pending.add(resultHandler);
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "failing-product"), null, doAction);
+    List<AsyncResult<FragmentResult>> results = new ArrayList<>();
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()), results::add);
+    tested.apply(new FragmentContext(secondFragment, new ClientRequest()), results::add);
+    pending.get(0).handle(Future.failedFuture(new IllegalStateException()));
+
+    // then
+    assertEquals(1, pending.size());
+    assertEquals(2, results.size());
+    results.forEach(result -> assertTrue(result.failed()));
+  }
+
+  @DisplayName("Waiting invocation fails with timeout when doAction of the same cacheKey does not end in time")
+  @Test
+  void timeoutWaitingInvocation(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    List<Handler<AsyncResult<FragmentResult>>> pending = new ArrayList<>();
+    Action doAction = (fragmentContext, resultHandler) -> pending.add(resultHandler);
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "slow-product").put("loadTimeout", 100), vertx, doAction);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()), result -> {
+    });
+    tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+        result -> {
+          // then
+          testContext.verify(() -> {
+            assertTrue(result.failed());
+            assertTrue(result.cause() instanceof TimeoutException);
+          });
+          pending.get(0).handle(Future.failedFuture(new IllegalStateException()));
+          testContext.completeNow();
+        });
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Stale value served and refreshed in background when staleWhileRevalidate is set")
+  @Test
+  void serveStaleValueAndRefresh(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    Action doAction = countingAction(calls, false);
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "stale-product")
+            .put("cache", new JsonObject().put("ttl", 50).put("staleWhileRevalidate", 5000)),
+            vertx, doAction);
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()), result -> {
+    });
+
+    // when
+    vertx.setTimer(100, timerId -> tested
+        .apply(new FragmentContext(secondFragment, new ClientRequest()), staleResult -> tested
+            .apply(new FragmentContext(firstFragment, new ClientRequest()), refreshedResult -> {
+              // then
+              testContext.verify(() -> {
+                assertEquals("value-1", payloadValue(staleResult));
+                assertEquals("value-2", payloadValue(refreshedResult));
+                assertEquals(2, calls.get());
+              });
+              testContext.completeNow();
+            })));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Stale value kept when background refresh fails")
+  @Test
+  void keepStaleValueWhenRefreshFails(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    Action doAction = countingAction(calls, true);
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "failing-refresh-product")
+            .put("cache", new JsonObject().put("ttl", 50).put("staleWhileRevalidate", 5000)),
+            vertx, doAction);
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()), result -> {
+    });
+
+    // when
+    vertx.setTimer(100, timerId -> tested
+        .apply(new FragmentContext(secondFragment, new ClientRequest()), staleResult -> tested
+            .apply(new FragmentContext(firstFragment, new ClientRequest()), nextResult -> {
+              // then
+              testContext.verify(() -> {
+                assertEquals("value-1", payloadValue(staleResult));
+                assertEquals("value-1", payloadValue(nextResult));
+                assertEquals(3, calls.get());
+              });
+              testContext.completeNow();
+            })));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Fresh value refreshed in background when refreshAhead is set")
+  @Test
+  void refreshAhead(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    Action doAction = countingAction(calls, false);
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+            .put("cacheKey", "refresh-ahead-product")
+            .put("cache", new JsonObject().put("ttl", 5000).put("refreshAhead", 5000)),
+            null, doAction);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                assertEquals("value-1", payloadValue(firstResult));
+                assertEquals("value-1", payloadValue(secondResult));
+                assertEquals(2, calls.get());
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Copy of cached value served when off-heap storage with compression is set")
+  @Test
+  void serveOffHeapValue(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    JsonObject product = new JsonObject().put("id", 1).put("name", EXPECTED_PAYLOAD_DATA)
+        .put("tags", new JsonArray().add("a").add("b"));
+    Action doAction = (fragmentContext, resultHandler) -> {
+      calls.incrementAndGet();
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, product);
+      Future
+          .succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+                .put("cacheKey", "off-heap-product")
+                .put("cache", new JsonObject().put("storage", "off-heap").put("compression", true)),
+            null, doAction);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                JsonObject cached = secondResult.result().getFragment().getPayload()
+                    .getJsonObject(PAYLOAD_KEY);
+                assertEquals(product, cached);
+                assertNotSame(product, cached);
+                assertEquals(1, calls.get());
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("doAction invoked twice when off-heap value exceeds maximumBytes")
+  @Test
+  void evictOffHeapValueAboveByteBudget(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    Action doAction = countingAction(calls, false);
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+                .put("cacheKey", "off-heap-budget-product")
+                .put("cache", new JsonObject().put("storage", "off-heap").put("maximumBytes", 1)),
+            null, doAction);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                assertEquals("value-1", payloadValue(firstResult));
+                assertEquals("value-2", payloadValue(secondResult));
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Off-heap memory released when values are evicted or replaced")
+  @Test
+  void releaseRemovedOffHeapValues() {
+    // given
+    Cache<String, CacheEntry> evicting = offHeapCache(1);
+    Cache<String, CacheEntry> replacing = offHeapCache(1024 * 1024);
+    SerializedValue evicted = SerializedValue.of(EXPECTED_PAYLOAD_DATA, false);
+    SerializedValue replaced = SerializedValue.of(EXPECTED_PAYLOAD_DATA, true);
+    SerializedValue current = SerializedValue.of(EXPECTED_PAYLOAD_DATA, true);
+
+    // when
+    evicting.put("key", offHeapEntry(evicted));
+    evicting.cleanUp();
+    replacing.put("key", offHeapEntry(replaced));
+    replacing.put("key", offHeapEntry(current));
+
+    // then
+    assertTrue(evicted.isReleased());
+    assertTrue(replaced.isReleased());
+    assertFalse(current.isReleased());
+    assertSame(CacheEntry.NO_VALUE, offHeapEntry(evicted).getValue());
+    assertEquals(EXPECTED_PAYLOAD_DATA, replacing.getIfPresent("key").getValue());
+  }
+
+  @DisplayName("Off-heap value read concurrently with its removal is the cached value or missing")
+  @Test
+  void readOffHeapValueConcurrentlyWithRemoval() throws Exception {
+    // given
+    Cache<String, CacheEntry> cache = offHeapCache(1024 * 1024);
+    cache.put("key", offHeapEntry(SerializedValue.of(EXPECTED_PAYLOAD_DATA, false)));
+    // the same length, so the recycled buffers of removed values are reused for it
+    String foreign = EXPECTED_PAYLOAD_DATA.replace('o', 'x');
+    AtomicBoolean running = new AtomicBoolean(true);
+    List<Object> unexpected = new CopyOnWriteArrayList<>();
+    ExecutorService readers = Executors.newFixedThreadPool(4);
+    CompletableFuture<?>[] reads = new CompletableFuture<?>[4];
+    for (int i = 0; i < reads.length; i++) {
+      reads[i] = CompletableFuture.runAsync(() -> {
+        while (running.get()) {
+          CacheEntry entry = cache.getIfPresent("key");
+          Object value = entry == null ? CacheEntry.NO_VALUE : entry.getValue();
+          if (value != CacheEntry.NO_VALUE && !EXPECTED_PAYLOAD_DATA.equals(value)) {
+            unexpected.add(value);
+          }
+        }
+      }, readers);
+    }
+
+    // when
+    for (int i = 0; i < 10_000; i++) {
+      cache.put("key", offHeapEntry(SerializedValue.of(EXPECTED_PAYLOAD_DATA, false)));
+      SerializedValue.of(foreign, false).release();
+    }
+    running.set(false);
+
+    // then
+    CompletableFuture.allOf(reads).get(5, TimeUnit.SECONDS);
+    readers.shutdown();
+    assertTrue(unexpected.isEmpty(), () -> "Foreign values read: " + unexpected);
+    assertEquals(EXPECTED_PAYLOAD_DATA, cache.getIfPresent("key").getValue());
+  }
+
+  @DisplayName("Exception when unsupported cache storage is set")
+  @Test
+  void unsupportedStorage() {
+    assertThrows(IllegalArgumentException.class, () -> new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+                .put("cacheKey", "product")
+                .put("cache", new JsonObject().put("storage", "disk")),
+            null, null));
+  }
+
+  @DisplayName("Statistics count hits, misses and loads of the action alias")
+  @Test
+  void recordStatistics(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    Action doAction = countingAction(calls, false);
+    Action tested = new InMemoryCacheActionFactory()
+        .create("statistics-action", new JsonObject().put("payloadKey", PAYLOAD_KEY)
+                .put("cacheKey", "statistics-product"),
+            null, doAction);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                InMemoryCacheStatistics statistics = InMemoryCacheStatistics
+                    .forAlias("statistics-action")
+                    .orElseThrow(IllegalStateException::new);
+                assertEquals(1, statistics.getHitCount());
+                assertEquals(1, statistics.getMissCount());
+                assertEquals(1, statistics.getLoadCount());
+                assertEquals(0, statistics.getLoadFailureCount());
+                assertEquals(1, statistics.getSize());
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Statistics of actions with the same alias aggregated")
+  @Test
+  void aggregateStatisticsOfSameAlias(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    JsonObject config = new JsonObject().put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "aggregated-product");
+    Action first = new InMemoryCacheActionFactory()
+        .create("aggregated-action", config, null, countingAction(calls, false));
+    Action second = new InMemoryCacheActionFactory()
+        .create("aggregated-action", config, null, countingAction(calls, false));
+
+    // when
+    first.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> second.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                InMemoryCacheStatistics statistics = InMemoryCacheStatistics
+                    .forAlias("aggregated-action")
+                    .orElseThrow(IllegalStateException::new);
+                assertEquals(2, statistics.getMissCount());
+                assertEquals(2, statistics.getLoadCount());
+                assertEquals(2, statistics.getSize());
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Cache key, cache hit and statistics logged when log level is info")
+  @Test
+  void logCacheHitWhenInfoLogLevel(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    Action doAction = countingAction(calls, false);
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+                .put("cacheKey", "logged-product").put("logLevel", "info"),
+            null, doAction);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                JsonObject missLogs = firstResult.result().getNodeLog().getJsonObject("logs");
+                JsonObject hitLogs = secondResult.result().getNodeLog().getJsonObject("logs");
+                assertEquals("logged-product", hitLogs.getString("cacheKey"));
+                assertEquals("false", missLogs.getString("cached"));
+                assertEquals("true", hitLogs.getString("cached"));
+                assertEquals(Long.valueOf(1),
+                    hitLogs.getJsonObject("statistics").getLong("hitCount"));
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Failed transition served without calling doAction when negative cache is enabled")
+  @Test
+  void serveNegativeCachedTransition(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+                .put("cacheKey", "negative-product")
+                .put("negativeCache", new JsonObject().put("ttl", 5000)),
+            null, failingAction(calls));
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                assertTrue(firstResult.failed());
+                assertTrue(secondResult.succeeded());
+                assertEquals(FragmentResult.ERROR_TRANSITION,
+                    secondResult.result().getTransition());
+                assertEquals(1, calls.get());
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("The same transition served for live and negative cached success without payload")
+  @Test
+  void serveSameTransitionForNegativeCachedSuccessWithoutPayload(VertxTestContext testContext)
+      throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    Action doAction = (fragmentContext, resultHandler) -> {
+      calls.incrementAndGet();
+      Future.succeededFuture(new FragmentResult(fragmentContext.getFragment(),
+          FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+                .put("cacheKey", "negative-no-payload-product")
+                .put("negativeCache", new JsonObject().put("ttl", 5000)),
+            null, doAction);
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                assertTrue(firstResult.succeeded());
+                assertTrue(secondResult.succeeded());
+                assertEquals(FragmentResult.SUCCESS_TRANSITION,
+                    firstResult.result().getTransition());
+                assertEquals(firstResult.result().getTransition(),
+                    secondResult.result().getTransition());
+                assertFalse(firstResult.result().getFragment().getPayload()
+                    .containsKey(PAYLOAD_KEY));
+                assertFalse(secondResult.result().getFragment().getPayload()
+                    .containsKey(PAYLOAD_KEY));
+                assertEquals(1, calls.get());
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  @DisplayName("Fallback payload served without calling doAction when negative cache defines it")
+  @Test
+  void serveNegativeCacheFallbackPayload(VertxTestContext testContext) throws Throwable {
+    // given
+    AtomicInteger calls = new AtomicInteger();
+    JsonObject fallbackPayload = new JsonObject().put("available", false);
+    Action tested = new InMemoryCacheActionFactory()
+        .create(ACTION_ALIAS, new JsonObject().put("payloadKey", PAYLOAD_KEY)
+                .put("cacheKey", "negative-fallback-product")
+                .put("negativeCache", new JsonObject().put("fallbackPayload", fallbackPayload)),
+            null, failingAction(calls));
+
+    // when
+    tested.apply(new FragmentContext(firstFragment, new ClientRequest()),
+        firstResult -> tested.apply(new FragmentContext(secondFragment, new ClientRequest()),
+            secondResult -> {
+              // then
+              testContext.verify(() -> {
+                assertEquals(FragmentResult.SUCCESS_TRANSITION,
+                    secondResult.result().getTransition());
+                assertEquals(fallbackPayload, secondResult.result().getFragment().getPayload()
+                    .getJsonObject(PAYLOAD_KEY));
+                assertEquals(1, calls.get());
+              });
+              testContext.completeNow();
+            }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private Action failingAction(AtomicInteger calls) {
+    return (fragmentContext, resultHandler) -> {
+      calls.incrementAndGet();
+      Future.<FragmentResult>failedFuture(new IllegalStateException())
+          .setHandler(resultHandler);
+    };
+  }
+
+  private Action countingAction(AtomicInteger calls, boolean failingRefresh) {
+    return (fragmentContext, resultHandler) -> {
+      int call = calls.incrementAndGet();
+      if (failingRefresh && call > 1) {
+        Future.<FragmentResult>failedFuture(new IllegalStateException())
+            .setHandler(resultHandler);
+        return;
+      }
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(PAYLOAD_KEY, "value-" + call);
+      Future
+          .succeededFuture(new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION))
+          .setHandler(resultHandler);
+    };
+  }
+
+  private String payloadValue(AsyncResult<FragmentResult> result) {
+    return result.result().getFragment().getPayload().getString(PAYLOAD_KEY);
+  }
+
   private String uniqueValue(int contextHash) {
     return EXPECTED_PAYLOAD_DATA + " [" + UUID.randomUUID().toString() + "|" + contextHash + "]";
   }
 
-}
\ No newline at end of file
+  private Cache<String, CacheEntry> offHeapCache(long maximumBytes) {
+    InMemoryCacheOptions options = new InMemoryCacheOptions(new JsonObject()
+        .put("payloadKey", PAYLOAD_KEY)
+        .put("cacheKey", "product")
+        .put("cache", new JsonObject().put("storage", "off-heap")
+            .put("maximumBytes", maximumBytes)));
+    return new InMemoryCacheActionFactory()
+        .createCache(options, InMemoryCacheStatistics.register("off-heap-action"));
+  }
+
+  private CacheEntry offHeapEntry(SerializedValue value) {
+    long now = System.currentTimeMillis();
+    return new CacheEntry(value, now + 5000, now + 5000, now + 5000);
+  }
+}
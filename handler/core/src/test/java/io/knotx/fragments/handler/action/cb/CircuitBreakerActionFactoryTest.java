@@ -46,6 +46,8 @@ import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -562,6 +564,41 @@ class CircuitBreakerActionFactoryTest {
         }, testContext, vertx);
   }
 
+  @Test
+  @DisplayName("Expect no retry when invocation is cancelled.")
+  void expectNoRetryWhenCancelled(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    CircuitBreakerOptions options = new CircuitBreakerOptions()
+        .setFallbackOnFailure(true)
+        .setMaxRetries(1)
+        .setTimeout(TIMEOUT_IN_MS);
+    CircuitBreaker circuitBreaker = new CircuitBreakerImpl("name", vertx, options);
+    AtomicInteger doActionCalls = new AtomicInteger();
+    AtomicReference<CircuitBreakerAction> tested = new AtomicReference<>();
+    tested.set(new CircuitBreakerAction(circuitBreaker, (fragmentContext, resultHandler) -> {
+      doActionCalls.incrementAndGet();
+      tested.get().cancel(fragmentContext);
+      CircuitBreakerDoActions.applyFailure(fragmentContext, resultHandler);
+    }, "tested", INFO));
+
+    // when
+    tested.get().apply(new FragmentContext(FRAGMENT, new ClientRequest()),
+        testContext.succeeding(result -> {
+          testContext.verify(() -> {
+            //then
+            assertEquals(FALLBACK_TRANSITION, result.getTransition());
+            assertEquals(1, doActionCalls.get());
+          });
+          testContext.completeNow();
+        }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
   private Action newActionInstance(Action action, Vertx vertx) {
     return new CircuitBreakerActionFactory().create("alias",
         new CircuitBreakerActionFactoryOptions()
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.hedge;
+
+import static io.knotx.fragments.handler.action.hedge.HedgeAction.HEDGE;
+import static io.knotx.fragments.handler.action.hedge.HedgeAction.PRIMARY;
+import static io.knotx.fragments.handler.action.hedge.HedgeAction.WINNER_LOG_KEY;
+import static io.knotx.fragments.handler.api.actionlog.ActionLogLevel.INFO;
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.Cancellable;
+import io.knotx.fragments.handler.api.actionlog.ActionLog;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.fragments.handler.exception.DoActionNotDefinedException;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class HedgeActionFactoryTest {
+
+  private static final Fragment FRAGMENT = new Fragment("type", new JsonObject(), "expectedBody");
+  private static final long HEDGE_DELAY = 50;
+  private static final long SLOW = 1000;
+  private static final long FAST = 10;
+
+  @Test
+  @DisplayName("Expect exception when doAction is not defined.")
+  void expectExceptionWhenNoDoAction(Vertx vertx) {
+    assertThrows(DoActionNotDefinedException.class, () -> new HedgeActionFactory()
+        .create("alias", new JsonObject(), vertx, null));
+  }
+
+  @Test
+  @DisplayName("Expect no hedged call when doAction responds before the hedge delay.")
+  void expectNoHedgeWhenFast(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    DelayedAction doAction = new DelayedAction(vertx, FAST, FAST);
+    Action tested = newInstance(vertx, doAction, 100);
+
+    // when, then
+    verify(tested, testContext, result -> {
+      assertEquals(SUCCESS_TRANSITION, result.getTransition());
+      assertEquals(PRIMARY, winner(result));
+      assertEquals(1, doAction.calls.get());
+    });
+  }
+
+  @Test
+  @DisplayName("Expect hedged call result when doAction does not respond within the hedge delay.")
+  void expectHedgedResultWhenSlow(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    DelayedAction doAction = new DelayedAction(vertx, SLOW, FAST);
+    Action tested = newInstance(vertx, doAction, 100);
+
+    // when, then
+    verify(tested, testContext, result -> {
+      assertEquals(SUCCESS_TRANSITION, result.getTransition());
+      assertEquals(HEDGE, winner(result));
+      assertEquals(2, doAction.calls.get());
+      assertEquals(1, doAction.cancelled.get());
+    });
+  }
+
+  @Test
+  @DisplayName("Expect no hedged call when the hedge percentage is exceeded.")
+  void expectNoHedgeWhenNoBudget(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    DelayedAction doAction = new DelayedAction(vertx, HEDGE_DELAY * 3, FAST);
+    Action tested = newInstance(vertx, doAction, 0);
+
+    // when, then
+    verify(tested, testContext, result -> {
+      assertEquals(PRIMARY, winner(result));
+      assertEquals(1, doAction.calls.get());
+    });
+  }
+
+  @Test
+  @DisplayName("Expect hedged call result when the first call fails.")
+  void expectHedgedResultWhenFirstFails(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    DelayedAction doAction = new DelayedAction(vertx, SLOW, HEDGE_DELAY * 4).failingFirst();
+    Action tested = newInstance(vertx, doAction, 100);
+
+    // when, then
+    verify(tested, testContext, result -> {
+      assertEquals(HEDGE, winner(result));
+      assertEquals(2, doAction.calls.get());
+    });
+  }
+
+  @Test
+  @DisplayName("Expect hedge delay calculated from observed latencies when percentile is set.")
+  void expectPercentileDelay(Vertx vertx) {
+    // given
+    HedgeAction tested = new HedgeAction(vertx, new DelayedAction(vertx), "alias", INFO,
+        new HedgeActionFactoryOptions().setPercentile(90).setSampleSize(10));
+    LatencyWindow window = new LatencyWindow(10, 90);
+
+    // when
+    for (long latency = 1; latency < 10; latency++) {
+      window.record(TimeUnit.MILLISECONDS.toNanos(latency * 10));
+    }
+    long beforeFilled = window.percentile(HedgeActionFactoryOptions.DEFAULT_DELAY);
+    window.record(TimeUnit.MILLISECONDS.toNanos(100));
+
+    // then
+    assertEquals(HedgeActionFactoryOptions.DEFAULT_DELAY, tested.hedgeDelay());
+    assertEquals(HedgeActionFactoryOptions.DEFAULT_DELAY, beforeFilled);
+    assertEquals(90, window.percentile(HedgeActionFactoryOptions.DEFAULT_DELAY));
+  }
+
+  @Test
+  @DisplayName("Expect percentile kept until the next window is filled.")
+  void expectPercentileOfLatestWindow() {
+    // given
+    LatencyWindow window = new LatencyWindow(2, 50);
+
+    // when
+    window.record(TimeUnit.MILLISECONDS.toNanos(10));
+    window.record(TimeUnit.MILLISECONDS.toNanos(10));
+    window.record(TimeUnit.MILLISECONDS.toNanos(200));
+    long beforeNextFilled = window.percentile(HedgeActionFactoryOptions.DEFAULT_DELAY);
+    window.record(TimeUnit.MILLISECONDS.toNanos(200));
+
+    // then
+    assertEquals(10, beforeNextFilled);
+    assertEquals(200, window.percentile(HedgeActionFactoryOptions.DEFAULT_DELAY));
+  }
+
+  @Test
+  @DisplayName("Expect latency recorded from the primary call start when the hedged call wins.")
+  void expectLatencyFromPrimaryStart(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    HedgeAction tested = new HedgeAction(vertx, new DelayedAction(vertx, SLOW, FAST), "alias",
+        INFO, new HedgeActionFactoryOptions().setDelay(HEDGE_DELAY).setPercentile(99)
+        .setSampleSize(1).setMaxHedgePercentage(100));
+
+    // when, then
+    verify(tested, testContext, result -> {
+      assertEquals(HEDGE, winner(result));
+      assertTrue(tested.hedgeDelay() >= HEDGE_DELAY,
+          () -> "Hedge delay " + tested.hedgeDelay() + " ms is below the primary latency");
+    });
+  }
+
+  private Action newInstance(Vertx vertx, Action doAction, int maxHedgePercentage) {
+    return new HedgeActionFactory().create("alias", new HedgeActionFactoryOptions()
+        .setDelay(HEDGE_DELAY)
+        .setMaxHedgePercentage(maxHedgePercentage)
+        .setLogLevel(INFO.getLevel())
+        .toJson(), vertx, doAction);
+  }
+
+  private static String winner(FragmentResult result) {
+    return new ActionLog(result.getNodeLog()).getLogs().getString(WINNER_LOG_KEY);
+  }
+
+  private void verify(Action tested, VertxTestContext testContext,
+      Consumer<FragmentResult> assertions) throws Throwable {
+    tested.apply(new FragmentContext(FRAGMENT, new ClientRequest()),
+        testContext.succeeding(result -> {
+          testContext.verify(() -> assertions.accept(result));
+          testContext.completeNow();
+        }));
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private static class DelayedAction implements Action, Cancellable {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger cancelled = new AtomicInteger();
+    private final Vertx vertx;
+    private final long[] delays;
+    private boolean failingFirst;
+
+    DelayedAction(Vertx vertx, long... delays) {
+      this.vertx = vertx;
+      this.delays = delays;
+    }
+
+    DelayedAction failingFirst() {
+      this.failingFirst = true;
+      return this;
+    }
+
+    @Override
+    public void apply(FragmentContext fragmentContext,
+        Handler<AsyncResult<FragmentResult>> resultHandler) {
+      int call = calls.getAndIncrement();
+      if (failingFirst && call == 0) {
+        vertx.setTimer(HEDGE_DELAY * 2, timerId -> resultHandler
+            .handle(Future.failedFuture(new IllegalStateException("Application failed!"))));
+        return;
+      }
+      vertx.setTimer(delays[call], timerId -> resultHandler.handle(Future.succeededFuture(
+          new FragmentResult(fragmentContext.getFragment(), SUCCESS_TRANSITION))));
+    }
+
+    @Override
+    public void cancel(FragmentContext fragmentContext) {
+      cancelled.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.handler.action.singleflight;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.handler.api.Action;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.json.JsonObject;
+import io.vertx.reactivex.core.MultiMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightActionFactoryTest {
+
+  private static final String ACTION_ALIAS = "action";
+  private static final String PAYLOAD_KEY = "product";
+  private static final JsonObject PRODUCT = new JsonObject().put("name", "Knot.x");
+
+  private final List<FragmentContext> calls = new ArrayList<>();
+  private final List<Handler<AsyncResult<FragmentResult>>> pending = new ArrayList<>();
+  private final Action doAction = (fragmentContext, resultHandler) -> {
+    calls.add(fragmentContext);
+    pending.add(resultHandler);
+  };
+
+  private String alias;
+  private Action tested;
+
+  @BeforeEach
+  void setUp() {
+    alias = ACTION_ALIAS + "-" + UUID.randomUUID();
+    tested = new SingleFlightActionFactory().create(alias,
+        new SingleFlightActionFactoryOptions().setKey("product-{param.id}")
+            .setPayloadKey(PAYLOAD_KEY).toJson(), null, doAction);
+  }
+
+  @Test
+  @DisplayName("Expect one doAction call shared by identical invocations within a request.")
+  void expectSharedCallWithinRequest() {
+    // given
+    ClientRequest request = request("1");
+    List<AsyncResult<FragmentResult>> results = new ArrayList<>();
+
+    // when
+    tested.apply(new FragmentContext(fragment(), request), results::add);
+    tested.apply(new FragmentContext(fragment(), request), results::add);
+    tested.apply(new FragmentContext(fragment(), request), results::add);
+    completeCall(0);
+
+    // then
+    assertEquals(1, calls.size());
+    assertEquals(1, statistics().getCalls());
+    assertEquals(2, statistics().getSavedCalls());
+    assertEquals(3, results.size());
+    results.forEach(result -> {
+      assertTrue(result.succeeded());
+      assertEquals(PRODUCT, result.result().getFragment().getPayload().getJsonObject(PAYLOAD_KEY));
+    });
+    assertNotSame(results.get(1).result().getFragment(), results.get(2).result().getFragment());
+  }
+
+  @Test
+  @DisplayName("Expect result shared with invocations that come after the call ends.")
+  void expectSharedResultAfterCallEnds() {
+    // given
+    ClientRequest request = request("1");
+    List<AsyncResult<FragmentResult>> results = new ArrayList<>();
+
+    // when
+    tested.apply(new FragmentContext(fragment(), request), results::add);
+    completeCall(0);
+    tested.apply(new FragmentContext(fragment(), request), results::add);
+
+    // then
+    assertEquals(1, calls.size());
+    assertEquals(2, results.size());
+    assertEquals(PRODUCT, results.get(1).result().getFragment().getPayload()
+        .getJsonObject(PAYLOAD_KEY));
+  }
+
+  @Test
+  @DisplayName("Expect separate doAction calls for different keys and different requests.")
+  void expectSeparateCalls() {
+    // given
+    ClientRequest request = request("1");
+
+    // when
+    tested.apply(new FragmentContext(fragment(), request), result -> {
+    });
+    tested.apply(new FragmentContext(fragment(), request("2")), result -> {
+    });
+    tested.apply(new FragmentContext(fragment(), request("1")), result -> {
+    });
+
+    // then
+    assertEquals(3, calls.size());
+    assertEquals(0, statistics().getSavedCalls());
+  }
+
+  @Test
+  @DisplayName("Expect failure shared with all invocations when doAction fails.")
+  void expectSharedFailure() {
+    // given
+    ClientRequest request = request("1");
+    List<AsyncResult<FragmentResult>> results = new ArrayList<>();
+
+    // when
+    tested.apply(new FragmentContext(fragment(), request), results::add);
+    tested.apply(new FragmentContext(fragment(), request), results::add);
+    pending.get(0).handle(Future.failedFuture(new IllegalStateException()));
+
+    // then
+    assertEquals(2, results.size());
+    results.forEach(result -> assertTrue(result.failed()));
+  }
+
+  @Test
+  @DisplayName("Expect exception when key is not configured.")
+  void expectExceptionWhenNoKey() {
+    assertThrows(IllegalArgumentException.class, () -> new SingleFlightActionFactory()
+        .create(ACTION_ALIAS, new SingleFlightActionFactoryOptions().setPayloadKey(PAYLOAD_KEY)
+            .toJson(), null, doAction));
+  }
+
+  @Test
+  @DisplayName("Expect statistics aggregated for actions with the same alias.")
+  void expectStatisticsAggregatedPerAlias() {
+    // given
+    Action other = new SingleFlightActionFactory().create(alias,
+        new SingleFlightActionFactoryOptions().setKey("product-{param.id}")
+            .setPayloadKey(PAYLOAD_KEY).toJson(), null, doAction);
+    ClientRequest request = request("1");
+
+    // when
+    tested.apply(new FragmentContext(fragment(), request), result -> {
+    });
+    tested.apply(new FragmentContext(fragment(), request), result -> {
+    });
+    other.apply(new FragmentContext(fragment(), request("2")), result -> {
+    });
+
+    // then
+    assertEquals(2, statistics().getCalls());
+    assertEquals(1, statistics().getSavedCalls());
+    assertEquals(1.0 / 3, statistics().getSavedCallsRate(), 0.0001);
+    assertTrue(SingleFlightStatistics.all().contains(statistics()));
+  }
+
+  private SingleFlightStatistics statistics() {
+    return SingleFlightStatistics.forAlias(alias).orElseThrow(IllegalStateException::new);
+  }
+
+  private void completeCall(int index) {
+    Fragment fragment = calls.get(index).getFragment();
+    fragment.appendPayload(PAYLOAD_KEY, PRODUCT.copy());
+    pending.get(index)
+        .handle(Future.succeededFuture(
+            new FragmentResult(fragment, FragmentResult.SUCCESS_TRANSITION)));
+  }
+
+  private static Fragment fragment() {
+    return new Fragment("type", new JsonObject(), "body");
+  }
+
+  private static ClientRequest request(String id) {
+    return new ClientRequest().setParams(MultiMap.caseInsensitiveMultiMap().add("id", id));
+  }
+}
@@ -15,6 +15,7 @@
  */
 package io.knotx.fragments.task.factory;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -29,6 +30,8 @@ import com.google.common.collect.ImmutableMap;
 import io.knotx.fragments.handler.api.Action;
 import io.knotx.fragments.handler.api.ActionFactory;
 import io.knotx.fragments.handler.api.Cacheable;
+import io.knotx.fragments.handler.api.Execution;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.fragments.task.factory.node.action.ActionProvider;
@@ -224,6 +227,98 @@ class ActionProviderTest {
         .create(eq(PROXY_ALIAS), any(), eq(vertx.getDelegate()), eq(expectedOperationSecond));
   }
 
+  @Test
+  @DisplayName("Expect blocking execution mode when factory does not declare any.")
+  void expectBlockingExecutionModeByDefault(Vertx vertx) {
+    // given
+    Map<String, ActionFactoryOptions> proxies = Collections
+        .singletonMap(PROXY_ALIAS, new ActionFactoryOptions(PROXY_FACTORY_NAME));
+    List<ActionFactory> factories = Collections.singletonList(new TestOperationFactory());
+
+    ActionProvider tested = new ActionProvider(factories::iterator, proxies, vertx);
+
+    // when
+    ExecutionMode executionMode = tested.getExecutionMode(PROXY_ALIAS);
+
+    // then
+    assertEquals(ExecutionMode.BLOCKING, executionMode);
+  }
+
+  @Test
+  @DisplayName("Expect execution mode declared by factory.")
+  void expectFactoryExecutionMode(Vertx vertx) {
+    // given
+    Map<String, ActionFactoryOptions> proxies = Collections
+        .singletonMap(PROXY_ALIAS, new ActionFactoryOptions(PROXY_FACTORY_NAME_SECOND));
+    List<ActionFactory> factories = Collections.singletonList(new TestEventLoopOperationFactory());
+
+    ActionProvider tested = new ActionProvider(factories::iterator, proxies, vertx);
+
+    // when
+    ExecutionMode executionMode = tested.getExecutionMode(PROXY_ALIAS);
+
+    // then
+    assertEquals(ExecutionMode.EVENT_LOOP, executionMode);
+  }
+
+  @Test
+  @DisplayName("Expect configured execution mode overrides the one declared by factory.")
+  void expectConfiguredExecutionMode(Vertx vertx) {
+    // given
+    Map<String, ActionFactoryOptions> proxies = Collections
+        .singletonMap(PROXY_ALIAS, new ActionFactoryOptions(PROXY_FACTORY_NAME_SECOND)
+            .setExecutionMode("compute"));
+    List<ActionFactory> factories = Collections.singletonList(new TestEventLoopOperationFactory());
+
+    ActionProvider tested = new ActionProvider(factories::iterator, proxies, vertx);
+
+    // when
+    ExecutionMode executionMode = tested.getExecutionMode(PROXY_ALIAS);
+
+    // then
+    assertEquals(ExecutionMode.COMPUTE, executionMode);
+  }
+
+  @Test
+  @DisplayName("Expect the strictest execution mode when action wraps doAction.")
+  void expectDoActionExecutionMode(Vertx vertx) {
+    // given
+    Map<String, ActionFactoryOptions> proxies = ImmutableMap.of(
+        PROXY_ALIAS,
+        new ActionFactoryOptions(PROXY_FACTORY_NAME_SECOND, new JsonObject(), PROXY_ALIAS_SECOND),
+        PROXY_ALIAS_SECOND,
+        new ActionFactoryOptions(PROXY_FACTORY_NAME)
+    );
+    List<ActionFactory> factories = Arrays
+        .asList(new TestEventLoopOperationFactory(), new TestOperationFactory());
+
+    ActionProvider tested = new ActionProvider(factories::iterator, proxies, vertx);
+
+    // when
+    ExecutionMode executionMode = tested.getExecutionMode(PROXY_ALIAS);
+
+    // then
+    assertEquals(ExecutionMode.BLOCKING, executionMode);
+  }
+
+  @Test
+  @DisplayName("Expect configured action timeout.")
+  void expectConfiguredTimeout(Vertx vertx) {
+    // given
+    Map<String, ActionFactoryOptions> proxies = Collections
+        .singletonMap(PROXY_ALIAS, new ActionFactoryOptions(PROXY_FACTORY_NAME)
+            .setTimeout(500L));
+    List<ActionFactory> factories = Collections.singletonList(new TestOperationFactory());
+
+    ActionProvider tested = new ActionProvider(factories::iterator, proxies, vertx);
+
+    // when
+    long timeout = tested.getTimeout(PROXY_ALIAS);
+
+    // then
+    assertEquals(500L, timeout);
+  }
+
   static class TestOperationFactory implements ActionFactory {
 
     @Override
@@ -266,4 +361,21 @@ class ActionProviderTest {
       };
     }
   }
-}
\ No newline at end of file
+
+  @Execution(ExecutionMode.EVENT_LOOP)
+  static class TestEventLoopOperationFactory implements ActionFactory {
+
+    @Override
+    public String getName() {
+      return PROXY_FACTORY_NAME_SECOND;
+    }
+
+    @Override
+    public Action create(String alias, JsonObject config, io.vertx.core.Vertx vertx,
+        Action doAction) {
+      return (fragmentContext, resultHandler) -> {
+        // empty
+      };
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.knotx.fragments.api.Fragment;
+import io.vertx.core.json.JsonObject;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Forks a fragment for parallel subtasks and joins their changes back. A fork shares the id, type,
+ * configuration and body with the original fragment and gets a shallow copy of its payload, so
+ * forking does not copy payload values. When subtasks finish, each fork is compared with the
+ * original fragment (by reference first) and only its delta - the changed body and the changed
+ * payload entries - is applied. Forks must be added in the order of declaration, so the result does
+ * not depend on the order in which subtasks finish.
+ */
+final class FragmentJoin {
+
+  private static final String PAYLOAD_KEY = "payload";
+  private static final String BODY_CONFLICT = "body";
+  private static final String PAYLOAD_CONFLICT_PREFIX = "payload.";
+
+  private final Fragment fragment;
+  private final String baseBody;
+  private final Map<String, Object> basePayload;
+  private final MergePolicy bodyPolicy;
+  private final MergePolicy payloadPolicy;
+
+  private boolean bodyChanged;
+  private String body;
+  private final Map<String, Object> payload = new LinkedHashMap<>();
+  private final Set<String> conflicts = new LinkedHashSet<>();
+
+  FragmentJoin(Fragment fragment, MergePolicy bodyPolicy, MergePolicy payloadPolicy) {
+    this.fragment = fragment;
+    this.baseBody = fragment.getBody();
+    this.basePayload = payloadOf(fragment);
+    this.bodyPolicy = bodyPolicy;
+    this.payloadPolicy = payloadPolicy;
+  }
+
+  static Fragment fork(Fragment fragment) {
+    JsonObject json = fragment.toJson();
+    return new Fragment(
+        json.put(PAYLOAD_KEY, new JsonObject(new LinkedHashMap<>(payloadOf(fragment)))));
+  }
+
+  FragmentJoin add(Fragment fork) {
+    String forkBody = fork.getBody();
+    if (!Objects.equals(baseBody, forkBody)) {
+      if (!bodyChanged) {
+        bodyChanged = true;
+        body = forkBody;
+      } else if (!Objects.equals(body, forkBody)) {
+        body = resolve(bodyPolicy, BODY_CONFLICT, body, forkBody);
+      }
+    }
+    payloadOf(fork).forEach((key, value) -> {
+      if (!basePayload.containsKey(key) || !Objects.equals(basePayload.get(key), value)) {
+        if (!payload.containsKey(key)) {
+          payload.put(key, value);
+        } else if (!Objects.equals(payload.get(key), value)) {
+          payload.put(key, resolve(payloadPolicy, PAYLOAD_CONFLICT_PREFIX + key, payload.get(key),
+              value));
+        }
+      }
+    });
+    return this;
+  }
+
+  /**
+   * @return names of conflicting changes that were not resolved because of the {@link
+   * MergePolicy#FAIL} policy, e.g. {@code body} or {@code payload.user}
+   */
+  Set<String> getConflicts() {
+    return conflicts;
+  }
+
+  /**
+   * Applies all joined changes to the original fragment.
+   *
+   * @return the original fragment
+   */
+  Fragment apply() {
+    if (bodyChanged) {
+      fragment.setBody(body);
+    }
+    payload.forEach(fragment::appendPayload);
+    return fragment;
+  }
+
+  private <T> T resolve(MergePolicy policy, String name, T current, T next) {
+    switch (policy) {
+      case FIRST_WINS:
+        return current;
+      case FAIL:
+        conflicts.add(name);
+        return current;
+      default:
+        return next;
+    }
+  }
+
+  private static Map<String, Object> payloadOf(Fragment fragment) {
+    // Fragment#toJson exposes the payload without the deep copy made by Fragment#getPayload
+    JsonObject payload = fragment.toJson().getJsonObject(PAYLOAD_KEY);
+    return payload == null ? Collections.emptyMap() : payload.getMap();
+  }
+}
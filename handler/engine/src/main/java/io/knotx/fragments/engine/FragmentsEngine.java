@@ -16,7 +16,8 @@
 package io.knotx.fragments.engine;
 
 import io.knotx.fragments.engine.FragmentEvent.Status;
-import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.IndexedGraph;
+import io.knotx.fragments.engine.metrics.NodeMetrics;
 import io.reactivex.Flowable;
 import io.reactivex.Single;
 import io.vertx.core.logging.Logger;
@@ -24,6 +25,8 @@ import io.vertx.core.logging.LoggerFactory;
 import io.vertx.reactivex.core.Vertx;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
@@ -38,9 +41,27 @@ public class FragmentsEngine {
   private static final Logger LOGGER = LoggerFactory.getLogger(FragmentsEngine.class);
 
   private final TaskEngine taskEngine;
+  private final NodeMetrics nodeMetrics;
+  private final int maxInFlightFragments;
+  private final WaitTimeMetrics fragmentsWaitTime = new WaitTimeMetrics();
+  private final LongAdder abandonedFragments = new LongAdder();
 
   public FragmentsEngine(Vertx vertx) {
-    this.taskEngine = new TaskEngine(vertx.getDelegate());
+    this(vertx, new FragmentsEngineOptions());
+  }
+
+  /**
+   * Creates the engine reporting node metrics to implementations registered with the
+   * {@code ServiceLoader} (see {@link NodeMetrics}).
+   */
+  public FragmentsEngine(Vertx vertx, FragmentsEngineOptions options) {
+    this(vertx, options, NodeMetrics.load());
+  }
+
+  public FragmentsEngine(Vertx vertx, FragmentsEngineOptions options, NodeMetrics nodeMetrics) {
+    this.taskEngine = new TaskEngine(vertx.getDelegate(), options, nodeMetrics);
+    this.nodeMetrics = nodeMetrics;
+    this.maxInFlightFragments = options.getMaxInFlightFragments();
   }
 
   /**
@@ -48,29 +69,131 @@ public class FragmentsEngine {
    *
    * @param fragments list of fragment events with assigned {@code Task}
    * @return asynchronous response containing processed list of fragment events returned in the same
-   * order as the original list
+   * order as the original list; disposing the subscription cancels processing of all fragments that
+   * are not processed yet
    */
   public Single<List<FragmentEvent>> execute(List<FragmentEventContextTaskAware> fragments) {
 
-    return Flowable.just(fragments)
-        .concatMap(Flowable::fromIterable)
-        .map(fragmentCtx -> fragmentCtx
-            .getTask()
-            .getRootNode()
-            .map(rootNode -> startTaskEngine(fragmentCtx, rootNode))
-            .orElseGet(() -> Single.just(fragmentCtx.getFragmentEventContext().getFragmentEvent()))
-        )
-        .flatMap(Single::toFlowable)
-        .reduce(new ArrayList<FragmentEvent>(), (list, item) -> {
-          list.add(item);
-          return list;
-        })
+    return Single.defer(() -> {
+      long startedAt = System.nanoTime();
+      AtomicInteger processed = new AtomicInteger();
+      return Flowable.range(0, fragments.size())
+          .flatMapSingle(position -> Single.defer(() -> {
+            fragmentsWaitTime.record(position, maxInFlightFragments, startedAt);
+            return process(fragments.get(position));
+          }), false, TaskEngine.maxConcurrency(maxInFlightFragments))
+          .doOnNext(event -> processed.incrementAndGet())
+          .reduce(new ArrayList<FragmentEvent>(), (list, item) -> {
+            list.add(item);
+            return list;
+          })
+          .doOnDispose(() -> abandonedFragments.add(fragments.size() - processed.get()));
+    })
         .map(list -> incomingOrder(list, fragments))
         .map(this::traceEngineResults);
   }
 
-  private Single<FragmentEvent> startTaskEngine(FragmentEventContextTaskAware fragment, Node rootNode) {
-      return taskEngine.start(fragment.getTask().getName(), rootNode, fragment.getFragmentEventContext());
+  /**
+   * Processes fragment events asynchronously and emits each processed event as soon as it and all
+   * events before it are processed, so the longest processed prefix of fragments is available
+   * while the remaining fragments are still processed.
+   *
+   * @param fragments list of fragment events with assigned {@code Task}
+   * @return stream of processed fragment events in the same order as the original list; disposing
+   * the subscription cancels processing of all fragments that are not processed yet
+   */
+  public Flowable<FragmentEvent> stream(List<FragmentEventContextTaskAware> fragments) {
+    return Flowable.defer(() -> {
+      long startedAt = System.nanoTime();
+      AtomicInteger processed = new AtomicInteger();
+      return Flowable.range(0, fragments.size())
+          .concatMapEager(position -> Single.defer(() -> {
+            fragmentsWaitTime.record(position, maxInFlightFragments, startedAt);
+            return process(fragments.get(position));
+          }).toFlowable(), TaskEngine.maxConcurrency(maxInFlightFragments), 1)
+          .doOnNext(event -> processed.incrementAndGet())
+          .doOnCancel(() -> abandonedFragments.add(fragments.size() - processed.get()));
+    });
+  }
+
+  /**
+   * Releases the compute pool of the engine (opened by the first {@code COMPUTE} node). Call it
+   * when the engine is discarded before its Vert.x context is closed.
+   */
+  public void close() {
+    taskEngine.close();
+  }
+
+  /**
+   * @return node metrics the engine records to, e.g. {@code NodeLatencyHistograms} to poll
+   */
+  public NodeMetrics getNodeMetrics() {
+    return nodeMetrics;
+  }
+
+  /**
+   * @return wait time of fragments queued because of the in-flight fragments per request limit
+   */
+  public WaitTimeMetrics getFragmentsWaitTime() {
+    return fragmentsWaitTime;
+  }
+
+  /**
+   * @return wait time of subtasks queued because of the in-flight subtasks per composite node limit
+   */
+  public WaitTimeMetrics getSubtasksWaitTime() {
+    return taskEngine.getSubtasksWaitTime();
+  }
+
+  /**
+   * @return wait time of nodes queued because of the global in-flight nodes limit
+   */
+  public WaitTimeMetrics getNodesWaitTime() {
+    return taskEngine.getNodesWaitTime();
+  }
+
+  /**
+   * @return number of fragments whose processing was cancelled (not started or not finished) because
+   * the subscription was disposed, e.g. when the HTTP client disconnected
+   */
+  public long getAbandonedFragments() {
+    return abandonedFragments.sum();
+  }
+
+  /**
+   * @return number of running or queued nodes cancelled because their result was not needed anymore
+   */
+  public long getAbandonedNodes() {
+    return taskEngine.getAbandonedNodes();
+  }
+
+  /**
+   * @return number of nodes processed at the moment by all engines sharing the global in-flight
+   * nodes limit, {@code 0} when the limit is not set
+   */
+  public int getInFlightNodes() {
+    return taskEngine.getInFlightNodes();
+  }
+
+  /**
+   * @return number of nodes waiting for the global in-flight nodes limit, {@code 0} when the limit
+   * is not set
+   */
+  public int getQueuedNodes() {
+    return taskEngine.getQueuedNodes();
+  }
+
+  private Single<FragmentEvent> process(FragmentEventContextTaskAware fragmentCtx) {
+    return fragmentCtx
+        .getTask()
+        .getGraph()
+        .map(graph -> startTaskEngine(fragmentCtx, graph))
+        .orElseGet(() -> Single.just(fragmentCtx.getFragmentEventContext().getFragmentEvent()));
+  }
+
+  private Single<FragmentEvent> startTaskEngine(FragmentEventContextTaskAware fragment,
+      IndexedGraph graph) {
+    return taskEngine.start(fragment.getTask().getName(), graph, fragment.getFragmentEventContext());
   }
 
   private List<FragmentEvent> incomingOrder(
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import java.util.Objects;
+
+/**
+ * Fragments Engine options: concurrency limits (a limit that is not positive means no limit) and
+ * merge policies of parallel subtasks.
+ */
+public class FragmentsEngineOptions {
+
+  public static final int UNLIMITED = 0;
+
+  private int maxInFlightFragments = UNLIMITED;
+  private int maxInFlightSubtasks = UNLIMITED;
+  private int maxInFlightNodes = UNLIMITED;
+  private MergePolicy bodyMergePolicy = MergePolicy.LAST_WINS;
+  private MergePolicy payloadMergePolicy = MergePolicy.LAST_WINS;
+
+  public int getMaxInFlightFragments() {
+    return maxInFlightFragments;
+  }
+
+  /**
+   * Sets the maximum number of fragments processed at the same time within a single request. The
+   * remaining fragments wait until some of the processed ones finish.
+   *
+   * @param maxInFlightFragments - the limit, not positive value means no limit
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsEngineOptions setMaxInFlightFragments(int maxInFlightFragments) {
+    this.maxInFlightFragments = maxInFlightFragments;
+    return this;
+  }
+
+  public int getMaxInFlightSubtasks() {
+    return maxInFlightSubtasks;
+  }
+
+  /**
+   * Sets the maximum number of subtasks processed at the same time within a single composite node.
+   *
+   * @param maxInFlightSubtasks - the limit, not positive value means no limit
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsEngineOptions setMaxInFlightSubtasks(int maxInFlightSubtasks) {
+    this.maxInFlightSubtasks = maxInFlightSubtasks;
+    return this;
+  }
+
+  public int getMaxInFlightNodes() {
+    return maxInFlightNodes;
+  }
+
+  /**
+   * Sets the maximum number of single nodes processed at the same time by all engines sharing the
+   * same Vert.x instance. Nodes above the limit are queued and started in the FIFO order.
+   *
+   * @param maxInFlightNodes - the limit, not positive value means no limit
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsEngineOptions setMaxInFlightNodes(int maxInFlightNodes) {
+    this.maxInFlightNodes = maxInFlightNodes;
+    return this;
+  }
+
+  public MergePolicy getBodyMergePolicy() {
+    return bodyMergePolicy;
+  }
+
+  /**
+   * Sets the policy applied when parallel subtasks of a composite node change the fragment's body
+   * to different values.
+   *
+   * @param bodyMergePolicy - the body merge policy, {@link MergePolicy#LAST_WINS} by default
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsEngineOptions setBodyMergePolicy(MergePolicy bodyMergePolicy) {
+    this.bodyMergePolicy = bodyMergePolicy;
+    return this;
+  }
+
+  public MergePolicy getPayloadMergePolicy() {
+    return payloadMergePolicy;
+  }
+
+  /**
+   * Sets the policy applied when parallel subtasks of a composite node change the same fragment's
+   * payload key to different values.
+   *
+   * @param payloadMergePolicy - the payload merge policy, {@link MergePolicy#LAST_WINS} by default
+   * @return reference to this, so the API can be used fluently
+   */
+  public FragmentsEngineOptions setPayloadMergePolicy(MergePolicy payloadMergePolicy) {
+    this.payloadMergePolicy = payloadMergePolicy;
+    return this;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FragmentsEngineOptions that = (FragmentsEngineOptions) o;
+    return maxInFlightFragments == that.maxInFlightFragments &&
+        maxInFlightSubtasks == that.maxInFlightSubtasks &&
+        maxInFlightNodes == that.maxInFlightNodes &&
+        bodyMergePolicy == that.bodyMergePolicy &&
+        payloadMergePolicy == that.payloadMergePolicy;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(maxInFlightFragments, maxInFlightSubtasks, maxInFlightNodes,
+        bodyMergePolicy, payloadMergePolicy);
+  }
+
+  @Override
+  public String toString() {
+    return "FragmentsEngineOptions{" +
+        "maxInFlightFragments=" + maxInFlightFragments +
+        ", maxInFlightSubtasks=" + maxInFlightSubtasks +
+        ", maxInFlightNodes=" + maxInFlightNodes +
+        ", bodyMergePolicy=" + bodyMergePolicy +
+        ", payloadMergePolicy=" + payloadMergePolicy +
+        '}';
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.disposables.Disposable;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of operations processed at the same time. Operations above the limit are
+ * queued and started in the FIFO order when the running ones finish. A queued operation is not
+ * subscribed at all, so it does not occupy any thread while waiting. Disposing a queued operation
+ * only marks it as cancelled, the drain skips it later, so a dispose never scans the queue.
+ */
+final class InFlightLimiter implements Shareable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InFlightLimiter.class);
+
+  private static final String SHARED_MAP_NAME = "knotx-fragments-engine";
+  private static final String NODES_LIMITER_KEY = "in-flight-nodes";
+
+  private final int maxInFlight;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Queue<Queued> waiting = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger draining = new AtomicInteger();
+
+  InFlightLimiter(int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+  }
+
+  /**
+   * Returns the limiter of single nodes shared by all engines using the same Vert.x instance. The
+   * first registered limit wins.
+   */
+  static InFlightLimiter sharedNodesLimiter(Vertx vertx, int maxInFlight) {
+    LocalMap<String, InFlightLimiter> limiters = vertx.sharedData().getLocalMap(SHARED_MAP_NAME);
+    InFlightLimiter limiter = new InFlightLimiter(maxInFlight);
+    InFlightLimiter existing = limiters.putIfAbsent(NODES_LIMITER_KEY, limiter);
+    if (existing == null) {
+      return limiter;
+    }
+    if (existing.maxInFlight != maxInFlight) {
+      LOGGER.warn("In-flight nodes limit [{}] is already registered, limit [{}] is ignored.",
+          existing.maxInFlight, maxInFlight);
+    }
+    return existing;
+  }
+
+  /**
+   * Starts the operation at once when a slot is free and no operation is queued. Otherwise the
+   * operation is queued and started later on the Vert.x context of its subscriber (the limiter is
+   * shared by all event loops), so it is never started on the event loop of another verticle.
+   */
+  <T> Single<T> limit(Single<T> operation, WaitTimeMetrics metrics) {
+    return Single.create(emitter -> {
+      if (queued.get() == 0 && tryAcquire()) {
+        metrics.record(0L);
+        emitter.setDisposable(start(operation, emitter));
+        return;
+      }
+      long queuedAt = System.nanoTime();
+      Queued next = new Queued(Vertx.currentContext(), () -> {
+        if (emitter.isDisposed()) {
+          release();
+          return;
+        }
+        metrics.record(System.nanoTime() - queuedAt);
+        emitter.setDisposable(start(operation, emitter));
+      });
+      queued.incrementAndGet();
+      waiting.add(next);
+      emitter.setCancellable(() -> {
+        if (next.claim()) {
+          queued.decrementAndGet();
+        }
+      });
+      drain();
+    });
+  }
+
+  private <T> Disposable start(Single<T> operation, SingleEmitter<T> emitter) {
+    return operation
+        .doFinally(this::release)
+        .subscribe(emitter::onSuccess, emitter::tryOnError);
+  }
+
+  int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  int getInFlight() {
+    return inFlight.get();
+  }
+
+  int getQueued() {
+    return queued.get();
+  }
+
+  private void release() {
+    inFlight.decrementAndGet();
+    drain();
+  }
+
+  private boolean tryAcquire() {
+    int current = inFlight.get();
+    while (current < maxInFlight) {
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+      current = inFlight.get();
+    }
+    return false;
+  }
+
+  /**
+   * Starts queued operations while slots are free. Only one thread drains at a time, others leave
+   * their work to it, so operations completing synchronously do not recurse into the drain.
+   */
+  private void drain() {
+    if (draining.getAndIncrement() != 0) {
+      return;
+    }
+    int missed = 1;
+    do {
+      while (!waiting.isEmpty() && tryAcquire()) {
+        Queued next = pollActive();
+        if (next == null) {
+          inFlight.decrementAndGet();
+          break;
+        }
+        next.dispatch();
+      }
+      missed = draining.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  /**
+   * Polls the first queued operation that is not cancelled. Cancelled operations are dropped here,
+   * as they are not removed from the queue when disposed.
+   */
+  private Queued pollActive() {
+    Queued next = waiting.poll();
+    while (next != null && !next.claim()) {
+      next = waiting.poll();
+    }
+    if (next != null) {
+      queued.decrementAndGet();
+    }
+    return next;
+  }
+
+  private static final class Queued {
+
+    private final Context context;
+    private final Runnable start;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private Queued(Context context, Runnable start) {
+      this.context = context;
+      this.start = start;
+    }
+
+    /**
+     * Claims the operation either for the dispatch or for the cancellation, only the first claim
+     * succeeds.
+     */
+    private boolean claim() {
+      return claimed.compareAndSet(false, true);
+    }
+
+    private void dispatch() {
+      if (context != null) {
+        context.runOnContext(v -> start.run());
+      } else {
+        start.run();
+      }
+    }
+  }
+
+}
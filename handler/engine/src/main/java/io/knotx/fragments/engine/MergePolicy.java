@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+
+/**
+ * Defines how changes made by parallel subtasks of a composite node are joined when at least two
+ * subtasks change the fragment's body (or the same payload key) to different values. Subtasks are
+ * always joined in the order of declaration, no matter which of them finishes first.
+ */
+public enum MergePolicy {
+
+  /**
+   * The change of the last declared subtask wins. It is the default policy.
+   */
+  LAST_WINS("last-wins"),
+
+  /**
+   * The change of the first declared subtask wins.
+   */
+  FIRST_WINS("first-wins"),
+
+  /**
+   * Conflicting changes fail the composite node, so it responds with the {@code _error}
+   * transition.
+   */
+  FAIL("fail");
+
+  private final String policy;
+
+  MergePolicy(String policy) {
+    this.policy = policy;
+  }
+
+  public String getPolicy() {
+    return policy;
+  }
+
+  public static MergePolicy fromConfig(String policy) {
+    return Arrays.stream(MergePolicy.values())
+        .filter(mp -> mp.getPolicy().equals(policy))
+        .findAny()
+        .orElseThrow(() -> new IllegalArgumentException(
+            format("Incorrect merge policy: %s", policy)));
+  }
+}
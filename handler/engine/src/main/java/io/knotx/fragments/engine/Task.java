@@ -15,6 +15,7 @@
  */
 package io.knotx.fragments.engine;
 
+import io.knotx.fragments.engine.graph.IndexedGraph;
 import io.knotx.fragments.engine.graph.Node;
 import java.util.Optional;
 
@@ -22,20 +23,62 @@ public class Task {
 
   private final String name;
   private final Node rootNode;
+  private volatile IndexedGraph graph;
 
   public Task(String name) {
-    this(name, null);
+    this(name, (Node) null);
   }
 
+  /**
+   * Creates the task with the root node. The graph is compiled once per task instance, on the first
+   * {@link #getGraph()} call. Compiling walks the whole node tree, so task factories creating tasks
+   * for each request pay the compilation each time; prefer {@link #Task(String, IndexedGraph)} with
+   * a graph compiled once and shared between requests.
+   *
+   * @param name task name
+   * @param rootNode root node of the task graph
+   */
   public Task(String name, Node rootNode) {
     this.name = name;
     this.rootNode = rootNode;
   }
 
+  /**
+   * Creates the task with the already compiled graph, so the graph can be shared between task
+   * instances.
+   *
+   * @param name task name
+   * @param graph compiled task graph
+   */
+  public Task(String name, IndexedGraph graph) {
+    this.name = name;
+    this.rootNode = graph.getRootNode();
+    this.graph = graph;
+  }
+
   public Optional<Node> getRootNode() {
     return Optional.ofNullable(rootNode);
   }
 
+  /**
+   * Returns the compiled graph. When the task was created with the root node only, the graph is
+   * compiled on the first call.
+   *
+   * @return compiled task graph, empty when the task has no nodes
+   */
+  public Optional<IndexedGraph> getGraph() {
+    IndexedGraph compiled = graph;
+    if (compiled == null && rootNode != null) {
+      synchronized (this) {
+        if (graph == null) {
+          graph = IndexedGraph.compile(rootNode);
+        }
+        compiled = graph;
+      }
+    }
+    return Optional.ofNullable(compiled);
+  }
+
   public String getName() {
     return name;
   }
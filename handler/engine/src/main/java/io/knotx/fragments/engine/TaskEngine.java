@@ -15,30 +15,81 @@
  */
 package io.knotx.fragments.engine;
 
-import io.knotx.fragments.engine.graph.NodeType;
-import io.knotx.fragments.engine.graph.SingleNode;
-import io.knotx.fragments.engine.graph.CompositeNode;
+import io.knotx.fragments.engine.graph.IndexedGraph;
 import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.engine.metrics.NodeMetrics;
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.reactivex.Observable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.functions.Function;
+import io.vertx.core.Context;
 import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
 import io.vertx.reactivex.RxHelper;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 
 class TaskEngine {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TaskEngine.class);
 
+  static final String COMPUTE_POOL_NAME = "knotx-fragments-engine-compute";
+
   private final Vertx vertx;
+  private WorkerExecutor computeExecutor;
+  private volatile Scheduler computeScheduler;
+  private final int maxInFlightSubtasks;
+  private final MergePolicy bodyMergePolicy;
+  private final MergePolicy payloadMergePolicy;
+  private final InFlightLimiter nodesLimiter;
+  private final WaitTimeMetrics subtasksWaitTime = new WaitTimeMetrics();
+  private final WaitTimeMetrics nodesWaitTime = new WaitTimeMetrics();
+  private final LongAdder abandonedNodes = new LongAdder();
+  private final NodeMetrics nodeMetrics;
 
   TaskEngine(Vertx vertx) {
+    this(vertx, new FragmentsEngineOptions());
+  }
+
+  TaskEngine(Vertx vertx, FragmentsEngineOptions options) {
+    this(vertx, options, NodeMetrics.noOp());
+  }
+
+  TaskEngine(Vertx vertx, FragmentsEngineOptions options, NodeMetrics nodeMetrics) {
     this.vertx = vertx;
+    this.nodeMetrics = nodeMetrics;
+    this.maxInFlightSubtasks = options.getMaxInFlightSubtasks();
+    this.bodyMergePolicy = options.getBodyMergePolicy();
+    this.payloadMergePolicy = options.getPayloadMergePolicy();
+    this.nodesLimiter = options.getMaxInFlightNodes() > 0
+        ? InFlightLimiter.sharedNodesLimiter(vertx, options.getMaxInFlightNodes())
+        : null;
+  }
+
+  /**
+   * Releases the compute pool opened by the engine. The pool is also released when the Vert.x
+   * context that opened it (e.g. of the verticle) is closed.
+   */
+  synchronized void close() {
+    if (computeExecutor != null) {
+      computeExecutor.close();
+      computeExecutor = null;
+      computeScheduler = null;
+    }
   }
 
   Single<FragmentEvent> start(String taskName, Node rootNode, FragmentEventContext fec) {
-    TaskExecutionContext executionContext = new TaskExecutionContext(taskName, rootNode, fec);
+    return start(taskName, IndexedGraph.compile(rootNode), fec);
+  }
+
+  Single<FragmentEvent> start(String taskName, IndexedGraph graph, FragmentEventContext fec) {
+    TaskExecutionContext executionContext = new TaskExecutionContext(taskName, graph, fec);
 
     return processTask(executionContext)
         .map(ctx -> ctx.getFragmentEventContext().getFragmentEvent());
@@ -55,38 +106,164 @@ class TaskEngine {
             : Single.just(context);
   }
 
-  private Single<TaskExecutionContext> processTask(TaskExecutionContext context, Node currentNode) {
-    return processTask(new TaskExecutionContext(context, currentNode));
+  private Single<TaskExecutionContext> processSubtask(TaskExecutionContext context, int branch,
+      int currentNode) {
+    return processTask(new TaskExecutionContext(context, branch, currentNode));
   }
 
   private Single<FragmentResult> getResult(TaskExecutionContext context) {
-    return NodeType.COMPOSITE == context.getCurrentNode().getType()
+    return context.getGraph().isComposite(context.getCurrentNode())
             ? mapReduce(context)
             : execute(context);
   }
 
   private Single<FragmentResult> execute(TaskExecutionContext context) {
-    return Single.just(context.getCurrentNode())
-        .map(SingleNode.class::cast)
-        .observeOn(RxHelper.blockingScheduler(vertx))
-        .flatMap(gn -> gn.doAction(context.fragmentContextInstance()))
+    SingleNode node = context.getGraph().getSingleNode(context.getCurrentNode());
+    Single<FragmentResult> action = Single
+        .defer(() -> measure(startAction(context, node), context));
+    return limitInFlight(action, context)
+        // the node (running or queued) is disposed when nobody waits for its result anymore
+        .doOnDispose(abandonedNodes::increment)
         .doOnSuccess(context::handleSuccess)
         .onErrorResumeNext(context::handleError);
   }
 
+  /**
+   * Starts the node action limited by its time budget. When the request deadline has passed, the
+   * action is not started at all.
+   */
+  private Single<FragmentResult> startAction(TaskExecutionContext context, SingleNode node) {
+    long timeBudget = context.getTimeBudget(node.getTimeout());
+    if (timeBudget <= 0) {
+      return Single.error(new TimeoutException(String
+          .format("Node [%s] is not started, the request deadline has passed.", node.getId())));
+    }
+    Single<FragmentResult> action = scheduleOn(Single.just(node), node.getExecutionMode())
+        .flatMap(gn -> gn.doAction(context.fragmentContextInstance()));
+    return timeBudget == Long.MAX_VALUE
+        ? action
+        : action.timeout(timeBudget, TimeUnit.MILLISECONDS, RxHelper.scheduler(vertx));
+  }
+
+  /**
+   * Records the node execution time (without the time spent in the in-flight nodes queue) with the
+   * resulting transition.
+   */
+  private Single<FragmentResult> measure(Single<FragmentResult> action,
+      TaskExecutionContext context) {
+    if (nodeMetrics == NodeMetrics.noOp()) {
+      return action;
+    }
+    String taskName = context.getTaskName();
+    String nodeId = context.getGraph().getId(context.getCurrentNode());
+    long startedAt = System.nanoTime();
+    return action
+        .doOnSuccess(result -> nodeMetrics
+            .record(taskName, nodeId, result.getTransition(), System.nanoTime() - startedAt))
+        .doOnError(error -> nodeMetrics.record(taskName, nodeId,
+            error instanceof TimeoutException
+                ? NodeMetrics.TIMEOUT_TRANSITION
+                : FragmentResult.ERROR_TRANSITION,
+            System.nanoTime() - startedAt));
+  }
+
+  private Single<FragmentResult> limitInFlight(Single<FragmentResult> action,
+      TaskExecutionContext context) {
+    if (nodesLimiter == null) {
+      nodesWaitTime.record(0L);
+      return action;
+    }
+    Single<FragmentResult> limited = nodesLimiter.limit(action, nodesWaitTime);
+    long remainingTime = context.getRemainingTime();
+    // a queued node does not wait longer than the request deadline
+    return remainingTime == Long.MAX_VALUE
+        ? limited
+        : limited.timeout(Math.max(remainingTime, 0L), TimeUnit.MILLISECONDS,
+            RxHelper.scheduler(vertx));
+  }
+
+  /**
+   * Opens the compute pool on the first compute node, so engines without compute nodes do not hold
+   * it.
+   */
+  private Scheduler computeScheduler() {
+    Scheduler scheduler = computeScheduler;
+    if (scheduler == null) {
+      synchronized (this) {
+        if (computeScheduler == null) {
+          computeExecutor = vertx.createSharedWorkerExecutor(COMPUTE_POOL_NAME,
+              Runtime.getRuntime().availableProcessors());
+          computeScheduler = RxHelper.blockingScheduler(computeExecutor);
+        }
+        scheduler = computeScheduler;
+      }
+    }
+    return scheduler;
+  }
+
+  private Single<SingleNode> scheduleOn(Single<SingleNode> node, ExecutionMode executionMode) {
+    switch (executionMode) {
+      case EVENT_LOOP:
+        // non-blocking actions stay on the calling event loop, there is no need for a thread hop;
+        // the thread is checked on subscription as a queued node may be started by other thread
+        return Single.defer(() -> Context.isOnEventLoopThread()
+            ? node
+            : node.observeOn(RxHelper.scheduler(vertx)));
+      case COMPUTE:
+        return node.observeOn(computeScheduler());
+      default:
+        return node.observeOn(RxHelper.blockingScheduler(vertx));
+    }
+  }
+
   private Single<FragmentResult> mapReduce(TaskExecutionContext context) {
-    CompositeNode node = (CompositeNode) context.getCurrentNode();
-    return Observable.fromIterable(node.getNodes())
-        .flatMap(graphNode -> processTask(context, graphNode).toObservable())
-        .reduce(context, TaskExecutionContext::merge)
-        .map(TaskExecutionContext::toFragmentResult);
+    IndexedGraph graph = context.getGraph();
+    int node = context.getCurrentNode();
+    Observable<Integer> positions = Observable.range(0, graph.getChildrenCount(node));
+    return Single.defer(() -> {
+      long startedAt = System.nanoTime();
+      Function<Integer, Observable<TaskExecutionContext>> subtask = position -> Observable
+          .defer(() -> {
+            subtasksWaitTime.record(position, maxInFlightSubtasks, startedAt);
+            return processSubtask(context, position, graph.getChild(node, position))
+                .toObservable();
+          });
+      return positions
+          .flatMap(subtask, maxConcurrency(maxInFlightSubtasks))
+          .toList()
+          .map(branches -> context.join(branches, bodyMergePolicy, payloadMergePolicy));
+    }).map(TaskExecutionContext::toFragmentResult);
+  }
+
+  static int maxConcurrency(int limit) {
+    return limit > 0 ? limit : Integer.MAX_VALUE;
+  }
+
+  WaitTimeMetrics getSubtasksWaitTime() {
+    return subtasksWaitTime;
+  }
+
+  WaitTimeMetrics getNodesWaitTime() {
+    return nodesWaitTime;
+  }
+
+  long getAbandonedNodes() {
+    return abandonedNodes.sum();
+  }
+
+  int getInFlightNodes() {
+    return nodesLimiter == null ? 0 : nodesLimiter.getInFlight();
+  }
+
+  int getQueuedNodes() {
+    return nodesLimiter == null ? 0 : nodesLimiter.getQueued();
   }
 
   private void traceEvent(TaskExecutionContext context) {
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace("Fragment event [{}] is processed via graph node [{}].",
           context.getFragmentEventContext().getFragmentEvent(),
-          context.getCurrentNode());
+          context.hasNext() ? context.getGraph().getNode(context.getCurrentNode()) : null);
     }
   }
 
@@ -20,7 +20,7 @@ import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANS
 
 import io.knotx.fragments.api.Fragment;
 import io.knotx.fragments.engine.FragmentEvent.Status;
-import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.IndexedGraph;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.fragments.handler.api.exception.NodeFatalException;
@@ -29,35 +29,59 @@ import io.reactivex.Single;
 import io.reactivex.SingleSource;
 import io.vertx.core.eventbus.ReplyException;
 import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 class TaskExecutionContext {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TaskExecutionContext.class);
 
   private final String taskName;
+  private final IndexedGraph graph;
   private final FragmentEventContext fragmentEventContext;
-  private Node currentNode;
+  private final int branch;
+  private int currentNode;
+  private JsonObject mergeConflicts;
 
-  TaskExecutionContext(String taskName, Node graphRoot,
+  TaskExecutionContext(String taskName, IndexedGraph graph,
       FragmentEventContext fragmentEventContext) {
     this.taskName = taskName;
-    this.currentNode = graphRoot;
+    this.graph = graph;
+    this.currentNode = IndexedGraph.ROOT;
     this.fragmentEventContext = fragmentEventContext;
+    this.branch = 0;
   }
 
-  TaskExecutionContext(TaskExecutionContext context, Node currentNode) {
+  /**
+   * Creates a context of the parallel subtask (branch) with its own fork of the fragment.
+   *
+   * @param context - the composite node context
+   * @param branch - the subtask position in the composite node
+   * @param currentNode - the subtask root node
+   */
+  TaskExecutionContext(TaskExecutionContext context, int branch, int currentNode) {
     Fragment fragment = context.getFragmentEventContext().getFragmentEvent().getFragment();
-    FragmentEvent fragmentEvent = new FragmentEvent(fragment);
+    FragmentEvent fragmentEvent = new FragmentEvent(FragmentJoin.fork(fragment));
     ClientRequest clientRequest = context.getFragmentEventContext().getClientRequest();
 
-    this.fragmentEventContext = new FragmentEventContext(fragmentEvent, clientRequest);
+    this.fragmentEventContext = new FragmentEventContext(fragmentEvent, clientRequest,
+        context.getFragmentEventContext().getDeadline());
+    this.graph = context.graph;
+    this.branch = branch;
     this.currentNode = currentNode;
     this.taskName = context.taskName;
   }
 
+  String getTaskName() {
+    return taskName;
+  }
+
   FragmentEventContext getFragmentEventContext() {
     return fragmentEventContext;
   }
@@ -65,10 +89,37 @@ class TaskExecutionContext {
   FragmentContext fragmentContextInstance() {
     return new FragmentContext(
         fragmentEventContext.getFragmentEvent().getFragment(),
-        fragmentEventContext.getClientRequest());
+        fragmentEventContext.getClientRequest(),
+        fragmentEventContext.getDeadline());
+  }
+
+  /**
+   * @return time left until the request deadline in milliseconds or {@code Long.MAX_VALUE} when
+   * there is no deadline
+   */
+  long getRemainingTime() {
+    long deadline = fragmentEventContext.getDeadline();
+    return deadline == FragmentContext.NO_DEADLINE
+        ? Long.MAX_VALUE
+        : deadline - System.currentTimeMillis();
+  }
+
+  /**
+   * Calculates the time budget of a node: the node timeout limited by the remaining request time.
+   *
+   * @param nodeTimeout - the node timeout in milliseconds, not positive means no timeout
+   * @return time budget in milliseconds or {@code Long.MAX_VALUE} when there is no limit
+   */
+  long getTimeBudget(long nodeTimeout) {
+    long remainingTime = getRemainingTime();
+    return nodeTimeout > 0 ? Math.min(nodeTimeout, remainingTime) : remainingTime;
+  }
+
+  IndexedGraph getGraph() {
+    return graph;
   }
 
-  Node getCurrentNode() {
+  int getCurrentNode() {
     return currentNode;
   }
 
@@ -79,7 +130,18 @@ class TaskExecutionContext {
       handleRegularError(error);
     }
     FragmentEvent fragmentEvent = fragmentEventContext.getFragmentEvent();
-    return Single.just(new FragmentResult(fragmentEvent.getFragment(), ERROR_TRANSITION, prepareErrorActionLog(error)));
+    return Single.just(new FragmentResult(fragmentEvent.getFragment(), errorTransition(error),
+        prepareErrorActionLog(error)));
+  }
+
+  /**
+   * Timed out nodes respond with the {@code _fallback} transition when it is configured.
+   */
+  private String errorTransition(Throwable error) {
+    return error instanceof TimeoutException
+        && graph.next(currentNode, IndexedGraph.FALLBACK) != IndexedGraph.NONE
+        ? IndexedGraph.FALLBACK_TRANSITION
+        : ERROR_TRANSITION;
   }
 
   private JsonObject prepareErrorActionLog(Throwable error){
@@ -102,22 +164,39 @@ class TaskExecutionContext {
     fragmentEvent.log(getEventLogEntry(error));
   }
 
-  TaskExecutionContext merge(TaskExecutionContext other) {
-    final FragmentEvent fragmentEvent1 = getFragmentEventContext().getFragmentEvent();
-    final FragmentEvent fragmentEvent2 = other.getFragmentEventContext().getFragmentEvent();
+  /**
+   * Joins parallel subtasks (branches) in the order of their declaration, so the result does not
+   * depend on the order in which they finished.
+   */
+  TaskExecutionContext join(List<TaskExecutionContext> branches, MergePolicy bodyPolicy,
+      MergePolicy payloadPolicy) {
+    final FragmentEvent fragmentEvent = getFragmentEventContext().getFragmentEvent();
+    final FragmentJoin fragmentJoin = new FragmentJoin(fragmentEvent.getFragment(), bodyPolicy,
+        payloadPolicy);
 
-    //reduce fragment body and payload
-    final Fragment fragment = fragmentEvent1.getFragment();
-    final Fragment fragment2 = fragmentEvent2.getFragment();
-    fragment.mergeInPayload(fragment2.getPayload());
-    fragment.setBody(fragment2.getBody());
+    branches.stream()
+        .sorted(Comparator.comparingInt(branch -> branch.branch))
+        .map(branch -> branch.getFragmentEventContext().getFragmentEvent())
+        .forEach(branchEvent -> {
+          //reduce fragment body and payload
+          fragmentJoin.add(branchEvent.getFragment());
 
-    //reduce status and logs
-    if (Status.FAILURE != fragmentEvent1.getStatus()) {
-      fragmentEvent1.setStatus(fragmentEvent2.getStatus());
-    }
-    fragmentEvent1.appendLog(fragmentEvent2.getLog());
+          //reduce status and logs
+          if (Status.FAILURE != fragmentEvent.getStatus()) {
+            fragmentEvent.setStatus(branchEvent.getStatus());
+          }
+          fragmentEvent.appendLog(branchEvent.getLog());
+        });
+    fragmentJoin.apply();
 
+    if (!fragmentJoin.getConflicts().isEmpty()) {
+      LOGGER.warn("Subtasks of node [{}] made conflicting changes {} of fragment [{}].",
+          graph.getId(currentNode), fragmentJoin.getConflicts(),
+          fragmentEvent.getFragment().getId());
+      fragmentEvent.setStatus(Status.FAILURE);
+      mergeConflicts = new JsonObject()
+          .put("conflicts", new JsonArray(new ArrayList<>(fragmentJoin.getConflicts())));
+    }
     return this;
   }
 
@@ -129,39 +208,38 @@ class TaskExecutionContext {
     if (status == Status.SUCCESS) {
       handleSuccess(result);
     } else {
-      fragmentEvent
-          .log(EventLogEntry.error(taskName, currentNode.getId(), nextTransition));
+      fragmentEvent.log(EventLogEntry
+          .error(taskName, graph.getId(currentNode), nextTransition, mergeConflicts));
     }
     return result;
   }
 
   boolean hasNext() {
-    return currentNode != null;
+    return currentNode != IndexedGraph.NONE;
   }
 
   void updateResult(FragmentResult fragmentResult) {
     fragmentEventContext.getFragmentEvent().setFragment(fragmentResult.getFragment());
 
-    currentNode = currentNode
-        .next(fragmentResult.getTransition())
-        .orElseGet(() -> {
-          ifNotDefaultTransitionEndAsUnsupportedFailure(fragmentResult.getTransition());
-          return null;
-        });
+    int nextNode = graph.next(currentNode, fragmentResult.getTransition());
+    if (nextNode == IndexedGraph.NONE) {
+      ifNotDefaultTransitionEndAsUnsupportedFailure(fragmentResult.getTransition());
+    }
+    currentNode = nextNode;
   }
 
   void handleSuccess(FragmentResult fragmentResult) {
     FragmentEvent fragmentEvent = fragmentEventContext.getFragmentEvent();
     fragmentEvent.setStatus(Status.SUCCESS);
     fragmentEvent
-        .log(EventLogEntry.success(taskName, currentNode.getId(), fragmentResult));
+        .log(EventLogEntry.success(taskName, graph.getId(currentNode), fragmentResult));
   }
 
   private EventLogEntry getEventLogEntry(Throwable error) {
-    return error instanceof ReplyException
+    return error instanceof TimeoutException || error instanceof ReplyException
         && ((ReplyException) error).failureType() == ReplyFailure.TIMEOUT
-        ? EventLogEntry.timeout(taskName, currentNode.getId())
-        : EventLogEntry.error(taskName, currentNode.getId(), ERROR_TRANSITION);
+        ? EventLogEntry.timeout(taskName, graph.getId(currentNode))
+        : EventLogEntry.error(taskName, graph.getId(currentNode), ERROR_TRANSITION);
   }
 
   private boolean isFatal(Throwable error) {
@@ -172,7 +250,7 @@ class TaskExecutionContext {
     if (!SUCCESS_TRANSITION.equals(transition)) {
       FragmentEvent fragmentEvent = fragmentEventContext.getFragmentEvent();
       fragmentEvent.setStatus(Status.FAILURE);
-      fragmentEvent.log(EventLogEntry.unsupported(taskName, currentNode.getId(), transition));
+      fragmentEvent.log(EventLogEntry.unsupported(taskName, graph.getId(currentNode), transition));
     }
   }
 }
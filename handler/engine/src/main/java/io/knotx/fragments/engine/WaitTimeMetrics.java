@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how long work waits for a free slot under a concurrency limit. The metrics are updated
+ * concurrently and are meant to be polled.
+ */
+public final class WaitTimeMetrics {
+
+  private final LongAdder count = new LongAdder();
+  private final LongAdder delayed = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Records the wait time of an operation started with the {@code position} in a batch limited to
+   * {@code limit} concurrent operations. The first operations within the limit do not wait.
+   */
+  void record(int position, int limit, long batchStartedAt) {
+    record(limit > 0 && position >= limit ? System.nanoTime() - batchStartedAt : 0L);
+  }
+
+  void record(long waitNanos) {
+    count.increment();
+    if (waitNanos > 0) {
+      delayed.increment();
+      totalNanos.add(waitNanos);
+      maxNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+  }
+
+  /**
+   * @return number of started operations
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @return number of operations that were not started immediately
+   */
+  public long getDelayedCount() {
+    return delayed.sum();
+  }
+
+  /**
+   * @param unit - time unit of the result
+   * @return total time that all operations waited
+   */
+  public long getTotalWaitTime(TimeUnit unit) {
+    return unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param unit - time unit of the result
+   * @return the longest time that a single operation waited
+   */
+  public long getMaxWaitTime(TimeUnit unit) {
+    return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param unit - time unit of the result
+   * @return average wait time of all started operations
+   */
+  public double getAverageWaitTime(TimeUnit unit) {
+    long started = count.sum();
+    return started == 0 ? 0.0
+        : (double) unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS) / started;
+  }
+
+  @Override
+  public String toString() {
+    return "WaitTimeMetrics{" +
+        "count=" + getCount() +
+        ", delayed=" + getDelayedCount() +
+        ", totalWaitMs=" + getTotalWaitTime(TimeUnit.MILLISECONDS) +
+        ", maxWaitMs=" + getMaxWaitTime(TimeUnit.MILLISECONDS) +
+        '}';
+  }
+}
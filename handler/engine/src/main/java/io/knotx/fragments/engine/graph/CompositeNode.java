@@ -18,10 +18,16 @@ package io.knotx.fragments.engine.graph;
 import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
 import static io.knotx.fragments.handler.api.domain.FragmentResult.ERROR_TRANSITION;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+/**
+ * Node evaluating a list of subgraphs in parallel. It is immutable, so it can be shared between
+ * requests.
+ */
 public class CompositeNode implements Node {
 
   private final String id;
@@ -31,7 +37,7 @@ public class CompositeNode implements Node {
 
   public CompositeNode(String id, List<Node> nodes, Node onSuccess, Node onError) {
     this.id = id;
-    this.nodes = nodes;
+    this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
     this.onSuccess = onSuccess;
     this.onError = onError;
   }
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine.graph;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.ERROR_TRANSITION;
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Flat, index-based form of a task graph. Nodes are stored in arrays and transitions are interned
+ * to small integer ids when the graph is compiled, so the next node is resolved with a single array
+ * lookup. The root node has the {@link #ROOT} index. The graph is immutable and can be shared
+ * between requests.
+ */
+public final class IndexedGraph {
+
+  public static final int ROOT = 0;
+
+  public static final int NONE = -1;
+
+  public static final String FALLBACK_TRANSITION = "_fallback";
+
+  public static final int SUCCESS = 0;
+
+  public static final int ERROR = 1;
+
+  public static final int FALLBACK = 2;
+
+  private final Node rootNode;
+  private final Node[] nodes;
+  private final SingleNode[] singleNodes;
+  private final int[][] children;
+  private final int[][] next;
+  private final Map<String, Integer> transitionIds;
+
+  private IndexedGraph(Node rootNode, Node[] nodes, SingleNode[] singleNodes, int[][] children,
+      int[][] next, Map<String, Integer> transitionIds) {
+    this.rootNode = rootNode;
+    this.nodes = nodes;
+    this.singleNodes = singleNodes;
+    this.children = children;
+    this.next = next;
+    this.transitionIds = transitionIds;
+  }
+
+  /**
+   * Compiles the graph starting from the root node. Only {@link SingleNode} and {@link
+   * CompositeNode} implementations are supported.
+   *
+   * @param rootNode root node of the graph
+   * @return compiled graph
+   */
+  public static IndexedGraph compile(Node rootNode) {
+    return new Compiler().compile(rootNode);
+  }
+
+  public Node getRootNode() {
+    return rootNode;
+  }
+
+  public int size() {
+    return nodes.length;
+  }
+
+  public Node getNode(int node) {
+    return nodes[node];
+  }
+
+  public String getId(int node) {
+    return nodes[node].getId();
+  }
+
+  public boolean isComposite(int node) {
+    return children[node] != null;
+  }
+
+  public SingleNode getSingleNode(int node) {
+    return singleNodes[node];
+  }
+
+  public int getChildrenCount(int node) {
+    return children[node] == null ? 0 : children[node].length;
+  }
+
+  public int getChild(int node, int position) {
+    return children[node][position];
+  }
+
+  /**
+   * Returns the interned id of the transition.
+   *
+   * @param transition transition name
+   * @return transition id or {@link #NONE} when no node in the graph defines the transition
+   */
+  public int transitionId(String transition) {
+    if (SUCCESS_TRANSITION.equals(transition)) {
+      return SUCCESS;
+    } else if (ERROR_TRANSITION.equals(transition)) {
+      return ERROR;
+    } else if (transition == null) {
+      return NONE;
+    }
+    Integer id = transitionIds.get(transition);
+    return id == null ? NONE : id;
+  }
+
+  /**
+   * Resolves the next node.
+   *
+   * @param node current node index
+   * @param transition transition name
+   * @return next node index or {@link #NONE} when the transition is not defined for the node
+   */
+  public int next(int node, String transition) {
+    return next(node, transitionId(transition));
+  }
+
+  /**
+   * Resolves the next node.
+   *
+   * @param node current node index
+   * @param transitionId interned transition id
+   * @return next node index or {@link #NONE} when the transition is not defined for the node
+   */
+  public int next(int node, int transitionId) {
+    return transitionId == NONE ? NONE : next[node][transitionId];
+  }
+
+  @Override
+  public String toString() {
+    return "IndexedGraph{" +
+        "size=" + nodes.length +
+        ", transitionIds=" + transitionIds +
+        ", rootNode=" + rootNode +
+        '}';
+  }
+
+  private static final class Compiler {
+
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<int[]> children = new ArrayList<>();
+    private final List<Map<Integer, Integer>> edges = new ArrayList<>();
+    private final Map<String, Integer> transitionIds = new HashMap<>();
+
+    private Compiler() {
+      intern(SUCCESS_TRANSITION);
+      intern(ERROR_TRANSITION);
+      intern(FALLBACK_TRANSITION);
+    }
+
+    private IndexedGraph compile(Node rootNode) {
+      add(rootNode);
+
+      int size = nodes.size();
+      Node[] nodesArray = nodes.toArray(new Node[size]);
+      SingleNode[] singleNodes = new SingleNode[size];
+      int[][] next = new int[size][transitionIds.size()];
+      for (int i = 0; i < size; i++) {
+        if (nodesArray[i] instanceof SingleNode) {
+          singleNodes[i] = (SingleNode) nodesArray[i];
+        }
+        Arrays.fill(next[i], NONE);
+        int[] nodeTransitions = next[i];
+        edges.get(i).forEach((transition, target) -> nodeTransitions[transition] = target);
+      }
+      return new IndexedGraph(rootNode, nodesArray, singleNodes,
+          children.toArray(new int[size][]), next,
+          Collections.unmodifiableMap(new HashMap<>(transitionIds)));
+    }
+
+    private int add(Node node) {
+      int index = nodes.size();
+      nodes.add(node);
+      children.add(null);
+      edges.add(new HashMap<>());
+
+      if (node instanceof CompositeNode) {
+        CompositeNode compositeNode = (CompositeNode) node;
+        List<Node> subgraphs = compositeNode.getNodes();
+        int[] subgraphRoots = new int[subgraphs.size()];
+        for (int i = 0; i < subgraphRoots.length; i++) {
+          subgraphRoots[i] = add(subgraphs.get(i));
+        }
+        children.set(index, subgraphRoots);
+        edge(index, SUCCESS_TRANSITION, compositeNode.next(SUCCESS_TRANSITION));
+        edge(index, ERROR_TRANSITION, compositeNode.next(ERROR_TRANSITION));
+      } else if (node instanceof SingleNode) {
+        ((SingleNode) node).getTransitions().forEach(
+            (transition, nextNode) -> edge(index, transition, Optional.ofNullable(nextNode)));
+      } else {
+        throw new IllegalArgumentException("Node type is not supported: " + node);
+      }
+      return index;
+    }
+
+    private void edge(int index, String transition, Optional<Node> nextNode) {
+      nextNode.ifPresent(n -> {
+        int transitionId = intern(transition);
+        edges.get(index).put(transitionId, add(n));
+      });
+    }
+
+    private int intern(String transition) {
+      Integer id = transitionIds.get(transition);
+      if (id == null) {
+        id = transitionIds.size();
+        transitionIds.put(transition, id);
+      }
+      return id;
+    }
+  }
+}
@@ -17,6 +17,10 @@ package io.knotx.fragments.engine.graph;
 
 import java.util.Optional;
 
+/**
+ * Graph node. Nodes are compiled once and shared between all requests, so implementations must be
+ * immutable and thread-safe. The per-request processing state is kept by the engine.
+ */
 public interface Node {
 
   String getId();
@@ -15,21 +15,36 @@
  */
 package io.knotx.fragments.engine.graph;
 
+import io.knotx.fragments.handler.api.ExecutionMode;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.reactivex.Single;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 
+/**
+ * Single operation node. It is immutable, so it can be shared between requests.
+ */
 public class SingleNode implements Node {
 
-  private String id;
+  /**
+   * The timeout value meaning that the node is limited only by the request deadline.
+   */
+  public static final long NO_TIMEOUT = 0L;
+
+  private final String id;
+
+  private final Function<FragmentContext, Single<FragmentResult>> action;
+
+  private final Map<String, Node> transitions;
 
-  private Function<FragmentContext, Single<FragmentResult>> action;
+  private final ExecutionMode executionMode;
 
-  private Map<String, Node> transitions;
+  private final long timeout;
 
   public SingleNode(String id, Function<FragmentContext, Single<FragmentResult>> action) {
     this(id, action, null);
@@ -37,9 +52,22 @@ public class SingleNode implements Node {
 
   public SingleNode(String id, Function<FragmentContext, Single<FragmentResult>> action,
       Map<String, Node> transitions) {
+    this(id, action, transitions, ExecutionMode.BLOCKING);
+  }
+
+  public SingleNode(String id, Function<FragmentContext, Single<FragmentResult>> action,
+      Map<String, Node> transitions, ExecutionMode executionMode) {
+    this(id, action, transitions, executionMode, NO_TIMEOUT);
+  }
+
+  public SingleNode(String id, Function<FragmentContext, Single<FragmentResult>> action,
+      Map<String, Node> transitions, ExecutionMode executionMode, long timeout) {
     this.id = id;
     this.action = action;
-    this.transitions = transitions;
+    this.transitions = transitions == null ? null
+        : Collections.unmodifiableMap(new HashMap<>(transitions));
+    this.executionMode = executionMode;
+    this.timeout = timeout;
   }
 
   @Override
@@ -57,6 +85,21 @@ public class SingleNode implements Node {
     return NodeType.SINGLE;
   }
 
+  public Map<String, Node> getTransitions() {
+    return transitions == null ? Collections.emptyMap() : transitions;
+  }
+
+  public ExecutionMode getExecutionMode() {
+    return executionMode;
+  }
+
+  /**
+   * @return the node timeout in milliseconds or {@link #NO_TIMEOUT}
+   */
+  public long getTimeout() {
+    return timeout;
+  }
+
   public Single<FragmentResult> doAction(FragmentContext fragmentContext) {
     return action.apply(fragmentContext);
   }
@@ -72,12 +115,14 @@ public class SingleNode implements Node {
     SingleNode that = (SingleNode) o;
     return Objects.equals(id, that.id) &&
         Objects.equals(action, that.action) &&
-        Objects.equals(transitions, that.transitions);
+        Objects.equals(transitions, that.transitions) &&
+        executionMode == that.executionMode &&
+        timeout == that.timeout;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(id, action, transitions);
+    return Objects.hash(id, action, transitions, executionMode, timeout);
   }
 
   @Override
@@ -86,6 +131,8 @@ public class SingleNode implements Node {
         "id='" + id + '\'' +
         ", action=" + action +
         ", transitions=" + transitions +
+        ", executionMode=" + executionMode +
+        ", timeout=" + timeout +
         '}';
   }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets (similar to HdrHistogram). Each power of two
+ * range is split into {@code 32} linear buckets, so the recorded values are kept with the relative
+ * error below {@code 1/32} (~3%) using a fixed array of counters. Values are recorded concurrently
+ * without locks and can be read at any moment.
+ */
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder total = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * @param valueNanos - recorded value in nanoseconds, negative values are recorded as {@code 0}
+   */
+  public void record(long valueNanos) {
+    long value = Math.max(valueNanos, 0L);
+    counts.incrementAndGet(bucketOf(value));
+    count.increment();
+    total.add(value);
+    if (value > max.get()) {
+      max.accumulateAndGet(value, Math::max);
+    }
+  }
+
+  /**
+   * @return the number of recorded values
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * @param unit - time unit of the result
+   * @return the highest recorded value
+   */
+  public long getMax(TimeUnit unit) {
+    return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param unit - time unit of the result
+   * @return the mean of the recorded values
+   */
+  public double getMean(TimeUnit unit) {
+    long recorded = count.sum();
+    return recorded == 0 ? 0.0
+        : (double) total.sum() / recorded / unit.toNanos(1);
+  }
+
+  /**
+   * @param percentile - percentile in the range {@code (0, 100]}
+   * @param unit - time unit of the result
+   * @return the value below or equal to which the given percentage of values is recorded,
+   * {@code 0} when no values are recorded
+   */
+  public long getValueAtPercentile(double percentile, TimeUnit unit) {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long recorded = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      snapshot[i] = counts.get(i);
+      recorded += snapshot[i];
+    }
+    if (recorded == 0) {
+      return 0L;
+    }
+    long rank = Math.max(1L, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * recorded));
+    long cumulative = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      cumulative += snapshot[i];
+      if (cumulative >= rank) {
+        return unit.convert(Math.min(highestValueOf(i), max.get()), TimeUnit.NANOSECONDS);
+      }
+    }
+    return getMax(unit);
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    int magnitude = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int shift = magnitude - SUB_BUCKET_BITS;
+    return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+  }
+
+  static long highestValueOf(int bucket) {
+    if (bucket < SUB_BUCKET_COUNT) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKET_COUNT - 1;
+    long subBucket = bucket % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram{" +
+        "count=" + getCount() +
+        ", meanMs=" + getMean(TimeUnit.MILLISECONDS) +
+        ", p50Ms=" + getValueAtPercentile(50.0, TimeUnit.MILLISECONDS) +
+        ", p99Ms=" + getValueAtPercentile(99.0, TimeUnit.MILLISECONDS) +
+        ", maxMs=" + getMax(TimeUnit.MILLISECONDS) +
+        '}';
+  }
+}
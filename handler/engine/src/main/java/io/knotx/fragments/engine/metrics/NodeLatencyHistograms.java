@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine.metrics;
+
+import io.vertx.core.json.JsonObject;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node metrics keeping a {@link LatencyHistogram} per task name, node identifier and transition.
+ * The histograms are created on the first execution and are meant to be polled, e.g.
+ * <pre>
+ *   histograms.getHistogram("books-task", "book-api", "_success")
+ *       .map(histogram -&gt; histogram.getValueAtPercentile(99.0, TimeUnit.MILLISECONDS));
+ * </pre>
+ */
+public class NodeLatencyHistograms implements NodeMetrics {
+
+  // task name -> node identifier -> transition -> histogram
+  private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, LatencyHistogram>>>
+      histograms = new ConcurrentHashMap<>();
+
+  @Override
+  public void record(String taskName, String nodeId, String transition, long durationNanos) {
+    histograms.computeIfAbsent(taskName, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(nodeId, key -> new ConcurrentHashMap<>())
+        .computeIfAbsent(transition, key -> new LatencyHistogram())
+        .record(durationNanos);
+  }
+
+  /**
+   * @return the histogram of the node executions ended with the transition
+   */
+  public Optional<LatencyHistogram> getHistogram(String taskName, String nodeId,
+      String transition) {
+    return Optional.ofNullable(histograms.get(taskName))
+        .map(nodes -> nodes.get(nodeId))
+        .map(transitions -> transitions.get(transition));
+  }
+
+  /**
+   * @return snapshot of all histograms: count, mean, p50, p90, p99 and max times in milliseconds
+   * grouped by task name, node identifier and transition
+   */
+  public JsonObject toJson() {
+    JsonObject tasks = new JsonObject();
+    histograms.forEach((taskName, nodes) -> {
+      JsonObject task = new JsonObject();
+      nodes.forEach((nodeId, transitions) -> task.put(nodeId, toJson(transitions)));
+      tasks.put(taskName, task);
+    });
+    return tasks;
+  }
+
+  private JsonObject toJson(Map<String, LatencyHistogram> transitions) {
+    JsonObject node = new JsonObject();
+    transitions.forEach((transition, histogram) -> node.put(transition, new JsonObject()
+        .put("count", histogram.getCount())
+        .put("mean", histogram.getMean(TimeUnit.MILLISECONDS))
+        .put("p50", histogram.getValueAtPercentile(50.0, TimeUnit.MILLISECONDS))
+        .put("p90", histogram.getValueAtPercentile(90.0, TimeUnit.MILLISECONDS))
+        .put("p99", histogram.getValueAtPercentile(99.0, TimeUnit.MILLISECONDS))
+        .put("max", histogram.getMax(TimeUnit.MILLISECONDS))));
+    return node;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine.metrics;
+
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.ServiceLoader;
+
+/**
+ * Node metrics SPI. The engine reports the execution time of each single node, identified by the
+ * task name, the node identifier and the resulting transition. Implementations are called
+ * concurrently from event loop and worker threads, so they should be lock-free and must not block.
+ * <p>
+ * Implementations are registered in the
+ * {@code META-INF/services/io.knotx.fragments.engine.metrics.NodeMetrics} file and require a
+ * no-argument constructor. When no implementation is registered, the metrics are not
+ * recorded.
+ */
+public interface NodeMetrics {
+
+  /**
+   * The transition recorded when a node does not end within its time budget.
+   */
+  String TIMEOUT_TRANSITION = "_timeout";
+
+  /**
+   * Records the node execution.
+   *
+   * @param taskName - the task name
+   * @param nodeId - the node identifier
+   * @param transition - the transition the node responded with ({@code _error} for exceptions,
+   * {@code _timeout} for timeouts)
+   * @param durationNanos - the node execution time in nanoseconds
+   */
+  void record(String taskName, String nodeId, String transition, long durationNanos);
+
+  /**
+   * @return metrics that do not record anything
+   */
+  static NodeMetrics noOp() {
+    return NoOpNodeMetrics.INSTANCE;
+  }
+
+  /**
+   * Returns metrics implementations registered with the {@code ServiceLoader}. They are loaded
+   * once, so all engines in the JVM record to the same instances, which can be polled with {@link
+   * #find(Class)}.
+   *
+   * @return the registered implementation, all registered implementations when there are many or
+   * no-op metrics when there is none
+   */
+  static NodeMetrics load() {
+    return Registered.INSTANCE;
+  }
+
+  /**
+   * Finds the registered implementation of the type, e.g.
+   * <pre>
+   *   NodeMetrics.find(NodeLatencyHistograms.class)
+   *       .ifPresent(histograms -&gt; LOGGER.info(histograms.toJson()));
+   * </pre>
+   *
+   * @param type - the implementation type
+   * @return the implementation registered with the {@code ServiceLoader}
+   */
+  static <T extends NodeMetrics> Optional<T> find(Class<T> type) {
+    return Registered.METRICS.stream()
+        .filter(type::isInstance)
+        .map(type::cast)
+        .findFirst();
+  }
+
+  final class Registered {
+
+    private static final List<NodeMetrics> METRICS = loadAll();
+    private static final NodeMetrics INSTANCE = compose(METRICS);
+
+    private Registered() {
+      // holder of the loaded implementations
+    }
+
+    private static List<NodeMetrics> loadAll() {
+      List<NodeMetrics> metrics = new ArrayList<>();
+      ServiceLoader.load(NodeMetrics.class).forEach(metrics::add);
+      Logger logger = LoggerFactory.getLogger(NodeMetrics.class);
+      metrics.forEach(m -> logger.info("Registered node metrics [{}]", m.getClass().getName()));
+      return Collections.unmodifiableList(metrics);
+    }
+
+    private static NodeMetrics compose(List<NodeMetrics> metrics) {
+      if (metrics.isEmpty()) {
+        return noOp();
+      }
+      if (metrics.size() == 1) {
+        return metrics.get(0);
+      }
+      return (taskName, nodeId, transition, durationNanos) -> metrics
+          .forEach(m -> m.record(taskName, nodeId, transition, durationNanos));
+    }
+  }
+
+  final class NoOpNodeMetrics implements NodeMetrics {
+
+    private static final NodeMetrics INSTANCE = new NoOpNodeMetrics();
+
+    private NoOpNodeMetrics() {
+      // singleton
+    }
+
+    @Override
+    public void record(String taskName, String nodeId, String transition, long durationNanos) {
+      // nothing to record
+    }
+  }
+}
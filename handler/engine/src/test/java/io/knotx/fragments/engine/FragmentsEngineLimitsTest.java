@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.graph.CompositeNode;
+import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import io.vertx.reactivex.core.Vertx;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class FragmentsEngineLimitsTest {
+
+  private static final int NUMBER_OF_FRAGMENTS = 10;
+  private static final int OPERATION_TIME_IN_MILLIS = 50;
+  private static final int LIMIT = 2;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  private final Function<FragmentContext, Single<FragmentResult>> trackedOperation = fragmentContext ->
+      Single.fromCallable(() -> {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return new FragmentResult(fragmentContext.getFragment(),
+            FragmentResult.SUCCESS_TRANSITION);
+      })
+          .delay(OPERATION_TIME_IN_MILLIS, TimeUnit.MILLISECONDS)
+          .doOnSuccess(result -> inFlight.decrementAndGet());
+
+  @Test
+  @DisplayName("Expect no more fragments in flight than the per request limit.")
+  void expectFragmentsLimit(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    FragmentsEngine engine = new FragmentsEngine(vertx,
+        new FragmentsEngineOptions().setMaxInFlightFragments(LIMIT));
+
+    // when
+    Single<List<FragmentEvent>> result = engine.execute(events(() -> singleNode("node")));
+
+    // then
+    verify(result, testContext, events -> {
+      assertEquals(NUMBER_OF_FRAGMENTS, events.size());
+      assertEquals(LIMIT, maxInFlight.get());
+      assertEquals(NUMBER_OF_FRAGMENTS, engine.getFragmentsWaitTime().getCount());
+      assertEquals(NUMBER_OF_FRAGMENTS - LIMIT, engine.getFragmentsWaitTime().getDelayedCount());
+    });
+  }
+
+  @Test
+  @DisplayName("Expect no more subtasks in flight than the per composite node limit.")
+  void expectSubtasksLimit(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    FragmentsEngine engine = new FragmentsEngine(vertx,
+        new FragmentsEngineOptions().setMaxInFlightSubtasks(LIMIT));
+    List<Node> subtasks = IntStream.range(0, NUMBER_OF_FRAGMENTS)
+        .mapToObj(index -> singleNode("node" + index))
+        .collect(Collectors.toList());
+    Node composite = new CompositeNode("composite", subtasks, null, null);
+
+    // when
+    Single<List<FragmentEvent>> result = engine
+        .execute(Collections.singletonList(event(composite)));
+
+    // then
+    verify(result, testContext, events -> {
+      assertEquals(FragmentEvent.Status.SUCCESS, events.get(0).getStatus());
+      assertEquals(LIMIT, maxInFlight.get());
+      assertEquals(NUMBER_OF_FRAGMENTS - LIMIT, engine.getSubtasksWaitTime().getDelayedCount());
+    });
+  }
+
+  @Test
+  @DisplayName("Expect no more nodes in flight than the global limit shared by all engines.")
+  void expectGlobalNodesLimit(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    FragmentsEngineOptions options = new FragmentsEngineOptions().setMaxInFlightNodes(LIMIT);
+    FragmentsEngine first = new FragmentsEngine(vertx, options);
+    FragmentsEngine second = new FragmentsEngine(vertx, options);
+
+    // when
+    Single<List<FragmentEvent>> result = first.execute(events(() -> singleNode("node")))
+        .zipWith(second.execute(events(() -> singleNode("node"))), (a, b) -> {
+          a.addAll(b);
+          return a;
+        });
+
+    // then
+    verify(result, testContext, events -> {
+      assertEquals(2 * NUMBER_OF_FRAGMENTS, events.size());
+      assertEquals(LIMIT, maxInFlight.get());
+      assertEquals(0, first.getInFlightNodes());
+      assertEquals(0, first.getQueuedNodes());
+      assertEquals(2 * NUMBER_OF_FRAGMENTS,
+          first.getNodesWaitTime().getCount() + second.getNodesWaitTime().getCount());
+      assertTrue(first.getNodesWaitTime().getDelayedCount()
+          + second.getNodesWaitTime().getDelayedCount() > 0);
+    });
+  }
+
+  @Test
+  @DisplayName("Expect abandoned fragments and nodes counted when processing is disposed.")
+  void expectAbandonedWorkWhenDisposed(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    FragmentsEngine engine = new FragmentsEngine(vertx,
+        new FragmentsEngineOptions().setMaxInFlightFragments(LIMIT));
+
+    // when
+    Disposable processing = engine.execute(events(() -> singleNode("node")))
+        .subscribe(events -> testContext.failNow(new IllegalStateException("Not cancelled")),
+            testContext::failNow);
+    vertx.setTimer(OPERATION_TIME_IN_MILLIS / 2, timerId -> {
+      processing.dispose();
+
+      // then
+      testContext.verify(() -> {
+        assertEquals(NUMBER_OF_FRAGMENTS, engine.getAbandonedFragments());
+        assertEquals(LIMIT, engine.getAbandonedNodes());
+        testContext.completeNow();
+      });
+    });
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+  private Node singleNode(String id) {
+    return new SingleNode(id, trackedOperation, Collections.emptyMap());
+  }
+
+  private List<FragmentEventContextTaskAware> events(Supplier<Node> graph) {
+    return IntStream.range(0, NUMBER_OF_FRAGMENTS)
+        .mapToObj(index -> event(graph.get()))
+        .collect(Collectors.toList());
+  }
+
+  private FragmentEventContextTaskAware event(Node graph) {
+    Fragment fragment = new Fragment("snippet", new JsonObject(), "some body");
+    return new FragmentEventContextTaskAware(new Task("task", graph),
+        new FragmentEventContext(new FragmentEvent(fragment), new ClientRequest()));
+  }
+
+  private void verify(Single<List<FragmentEvent>> result, VertxTestContext testContext,
+      Consumer<List<FragmentEvent>> assertions) throws Throwable {
+    result.subscribe(
+        events -> testContext.verify(() -> {
+          assertions.accept(events);
+          testContext.completeNow();
+        }),
+        testContext::failNow);
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+}
@@ -32,7 +32,9 @@ import io.vertx.reactivex.core.Vertx;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import org.junit.jupiter.api.DisplayName;
@@ -77,6 +79,58 @@ class FragmentsEngineOrderTest {
     }), testContext);
   }
 
+  @Test
+  @DisplayName("Expect streamed fragments in incoming order")
+  void expectCorrectStreamOrder(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    List<FragmentEventContextTaskAware> events = Arrays.asList(
+        initFragmentEventContextTaskAware("first fragment", TIME_CONSUMING_OPERATION),
+        initFragmentEventContextTaskAware("second fragment", SIMPLE_OPERATION)
+    );
+
+    // when
+    Single<List<FragmentEvent>> result = new FragmentsEngine(vertx).stream(events).toList();
+
+    // then
+    verifyExecution(result, fragmentEvents -> testContext.verify(() -> {
+      assertEquals(2, fragmentEvents.size());
+      assertEquals("first fragment", fragmentEvents.get(0).getFragment().getBody());
+      assertEquals("second fragment", fragmentEvents.get(1).getFragment().getBody());
+    }), testContext);
+  }
+
+  @Test
+  @DisplayName("Expect processed prefix streamed before next fragments are processed")
+  void expectPrefixStreamedFirst(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    CountDownLatch firstStreamed = new CountDownLatch(1);
+    AtomicBoolean streamedBeforeSecond = new AtomicBoolean();
+    List<FragmentEventContextTaskAware> events = Arrays.asList(
+        initFragmentEventContextTaskAware("first fragment", SIMPLE_OPERATION),
+        initFragmentEventContextTaskAware("second fragment", fragmentContext -> {
+          try {
+            streamedBeforeSecond.set(firstStreamed.await(2, TimeUnit.SECONDS));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return SIMPLE_OPERATION.apply(fragmentContext);
+        })
+    );
+
+    // when
+    Single<List<FragmentEvent>> result = new FragmentsEngine(vertx).stream(events)
+        .doOnNext(event -> firstStreamed.countDown())
+        .toList();
+
+    // then
+    verifyExecution(result, fragmentEvents -> testContext.verify(() -> {
+      assertEquals(2, fragmentEvents.size());
+      assertTrue(streamedBeforeSecond.get());
+    }), testContext);
+  }
+
   private FragmentEventContextTaskAware initFragmentEventContextTaskAware(
       String fragmentBody,
       Function<FragmentContext, Single<FragmentResult>> operation) {
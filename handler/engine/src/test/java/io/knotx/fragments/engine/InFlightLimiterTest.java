@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.reactivex.Single;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.subjects.SingleSubject;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class InFlightLimiterTest {
+
+  private static final int QUEUE_LENGTH = 100_000;
+
+  @Test
+  @DisplayName("Expect a deep queue of synchronous operations drained without recursion.")
+  void expectDeepQueueDrained() {
+    // given
+    InFlightLimiter limiter = new InFlightLimiter(1);
+    WaitTimeMetrics metrics = new WaitTimeMetrics();
+    SingleSubject<String> running = SingleSubject.create();
+    AtomicInteger completed = new AtomicInteger();
+    limiter.limit(running, metrics).subscribe(value -> completed.incrementAndGet());
+    for (int i = 0; i < QUEUE_LENGTH; i++) {
+      limiter.limit(Single.just("queued"), metrics).subscribe(value -> completed.incrementAndGet());
+    }
+    assertEquals(QUEUE_LENGTH, limiter.getQueued());
+
+    // when
+    running.onSuccess("running");
+
+    // then
+    assertEquals(QUEUE_LENGTH + 1, completed.get());
+    assertEquals(0, limiter.getInFlight());
+    assertEquals(0, limiter.getQueued());
+    assertEquals(QUEUE_LENGTH + 1, metrics.getCount());
+    assertEquals(QUEUE_LENGTH, metrics.getDelayedCount());
+  }
+
+  @Test
+  @DisplayName("Expect disposed queued operations skipped without starting them.")
+  void expectDisposedQueuedOperationsSkipped() {
+    // given
+    InFlightLimiter limiter = new InFlightLimiter(1);
+    WaitTimeMetrics metrics = new WaitTimeMetrics();
+    SingleSubject<String> running = SingleSubject.create();
+    AtomicInteger started = new AtomicInteger();
+    limiter.limit(running, metrics).subscribe();
+    List<Disposable> disposables = new ArrayList<>();
+    for (int i = 0; i < QUEUE_LENGTH; i++) {
+      disposables.add(limiter
+          .limit(Single.fromCallable(started::incrementAndGet), metrics)
+          .subscribe());
+    }
+
+    // when
+    disposables.forEach(Disposable::dispose);
+    running.onSuccess("running");
+
+    // then
+    assertEquals(0, started.get());
+    assertEquals(0, limiter.getInFlight());
+    assertEquals(0, limiter.getQueued());
+    limiter.limit(Single.fromCallable(started::incrementAndGet), metrics).subscribe();
+    assertEquals(1, started.get());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  @DisplayName("Expect a queued operation started on the context of its subscriber.")
+  void expectQueuedOperationStartedOnSubscriberContext(Vertx vertx,
+      VertxTestContext testContext) {
+    // given
+    InFlightLimiter limiter = new InFlightLimiter(1);
+    WaitTimeMetrics metrics = new WaitTimeMetrics();
+    SingleSubject<String> running = SingleSubject.create();
+    Context releasing = vertx.getOrCreateContext();
+    Context subscribing = vertx.getOrCreateContext();
+    releasing.runOnContext(v -> limiter.limit(running, metrics).subscribe());
+
+    // when
+    subscribing.runOnContext(v -> limiter
+        .limit(Single.fromCallable(Vertx::currentContext), metrics)
+        .subscribe(context -> testContext.verify(() -> {
+          // then
+          assertSame(subscribing, context);
+          assertEquals(1, metrics.getDelayedCount());
+          testContext.completeNow();
+        }), testContext::failNow));
+    vertx.setTimer(100, timerId -> releasing.runOnContext(v -> running.onSuccess("running")));
+  }
+}
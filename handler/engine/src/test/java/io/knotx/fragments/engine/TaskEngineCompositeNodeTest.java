@@ -18,13 +18,16 @@ package io.knotx.fragments.engine;
 import static io.knotx.fragments.engine.FragmentEventLogVerifier.verifyAllLogEntries;
 import static io.knotx.fragments.engine.FragmentEventLogVerifier.verifyLogEntries;
 import static io.knotx.fragments.engine.helpers.TestFunction.appendBody;
+import static io.knotx.fragments.engine.helpers.TestFunction.appendBodyWithPayload;
 import static io.knotx.fragments.engine.helpers.TestFunction.appendPayload;
+import static io.knotx.fragments.engine.helpers.TestFunction.appendPayloadWithDelay;
 import static io.knotx.fragments.engine.helpers.TestFunction.failure;
 import static io.knotx.fragments.engine.helpers.TestFunction.fatal;
 import static io.knotx.fragments.engine.helpers.TestFunction.success;
 import static io.knotx.fragments.engine.helpers.TestFunction.successWithNodeLog;
 import static io.knotx.fragments.handler.api.domain.FragmentResult.ERROR_TRANSITION;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.knotx.fragments.api.Fragment;
@@ -38,6 +41,7 @@ import io.knotx.server.api.context.ClientRequest;
 import io.reactivex.Single;
 import io.reactivex.exceptions.CompositeException;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
@@ -46,6 +50,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -219,6 +224,34 @@ class TaskEngineCompositeNodeTest {
     );
   }
 
+  @Test
+  @DisplayName("Expect sibling parallel actions cancelled when one of them throws fatal")
+  void expectSiblingsCancelledWhenFatal(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    AtomicBoolean cancelled = new AtomicBoolean();
+    AtomicBoolean finished = new AtomicBoolean();
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("slow", fragmentContext -> success().apply(fragmentContext)
+                .delay(2, TimeUnit.SECONDS)
+                .doOnSuccess(result -> finished.set(true))
+                .doOnDispose(() -> cancelled.set(true)), NO_TRANSITIONS),
+            new SingleNode("action", fatal(eventContext.getFragmentEvent().getFragment()),
+                NO_TRANSITIONS)
+        ), null, null
+    );
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyError(result, testContext, error -> {
+      assertTrue(cancelled.get());
+      assertFalse(finished.get());
+    });
+  }
+
   @Test
   @DisplayName("Expect payload updated when parallel action ends")
   void expectPayloadUpdatedInParallelProcessing(VertxTestContext testContext, Vertx vertx)
@@ -487,6 +520,101 @@ class TaskEngineCompositeNodeTest {
             fragmentEvent.getFragment().getPayload().getJsonObject("last")));
   }
 
+  @Test
+  @DisplayName("Expect changes of parallel actions joined in the order of declaration")
+  void expectDeclarationOrderJoin(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", appendPayloadWithDelay("key", "A", 200), NO_TRANSITIONS),
+            new SingleNode("B", appendPayload("key", "B"), NO_TRANSITIONS)
+        ), null, null
+    );
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext,
+        fragmentEvent -> assertEquals("B",
+            fragmentEvent.getFragment().getPayload().getString("key")));
+  }
+
+  @Test
+  @DisplayName("Expect parallel actions do not see changes of each other")
+  void expectIsolatedParallelActions(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", appendPayload("A", "value"), NO_TRANSITIONS),
+            new SingleNode("B", appendBodyWithPayload("A"), NO_TRANSITIONS)
+        ), null, null
+    );
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext, fragmentEvent -> {
+      assertEquals("value", fragmentEvent.getFragment().getPayload().getString("A"));
+      assertEquals(INITIAL_BODY + "null", fragmentEvent.getFragment().getBody());
+    });
+  }
+
+  @Test
+  @DisplayName("Expect first declared body change when first-wins body merge policy is set")
+  void expectFirstWinsBodyMergePolicy(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", appendBody(":A"), NO_TRANSITIONS),
+            new SingleNode("B", appendBody(":B"), NO_TRANSITIONS)
+        ), null, null
+    );
+    FragmentsEngineOptions options = new FragmentsEngineOptions()
+        .setBodyMergePolicy(MergePolicy.FIRST_WINS);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx, options)
+        .start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext,
+        fragmentEvent -> assertEquals(INITIAL_BODY + ":A", fragmentEvent.getFragment().getBody()));
+  }
+
+  @Test
+  @DisplayName("Expect error when fail payload merge policy is set and parallel actions conflict")
+  void expectErrorWhenPayloadConflicts(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Node rootNode = new CompositeNode(COMPOSITE_NODE_ID,
+        parallel(
+            new SingleNode("A", appendPayload("key", "A"), NO_TRANSITIONS),
+            new SingleNode("B", appendPayload("key", "B"), NO_TRANSITIONS),
+            new SingleNode("C", appendPayload("other", "C"), NO_TRANSITIONS)
+        ), null, null
+    );
+    FragmentsEngineOptions options = new FragmentsEngineOptions()
+        .setPayloadMergePolicy(MergePolicy.FAIL);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx, options)
+        .start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext, fragmentEvent -> {
+      assertEquals(Status.FAILURE, fragmentEvent.getStatus());
+      assertEquals("A", fragmentEvent.getFragment().getPayload().getString("key"));
+      assertEquals("C", fragmentEvent.getFragment().getPayload().getString("other"));
+      verifyLogEntries(fragmentEvent.getLogAsJson(),
+          Operation.exact("task", COMPOSITE_NODE_ID, "ERROR", 3, new JsonObject()
+              .put("conflicts", new JsonArray().add("payload.key"))));
+    });
+  }
+
   private List<Node> parallel(Node... nodes) {
     return Arrays.asList(nodes);
   }
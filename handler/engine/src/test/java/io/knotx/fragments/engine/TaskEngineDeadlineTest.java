@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static io.knotx.fragments.engine.FragmentEventLogVerifier.verifyAllLogEntries;
+import static io.knotx.fragments.engine.helpers.TestFunction.appendPayload;
+import static io.knotx.fragments.engine.helpers.TestFunction.success;
+import static io.knotx.fragments.engine.helpers.TestFunction.successWithDelay;
+import static io.knotx.fragments.handler.api.domain.FragmentResult.ERROR_TRANSITION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.FragmentEvent.Status;
+import io.knotx.fragments.engine.FragmentEventLogVerifier.Operation;
+import io.knotx.fragments.engine.graph.IndexedGraph;
+import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.ExecutionMode;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class TaskEngineDeadlineTest {
+
+  private static final long SLOW_ACTION_DELAY = 2000;
+
+  private final Fragment initialFragment = new Fragment("snippet", new JsonObject(), "body");
+
+  @Test
+  @DisplayName("Expect error transition when node exceeds its timeout")
+  void expectErrorWhenNodeTimeoutExceeded(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    Node rootNode = new SingleNode("slow", successWithDelay(SLOW_ACTION_DELAY),
+        Collections.singletonMap(ERROR_TRANSITION,
+            new SingleNode("error", appendPayload("error", "value"))),
+        ExecutionMode.EVENT_LOOP, 100);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx)
+        .start("task", rootNode, eventContext(FragmentContext.NO_DEADLINE));
+
+    // then
+    verifyExecution(result, testContext, fragmentEvent -> {
+      assertEquals("value", fragmentEvent.getFragment().getPayload().getString("error"));
+      verifyAllLogEntries(fragmentEvent.getLogAsJson(),
+          Operation.exact("task", "slow", "TIMEOUT", 0),
+          Operation.exact("task", "error", "SUCCESS", 1));
+    });
+  }
+
+  @Test
+  @DisplayName("Expect node time budget limited by the request deadline")
+  void expectNodeLimitedByDeadline(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Node rootNode = new SingleNode("slow", successWithDelay(SLOW_ACTION_DELAY), null,
+        ExecutionMode.EVENT_LOOP, 10 * SLOW_ACTION_DELAY);
+    long startedAt = System.currentTimeMillis();
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx)
+        .start("task", rootNode, eventContext(deadlineIn(100)));
+
+    // then
+    verifyExecution(result, testContext, fragmentEvent -> {
+      assertEquals(Status.FAILURE, fragmentEvent.getStatus());
+      assertTrue(System.currentTimeMillis() - startedAt < SLOW_ACTION_DELAY);
+    });
+  }
+
+  @Test
+  @DisplayName("Expect fallback transition and node not started when the deadline has passed")
+  void expectFallbackWhenDeadlinePassed(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    AtomicBoolean started = new AtomicBoolean();
+    Node rootNode = new SingleNode("expired", fragmentContext -> {
+      started.set(true);
+      return Single.just(new FragmentResult(fragmentContext.getFragment(),
+          FragmentResult.SUCCESS_TRANSITION));
+    }, Collections.singletonMap(IndexedGraph.FALLBACK_TRANSITION,
+        new SingleNode("fallback", success())));
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx)
+        .start("task", rootNode, eventContext(deadlineIn(-1)));
+
+    // then
+    verifyExecution(result, testContext, fragmentEvent -> {
+      assertFalse(started.get());
+      assertEquals(Status.SUCCESS, fragmentEvent.getStatus());
+      verifyAllLogEntries(fragmentEvent.getLogAsJson(),
+          Operation.exact("task", "expired", "TIMEOUT", 0),
+          Operation.exact("task", "fallback", "SUCCESS", 1));
+    });
+  }
+
+  private long deadlineIn(long millis) {
+    return System.currentTimeMillis() + millis;
+  }
+
+  private FragmentEventContext eventContext(long deadline) {
+    return new FragmentEventContext(new FragmentEvent(initialFragment), new ClientRequest(),
+        deadline);
+  }
+
+  private void verifyExecution(Single<FragmentEvent> result, VertxTestContext testContext,
+      Consumer<FragmentEvent> successConsumer) throws Throwable {
+    result.subscribe(
+        onSuccess -> testContext.verify(() -> {
+          successConsumer.accept(onSuccess);
+          testContext.completeNow();
+        }), testContext::failNow);
+
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+}
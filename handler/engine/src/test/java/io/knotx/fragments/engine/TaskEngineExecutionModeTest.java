@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.engine.graph.Node;
+import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.handler.api.ExecutionMode;
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.knotx.server.api.context.ClientRequest;
+import io.reactivex.Single;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class TaskEngineExecutionModeTest {
+
+  private static final String DEFAULT_WORKER_POOL_PREFIX = "vert.x-worker-thread";
+
+  private FragmentEventContext eventContext;
+
+  @BeforeEach
+  void setUp() {
+    eventContext = new FragmentEventContext(
+        new FragmentEvent(new Fragment("snippet", new JsonObject(), "body")),
+        new ClientRequest());
+  }
+
+  @Test
+  @DisplayName("Expect event loop action executed on event loop thread.")
+  void expectEventLoopThread(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Node rootNode = new SingleNode("action",
+        verifyThread(threadName -> assertTrue(Context.isOnEventLoopThread())), null,
+        ExecutionMode.EVENT_LOOP);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext);
+  }
+
+  @Test
+  @DisplayName("Expect event loop action executed by the subscriber thread without a thread hop.")
+  void expectNoThreadHopOnEventLoop(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    AtomicReference<Thread> subscriber = new AtomicReference<>();
+    Node rootNode = new SingleNode("action",
+        verifyThread(threadName -> assertSame(subscriber.get(), Thread.currentThread())), null,
+        ExecutionMode.EVENT_LOOP);
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // when
+    vertx.runOnContext(v -> {
+      // the action started after a hop would not see the subscriber thread
+      subscriber.set(Thread.currentThread());
+      expectSuccess(result, testContext);
+      subscriber.set(null);
+    });
+
+    // then
+    awaitCompletion(testContext);
+  }
+
+  @Test
+  @DisplayName("Expect compute action executed after the engine is closed.")
+  void expectComputeThreadAfterClose(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    TaskEngine tested = new TaskEngine(vertx);
+    Node rootNode = new SingleNode("action",
+        verifyThread(threadName -> assertTrue(Context.isOnWorkerThread())), null,
+        ExecutionMode.COMPUTE);
+    tested.start("task", rootNode, eventContext).blockingGet();
+
+    // when
+    tested.close();
+    Single<FragmentEvent> result = tested.start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext);
+  }
+
+  @Test
+  @DisplayName("Expect compute action executed on bounded compute pool.")
+  void expectComputeThread(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Node rootNode = new SingleNode("action", verifyThread(threadName -> {
+      assertTrue(Context.isOnWorkerThread());
+      assertFalse(threadName.startsWith(DEFAULT_WORKER_POOL_PREFIX));
+    }), null, ExecutionMode.COMPUTE);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext);
+  }
+
+  @Test
+  @DisplayName("Expect blocking action executed on worker pool.")
+  void expectWorkerThread(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Node rootNode = new SingleNode("action",
+        verifyThread(threadName -> assertTrue(threadName.startsWith(DEFAULT_WORKER_POOL_PREFIX))),
+        null, ExecutionMode.BLOCKING);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext);
+  }
+
+  @Test
+  @DisplayName("Expect blocking action executed on worker pool when execution mode not defined.")
+  void expectWorkerThreadByDefault(VertxTestContext testContext, Vertx vertx) throws Throwable {
+    // given
+    Node rootNode = new SingleNode("action",
+        verifyThread(threadName -> assertTrue(threadName.startsWith(DEFAULT_WORKER_POOL_PREFIX))),
+        null);
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx).start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext);
+  }
+
+  private Function<FragmentContext, Single<FragmentResult>> verifyThread(
+      Consumer<String> threadVerifier) {
+    return fragmentContext -> Single.fromCallable(() -> {
+      threadVerifier.accept(Thread.currentThread().getName());
+      return new FragmentResult(fragmentContext.getFragment(),
+          FragmentResult.SUCCESS_TRANSITION);
+    });
+  }
+
+  private void verifyExecution(Single<FragmentEvent> result, VertxTestContext testContext)
+      throws Throwable {
+    expectSuccess(result, testContext);
+    awaitCompletion(testContext);
+  }
+
+  private void expectSuccess(Single<FragmentEvent> result, VertxTestContext testContext) {
+    result.subscribe(
+        onSuccess -> testContext.verify(() -> {
+          Assertions.assertEquals(FragmentEvent.Status.SUCCESS, onSuccess.getStatus());
+          testContext.completeNow();
+        }), testContext::failNow);
+  }
+
+  private void awaitCompletion(VertxTestContext testContext) throws Throwable {
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+    if (testContext.failed()) {
+      throw testContext.causeOfFailure();
+    }
+  }
+
+}
@@ -30,6 +30,8 @@ import io.knotx.fragments.engine.FragmentEvent.Status;
 import io.knotx.fragments.engine.FragmentEventLogVerifier.Operation;
 import io.knotx.fragments.engine.graph.Node;
 import io.knotx.fragments.engine.graph.SingleNode;
+import io.knotx.fragments.engine.metrics.LatencyHistogram;
+import io.knotx.fragments.engine.metrics.NodeLatencyHistograms;
 import io.knotx.fragments.handler.api.domain.FragmentContext;
 import io.knotx.fragments.handler.api.domain.FragmentResult;
 import io.knotx.server.api.context.ClientRequest;
@@ -196,6 +198,29 @@ class TaskEngineSingleOperationTest {
     verifyExecution(result, testContext, event -> assertEquals(Status.FAILURE, event.getStatus()));
   }
 
+  @Test
+  @DisplayName("Expect node execution time recorded with the node transition.")
+  void expectNodeMetricsRecorded(VertxTestContext testContext, Vertx vertx)
+      throws Throwable {
+    // given
+    NodeLatencyHistograms histograms = new NodeLatencyHistograms();
+    SingleNode rootNode = new SingleNode("first", failure(),
+        Collections.singletonMap(ERROR_TRANSITION,
+            new SingleNode("second", success())));
+
+    // when
+    Single<FragmentEvent> result = new TaskEngine(vertx, new FragmentsEngineOptions(), histograms)
+        .start("task", rootNode, eventContext);
+
+    // then
+    verifyExecution(result, testContext, event -> {
+      assertEquals(Long.valueOf(1), histograms.getHistogram("task", "first", ERROR_TRANSITION)
+          .map(LatencyHistogram::getCount).orElse(0L));
+      assertEquals(Long.valueOf(1), histograms.getHistogram("task", "second", SUCCESS_TRANSITION)
+          .map(LatencyHistogram::getCount).orElse(0L));
+    });
+  }
+
   @Test
   @DisplayName("Expect success event log entry when operation ends.")
   void expectSuccessEventLogEntry(VertxTestContext testContext, Vertx vertx)
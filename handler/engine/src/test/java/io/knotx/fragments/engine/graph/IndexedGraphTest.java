@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine.graph;
+
+import static io.knotx.fragments.handler.api.domain.FragmentResult.ERROR_TRANSITION;
+import static io.knotx.fragments.handler.api.domain.FragmentResult.SUCCESS_TRANSITION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.fragments.handler.api.domain.FragmentContext;
+import io.knotx.fragments.handler.api.domain.FragmentResult;
+import io.reactivex.Single;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class IndexedGraphTest {
+
+  private static final Function<FragmentContext, Single<FragmentResult>> ACTION =
+      fragmentContext -> Single.just(
+          new FragmentResult(fragmentContext.getFragment(), SUCCESS_TRANSITION));
+
+  @Test
+  @DisplayName("Expect root node at the root index.")
+  void expectRootNode() {
+    // given
+    SingleNode rootNode = new SingleNode("A", ACTION);
+
+    // when
+    IndexedGraph graph = IndexedGraph.compile(rootNode);
+
+    // then
+    assertEquals(1, graph.size());
+    assertEquals("A", graph.getId(IndexedGraph.ROOT));
+    assertSame(rootNode, graph.getRootNode());
+    assertSame(rootNode, graph.getSingleNode(IndexedGraph.ROOT));
+    assertFalse(graph.isComposite(IndexedGraph.ROOT));
+  }
+
+  @Test
+  @DisplayName("Expect next nodes resolved for default and custom transitions.")
+  void expectNextNodes() {
+    // given
+    Map<String, Node> transitions = new HashMap<>();
+    transitions.put(SUCCESS_TRANSITION, new SingleNode("B", ACTION));
+    transitions.put("custom", new SingleNode("C", ACTION));
+    transitions.put(IndexedGraph.FALLBACK_TRANSITION, new SingleNode("D", ACTION));
+
+    // when
+    IndexedGraph graph = IndexedGraph.compile(new SingleNode("A", ACTION, transitions));
+
+    // then
+    assertEquals("B", graph.getId(graph.next(IndexedGraph.ROOT, SUCCESS_TRANSITION)));
+    assertEquals("C", graph.getId(graph.next(IndexedGraph.ROOT, "custom")));
+    assertEquals("D", graph.getId(graph.next(IndexedGraph.ROOT, IndexedGraph.FALLBACK)));
+    assertEquals(IndexedGraph.NONE, graph.next(IndexedGraph.ROOT, ERROR_TRANSITION));
+  }
+
+  @Test
+  @DisplayName("Expect no next node when transition is unknown or not defined.")
+  void expectNoNextNode() {
+    // given
+    IndexedGraph graph = IndexedGraph.compile(new SingleNode("A", ACTION,
+        Collections.singletonMap(SUCCESS_TRANSITION, new SingleNode("B", ACTION))));
+
+    // then
+    assertEquals(IndexedGraph.NONE, graph.transitionId("unknown"));
+    assertEquals(IndexedGraph.NONE, graph.next(IndexedGraph.ROOT, "unknown"));
+    assertEquals(IndexedGraph.NONE, graph.next(IndexedGraph.ROOT, (String) null));
+    assertEquals(IndexedGraph.NONE, graph.next(1, SUCCESS_TRANSITION));
+  }
+
+  @Test
+  @DisplayName("Expect composite node subgraphs and transitions.")
+  void expectCompositeNode() {
+    // given
+    Node rootNode = new CompositeNode("composite",
+        Arrays.asList(new SingleNode("A", ACTION), new SingleNode("B", ACTION)),
+        new SingleNode("success", ACTION),
+        new SingleNode("error", ACTION));
+
+    // when
+    IndexedGraph graph = IndexedGraph.compile(rootNode);
+
+    // then
+    assertTrue(graph.isComposite(IndexedGraph.ROOT));
+    assertEquals(2, graph.getChildrenCount(IndexedGraph.ROOT));
+    assertEquals("A", graph.getId(graph.getChild(IndexedGraph.ROOT, 0)));
+    assertEquals("B", graph.getId(graph.getChild(IndexedGraph.ROOT, 1)));
+    assertEquals("success", graph.getId(graph.next(IndexedGraph.ROOT, SUCCESS_TRANSITION)));
+    assertEquals("error", graph.getId(graph.next(IndexedGraph.ROOT, ERROR_TRANSITION)));
+  }
+
+  @Test
+  @DisplayName("Expect exception when node type is not supported.")
+  void expectExceptionWhenCustomNode() {
+    // given
+    Node customNode = new Node() {
+      @Override
+      public String getId() {
+        return "custom";
+      }
+
+      @Override
+      public Optional<Node> next(String transition) {
+        return Optional.empty();
+      }
+
+      @Override
+      public NodeType getType() {
+        return NodeType.SINGLE;
+      }
+    };
+
+    // then
+    assertThrows(IllegalArgumentException.class, () -> IndexedGraph.compile(customNode));
+  }
+}
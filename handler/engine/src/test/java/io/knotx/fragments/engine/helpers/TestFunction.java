@@ -92,6 +92,16 @@ public interface TestFunction extends Function<FragmentContext, Single<FragmentR
     };
   }
 
+  static TestFunction appendPayloadWithDelay(String payloadKey, String payloadValue,
+      long delayInMs) {
+    return fragmentContext -> {
+      Fragment fragment = fragmentContext.getFragment();
+      fragment.appendPayload(payloadKey, payloadValue);
+      FragmentResult result = new FragmentResult(fragment, SUCCESS_TRANSITION);
+      return Single.just(result).delay(delayInMs, TimeUnit.MILLISECONDS);
+    };
+  }
+
   static TestFunction appendPayloadBasingOnContext(String expectedPayloadKey,
       String updatedPayloadKey, String updatedPayloadValue) {
     return fragmentContext -> {
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  @DisplayName("Expect zero values when nothing is recorded.")
+  void expectZeroWhenEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getValueAtPercentile(99.0, TimeUnit.NANOSECONDS));
+    assertEquals(0.0, histogram.getMean(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  @DisplayName("Expect exact values below the first power of two range.")
+  void expectExactSmallValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    IntStream.rangeClosed(1, 10).forEach(histogram::record);
+
+    assertEquals(5, histogram.getValueAtPercentile(50.0, TimeUnit.NANOSECONDS));
+    assertEquals(10, histogram.getValueAtPercentile(100.0, TimeUnit.NANOSECONDS));
+    assertEquals(10, histogram.getMax(TimeUnit.NANOSECONDS));
+  }
+
+  @Test
+  @DisplayName("Expect percentiles with the relative error below 1/32.")
+  void expectPercentilesWithinRelativeError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    IntStream.rangeClosed(1, 1000).forEach(i -> histogram.record(i * 1_000_000L));
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(500.5, histogram.getMean(TimeUnit.MILLISECONDS), 0.001);
+    assertWithinRelativeError(500, histogram.getValueAtPercentile(50.0, TimeUnit.MILLISECONDS));
+    assertWithinRelativeError(900, histogram.getValueAtPercentile(90.0, TimeUnit.MILLISECONDS));
+    assertWithinRelativeError(990, histogram.getValueAtPercentile(99.0, TimeUnit.MILLISECONDS));
+    assertEquals(1000, histogram.getValueAtPercentile(100.0, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  @DisplayName("Expect each value mapped to the bucket covering it.")
+  void expectBucketCoversValue() {
+    long[] values = {0, 1, 31, 32, 63, 64, 65, 1000, 123_456_789L, Long.MAX_VALUE};
+    for (long value : values) {
+      int bucket = LatencyHistogram.bucketOf(value);
+      assertTrue(LatencyHistogram.highestValueOf(bucket) >= value);
+      assertTrue(bucket == 0 || LatencyHistogram.highestValueOf(bucket - 1) < value);
+    }
+  }
+
+  private void assertWithinRelativeError(long expected, long actual) {
+    assertTrue(Math.abs(actual - expected) <= expected / 32.0,
+        () -> "Expected " + expected + " but was " + actual);
+  }
+}
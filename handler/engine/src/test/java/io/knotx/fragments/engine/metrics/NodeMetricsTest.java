@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.engine.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.knotx.fragments.engine.FragmentsEngine;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.reactivex.core.Vertx;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+@ExtendWith(VertxExtension.class)
+class NodeMetricsTest {
+
+  @Test
+  @DisplayName("Expect registered metrics found and shared by engines.")
+  void expectRegisteredMetricsShared(Vertx vertx) {
+    NodeLatencyHistograms histograms = NodeMetrics.find(NodeLatencyHistograms.class)
+        .orElseThrow(IllegalStateException::new);
+
+    assertSame(histograms, NodeMetrics.load());
+    assertSame(histograms, new FragmentsEngine(vertx).getNodeMetrics());
+  }
+
+  @Test
+  @DisplayName("Expect values recorded by the engine metrics visible in the registered metrics.")
+  void expectRecordedValuesPolled(Vertx vertx) {
+    new FragmentsEngine(vertx).getNodeMetrics()
+        .record("polled-task", "node", "_success", TimeUnit.MILLISECONDS.toNanos(5));
+
+    assertEquals(Long.valueOf(1), NodeMetrics.find(NodeLatencyHistograms.class)
+        .flatMap(histograms -> histograms.getHistogram("polled-task", "node", "_success"))
+        .map(LatencyHistogram::getCount)
+        .orElse(0L));
+  }
+
+  @Test
+  @DisplayName("Expect no metrics found for a not registered type.")
+  void expectNotRegisteredTypeNotFound() {
+    assertFalse(NodeMetrics.find(CustomMetrics.class).isPresent());
+  }
+
+  static class CustomMetrics implements NodeMetrics {
+
+    @Override
+    public void record(String taskName, String nodeId, String transition, long durationNanos) {
+      // nothing to record
+    }
+  }
+}
@@ -32,17 +32,21 @@ project(":knotx-fragments-api").projectDir = file("api")
 include("knotx-fragments-supplier-api")
 include("knotx-fragments-supplier-single-fragment")
 include("knotx-fragments-supplier-html-splitter")
+include("knotx-fragments-supplier-benchmarks")
 project(":knotx-fragments-supplier-api").projectDir = file("supplier/api")
 project(":knotx-fragments-supplier-single-fragment").projectDir = file("supplier/single-fragment")
 project(":knotx-fragments-supplier-html-splitter").projectDir = file("supplier/html-splitter")
+project(":knotx-fragments-supplier-benchmarks").projectDir = file("supplier/benchmarks")
 
 // Handler
 include("knotx-fragments-handler-api")
 include("knotx-fragments-handler-core")
 include("knotx-fragments-engine")
+include("knotx-fragments-handler-benchmarks")
 project(":knotx-fragments-handler-api").projectDir = file("handler/api")
 project(":knotx-fragments-handler-core").projectDir = file("handler/core")
 project(":knotx-fragments-engine").projectDir = file("handler/engine")
+project(":knotx-fragments-handler-benchmarks").projectDir = file("handler/benchmarks")
 
 // Assembler
 include("knotx-fragments-assembler")
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.supplier.api.FragmentsProvisionException;
+import io.knotx.server.api.context.ClientRequest;
+import io.knotx.server.api.context.RequestContext;
+import io.knotx.server.api.context.RequestEvent;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link HtmlFragmentsSupplier#getFragments(RequestContext)}: decoding the template and
+ * splitting it into fragments. See {@link Templates} for the generated template shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HtmlFragmentsSupplierBenchmark {
+
+  @Param({"10240", "102400", "1048576", "10485760"})
+  public int size;
+
+  @Param({"static", "sparse", "dense", "nested", "unclosed"})
+  public String shape;
+
+  @Param({"1", "10"})
+  public int attributes;
+
+  @Param({"regex", "scanner", "buffer"})
+  public String splitter;
+
+  private HtmlFragmentsSupplier supplier;
+  private Buffer template;
+  private RequestContext requestContext;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    if ("buffer".equals(splitter)) {
+      supplier = new HtmlFragmentsSupplier((BufferFragmentSplitter) new HtmlFragmentScanner());
+    } else if ("scanner".equals(splitter)) {
+      supplier = new HtmlFragmentsSupplier((FragmentSplitter) new HtmlFragmentScanner());
+    } else {
+      supplier = new HtmlFragmentsSupplier(new HtmlFragmentSplitter());
+    }
+    template = Buffer.buffer(Templates.generate(shape, size, attributes));
+    requestContext = new RequestContext(new RequestEvent(new ClientRequest(), new JsonObject()));
+  }
+
+  @Benchmark
+  public List<Fragment> getFragments() throws FragmentsProvisionException {
+    // the supplier clears the response body
+    requestContext.getClientResponse().setBody(template);
+    return supplier.getFragments(requestContext);
+  }
+}
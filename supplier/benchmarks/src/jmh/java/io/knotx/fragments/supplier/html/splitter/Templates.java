@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+/**
+ * Generates synthetic HTML templates of the given size.
+ */
+final class Templates {
+
+  private static final int NESTING_DEPTH = 50;
+  private static final int SPARSE_TAG_DISTANCE = 10 * 1024;
+  private static final int DENSE_TAG_DISTANCE = 512;
+
+  private Templates() {
+    // utility class
+  }
+
+  /**
+   * @param shape - {@code static}, {@code sparse}, {@code dense}, {@code nested} or
+   * {@code unclosed}
+   * @param size - the minimum template size in characters
+   * @param attributes - the number of attributes of each {@code <knotx:...>} tag
+   * @return the template
+   */
+  static String generate(String shape, int size, int attributes) {
+    StringBuilder template = new StringBuilder(size + 1024);
+    template.append("<!DOCTYPE html><html><head><title>Benchmark</title></head><body>");
+    while (template.length() < size) {
+      switch (shape) {
+        case "static":
+          nestedStatic(template, DENSE_TAG_DISTANCE);
+          break;
+        case "sparse":
+          staticMarkup(template, SPARSE_TAG_DISTANCE);
+          tag(template, attributes, true);
+          break;
+        case "dense":
+          staticMarkup(template, DENSE_TAG_DISTANCE);
+          tag(template, attributes, true);
+          break;
+        case "nested":
+          openNesting(template);
+          staticMarkup(template, SPARSE_TAG_DISTANCE);
+          tag(template, attributes, true);
+          closeNesting(template);
+          break;
+        case "unclosed":
+          staticMarkup(template, SPARSE_TAG_DISTANCE);
+          tag(template, attributes, false);
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported template shape [" + shape + "]");
+      }
+    }
+    template.append("</body></html>");
+    return template.toString();
+  }
+
+  private static void nestedStatic(StringBuilder template, int length) {
+    openNesting(template);
+    staticMarkup(template, length);
+    closeNesting(template);
+  }
+
+  private static void openNesting(StringBuilder template) {
+    for (int i = 0; i < NESTING_DEPTH; i++) {
+      template.append("<div class=\"level-").append(i).append("\">");
+    }
+  }
+
+  private static void closeNesting(StringBuilder template) {
+    for (int i = 0; i < NESTING_DEPTH; i++) {
+      template.append("</div>");
+    }
+  }
+
+  private static void staticMarkup(StringBuilder template, int length) {
+    int end = template.length() + length;
+    while (template.length() < end) {
+      template.append("<p class=\"text\">Lorem ipsum dolor sit amet, <b>consectetur</b> adipiscing ")
+          .append("elit &gt; sed do eiusmod tempor.</p>\n");
+    }
+  }
+
+  private static void tag(StringBuilder template, int attributes, boolean closed) {
+    template.append("<knotx:snippet");
+    for (int i = 0; i < attributes; i++) {
+      template.append(" data-knotx-attr-").append(i).append("=\"value-").append(i).append('"');
+    }
+    template.append(" data-knotx-task=\"books\">")
+        .append("<div class=\"book\"><h2>{{book.title}}</h2><p>{{book.description}}</p></div>");
+    if (closed) {
+      template.append("</knotx:snippet>");
+    }
+  }
+}
@@ -32,9 +32,11 @@ dependencies {
     implementation(group = "io.vertx", name = "vertx-service-proxy")
     implementation(group = "io.vertx", name = "vertx-rx-java2")
     implementation(group = "org.apache.commons", name = "commons-lang3")
+    implementation(group = "com.google.guava", name = "guava")
 
     testImplementation(group = "org.mockito", name = "mockito-core")
     testImplementation(group = "org.mockito", name = "mockito-junit-jupiter")
+    testImplementation("org.junit.jupiter:junit-jupiter-params")
 }
 
 tasks {
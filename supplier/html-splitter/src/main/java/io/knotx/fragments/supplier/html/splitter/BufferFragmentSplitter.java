@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import io.knotx.fragments.api.Fragment;
+import io.vertx.core.buffer.Buffer;
+import java.util.List;
+
+interface BufferFragmentSplitter {
+
+  /**
+   * Splits a UTF-8 encoded template (markup) into list of fragments (see {@link Fragment}) without
+   * decoding it first.
+   *
+   * @param template - a buffer containing the template content which will be split.
+   * @return list of fragments (see {@link Fragment}).
+   */
+  List<Fragment> split(Buffer template);
+}
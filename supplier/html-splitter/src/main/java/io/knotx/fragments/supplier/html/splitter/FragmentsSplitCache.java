@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.supplier.api.FragmentsProvisionException;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.logging.Logger;
+import io.vertx.core.logging.LoggerFactory;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps fragments of recently split templates, keyed by the 128-bit MurmurHash3 of the template
+ * bytes and the template length. Cached fragments are immutable prototypes: each request gets new
+ * fragments with fresh identifiers, copies of the configurations and empty payloads. Bodies are
+ * shared, as strings or (for the {@code buffer} splitter) not decoded slices of the template.
+ */
+class FragmentsSplitCache implements Shareable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FragmentsSplitCache.class);
+
+  private static final String SHARED_MAP_NAME = "knotx-fragments-split-caches";
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private final Cache<Key, Entry> cache;
+  private final SplitCacheStatistics statistics;
+  private final SplitCacheOptions options;
+  private final boolean bufferBodies;
+
+  FragmentsSplitCache(SplitCacheOptions options, boolean bufferBodies) {
+    this.statistics = SplitCacheStatistics.register(options.getName());
+    this.options = options;
+    this.bufferBodies = bufferBodies;
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+    if (options.getMaximumBytes() > 0) {
+      builder.maximumWeight(options.getMaximumBytes())
+          .weigher((Key key, Entry entry) -> entry.weight);
+    } else {
+      builder.maximumSize(options.getMaximumSize());
+    }
+    this.cache = builder
+        .removalListener((RemovalNotification<Key, Entry> notification) -> statistics
+            .recordRemoval(notification.getValue().weight, notification.wasEvicted()))
+        .build();
+    statistics.attach(cache);
+  }
+
+  /**
+   * Returns the split cache with the name shared by all suppliers (e.g. deployed in many HTTP
+   * server verticle instances) using the same Vert.x instance, so the memory limit and the
+   * statistics cover all of them. The first registered options win.
+   */
+  static FragmentsSplitCache shared(Vertx vertx, SplitCacheOptions options,
+      boolean bufferBodies) {
+    LocalMap<String, FragmentsSplitCache> caches = vertx.sharedData().getLocalMap(SHARED_MAP_NAME);
+    FragmentsSplitCache existing = caches.get(options.getName());
+    if (existing == null) {
+      FragmentsSplitCache cache = new FragmentsSplitCache(options, bufferBodies);
+      existing = caches.putIfAbsent(options.getName(), cache);
+      if (existing == null) {
+        return cache;
+      }
+    }
+    if (!existing.options.toJson().equals(options.toJson())
+        || existing.bufferBodies != bufferBodies) {
+      LOGGER.warn("Split cache [{}] is already registered with options [{}], options [{}] are "
+          + "ignored.", options.getName(), existing.options, options);
+    }
+    return existing;
+  }
+
+  /**
+   * Returns fragments of the template, split with the splitter when the template is not cached.
+   *
+   * @param template - the template to split
+   * @param splitter - splits the template when it is not cached
+   * @return new fragments of the template
+   * @throws FragmentsProvisionException when the splitter fails, failures are not cached
+   */
+  List<Fragment> get(Buffer template, Splitter splitter) throws FragmentsProvisionException {
+    Key key = Key.of(template);
+    Entry entry = cache.getIfPresent(key);
+    if (entry != null) {
+      statistics.recordHit(entry.splitTime);
+      return entry.newFragments();
+    }
+    long startTime = System.nanoTime();
+    List<Fragment> fragments = splitter.split(template);
+    long splitTime = System.nanoTime() - startTime;
+    statistics.recordMiss(splitTime);
+    if (!fragments.isEmpty()) {
+      entry = new Entry(fragments, splitTime, template.length());
+      cache.put(key, entry);
+      statistics.recordPut(entry.weight);
+    }
+    return fragments;
+  }
+
+  SplitCacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  @FunctionalInterface
+  interface Splitter {
+
+    List<Fragment> split(Buffer template) throws FragmentsProvisionException;
+  }
+
+  private static final class Key {
+
+    private final HashCode hash;
+    private final int length;
+
+    private Key(HashCode hash, int length) {
+      this.hash = hash;
+      this.length = length;
+    }
+
+    static Key of(Buffer template) {
+      return new Key(HASH_FUNCTION.hashBytes(template.getByteBuf().nioBuffer()), template.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return length == key.length && hash.equals(key.hash);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(hash, length);
+    }
+  }
+
+  private final class Entry {
+
+    private final List<Prototype> prototypes;
+    private final long splitTime;
+    private final int weight;
+
+    Entry(List<Fragment> fragments, long splitTime, int weight) {
+      List<Prototype> list = new ArrayList<>(fragments.size());
+      fragments.forEach(fragment -> list.add(new Prototype(fragment)));
+      this.prototypes = Collections.unmodifiableList(list);
+      this.splitTime = splitTime;
+      this.weight = weight;
+    }
+
+    List<Fragment> newFragments() {
+      List<Fragment> fragments = new ArrayList<>(prototypes.size());
+      prototypes.forEach(prototype -> fragments.add(prototype.newFragment()));
+      return fragments;
+    }
+  }
+
+  private final class Prototype {
+
+    private final String type;
+    private final JsonObject configuration;
+    private final String body;
+    private final Buffer bodyBuffer;
+
+    Prototype(Fragment fragment) {
+      this.type = fragment.getType();
+      this.configuration = fragment.getConfiguration().copy();
+      this.body = bufferBodies ? null : fragment.getBody();
+      this.bodyBuffer = bufferBodies ? fragment.getBodyAsBuffer() : null;
+    }
+
+    Fragment newFragment() {
+      if (bodyBuffer != null) {
+        return new Fragment(type, configuration.copy(), bodyBuffer);
+      }
+      return new Fragment(type, configuration.copy(), body);
+    }
+  }
+}
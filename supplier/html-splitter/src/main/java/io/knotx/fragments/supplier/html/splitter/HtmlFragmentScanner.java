@@ -0,0 +1,392 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import io.knotx.fragments.api.Fragment;
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Splits a template in a single pass, without regular expressions. It produces the same fragments
+ * as {@link HtmlFragmentSplitter}, also for malformed templates: it finds {@code <knotx:} tags with
+ * indexed search and parses the tag attributes while scanning the tag. Positions of tag ends and
+ * closing tags already searched for are remembered, so unclosed tags do not cause the template to
+ * be scanned again and again.
+ *
+ * <p>A template in a {@link Buffer} is scanned byte by byte without decoding it: all characters
+ * the scanner looks for are ASCII, which never occur inside multi-byte UTF-8 sequences. Fragment
+ * bodies are slices of the template, decoded when they are read for the first time.
+ */
+class HtmlFragmentScanner implements FragmentSplitter, BufferFragmentSplitter {
+
+  private static final String TAG_START = "<knotx:";
+  private static final String CLOSING_TAG_START = "</knotx:";
+  private static final String STATIC_FRAGMENT_TYPE = "_STATIC";
+
+  @Override
+  public List<Fragment> split(String html) {
+    List<Fragment> fragments = new ArrayList<>();
+    if (StringUtils.isNotBlank(html)) {
+      new Scan(new StringTemplate(html)).run(fragments);
+    }
+    return fragments;
+  }
+
+  @Override
+  public List<Fragment> split(Buffer template) {
+    List<Fragment> fragments = new ArrayList<>();
+    if (template != null && !isBlank(template)) {
+      new Scan(new BufferTemplate(template)).run(fragments);
+    }
+    return fragments;
+  }
+
+  private static boolean isBlank(Buffer template) {
+    for (int i = 0; i < template.length(); i++) {
+      byte b = template.getByte(i);
+      if (b < 0) {
+        // non-ASCII whitespaces are rare, decode and check all of them
+        return StringUtils.isBlank(template.toString());
+      } else if (!Character.isWhitespace(b)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static final class Scan {
+
+    private final Template html;
+    private final Map<String, ClosingTag> closingTags = new HashMap<>();
+    private int tagEndFrom = Integer.MAX_VALUE;
+    private int tagEnd;
+
+    // the last matched dynamic fragment
+    private int typeStart;
+    private int typeEnd;
+    private int bodyStart;
+    private int bodyEnd;
+    private int end;
+
+    Scan(Template html) {
+      this.html = html;
+    }
+
+    void run(List<Fragment> fragments) {
+      int idx = 0;
+      int from = 0;
+      int start;
+      while ((start = html.indexOf(TAG_START, from)) >= 0) {
+        if (!match(start)) {
+          from = start + 1;
+          continue;
+        }
+        if (idx < start) {
+          fragments.add(toStatic(idx, start));
+        }
+        fragments.add(toDynamic());
+        idx = end;
+        from = end;
+      }
+      if (idx < html.length()) {
+        fragments.add(toStatic(idx, html.length()));
+      }
+    }
+
+    /**
+     * Matches {@code <knotx:(?<type>\w+)(?<attributes>.*?[^>])>(?<body>.*?)</knotx:\1>} at the
+     * position. As the regular expression does, it tries the longest type first, the attributes
+     * end at the first {@code >} not preceded by {@code >} and the body ends at the first closing
+     * tag.
+     */
+    private boolean match(int start) {
+      typeStart = start + TAG_START.length();
+      int longestTypeEnd = typeStart;
+      while (longestTypeEnd < html.length() && isWordChar(html.charAt(longestTypeEnd))) {
+        longestTypeEnd++;
+      }
+      for (typeEnd = longestTypeEnd; typeEnd > typeStart; typeEnd--) {
+        int attributesEnd = tagEnd(typeEnd + 1);
+        if (attributesEnd < 0) {
+          continue;
+        }
+        String type = html.toString(typeStart, typeEnd);
+        ClosingTag closingTag = closingTags.computeIfAbsent(type, ClosingTag::new);
+        int closingTagStart = closingTag.find(html, attributesEnd + 1);
+        if (closingTagStart >= 0) {
+          bodyStart = attributesEnd + 1;
+          bodyEnd = closingTagStart;
+          end = closingTagStart + closingTag.tag.length();
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * @return the first position of {@code >} not preceded by {@code >} starting from the
+     * position, {@code -1} when there is no such position
+     */
+    private int tagEnd(int from) {
+      if (tagEndFrom <= from && (tagEnd < 0 || from <= tagEnd)) {
+        return tagEnd;
+      }
+      tagEndFrom = from;
+      int i = from;
+      while ((i = html.indexOf('>', i)) >= 0 && html.charAt(i - 1) == '>') {
+        i++;
+      }
+      tagEnd = i;
+      return tagEnd;
+    }
+
+    private Fragment toStatic(int startIdx, int endIdx) {
+      return html.fragment(STATIC_FRAGMENT_TYPE, new JsonObject(), startIdx, endIdx);
+    }
+
+    private Fragment toDynamic() {
+      return html.fragment(html.toString(typeStart, typeEnd),
+          attributes(typeEnd, bodyStart - 1), bodyStart, bodyEnd);
+    }
+
+    /**
+     * Parses the attributes in the same way as {@link HtmlAttributesParser}:
+     * {@code (?<key>[\w\-]+)\s*=\s*(?<value>'((?:\\'|[^'])*)'|"((?:\\"|[^"])*)")}.
+     */
+    private JsonObject attributes(int from, int to) {
+      JsonObject configuration = new JsonObject();
+      int i = from;
+      while (i < to) {
+        if (!isKeyChar(html.charAt(i))) {
+          i++;
+          continue;
+        }
+        int keyEnd = i + 1;
+        while (keyEnd < to && isKeyChar(html.charAt(keyEnd))) {
+          keyEnd++;
+        }
+        int valueStart = skipWhitespaces(keyEnd, to);
+        if (valueStart < to && html.charAt(valueStart) == '=') {
+          valueStart = skipWhitespaces(valueStart + 1, to);
+          int valueEnd = valueStart < to ? valueEnd(valueStart, to) : -1;
+          if (valueEnd >= 0) {
+            configuration
+                .put(html.toString(i, keyEnd), html.toString(valueStart + 1, valueEnd));
+            i = valueEnd + 1;
+            continue;
+          }
+        }
+        // keys starting later within the same word end at the same position, so they fail too
+        i = keyEnd;
+      }
+      return configuration;
+    }
+
+    /**
+     * @return the position of the closing quote of the value starting with a quote at the
+     * position, {@code -1} when the value is not quoted or not closed
+     */
+    private int valueEnd(int valueStart, int to) {
+      char quote = html.charAt(valueStart);
+      if (quote != '\'' && quote != '"') {
+        return -1;
+      }
+      // when there is no closing quote, the regular expression backtracks to the last escaped one
+      int lastEscapedQuote = -1;
+      int i = valueStart + 1;
+      while (i < to) {
+        char c = html.charAt(i);
+        if (c == '\\' && i + 1 < to && html.charAt(i + 1) == quote) {
+          lastEscapedQuote = i + 1;
+          i += 2;
+        } else if (c == quote) {
+          return i;
+        } else {
+          i++;
+        }
+      }
+      return lastEscapedQuote;
+    }
+
+    private int skipWhitespaces(int from, int to) {
+      int i = from;
+      while (i < to && isWhitespace(html.charAt(i))) {
+        i++;
+      }
+      return i;
+    }
+  }
+
+  /**
+   * Closing tag of the type with the result of the last search.
+   */
+  private static final class ClosingTag {
+
+    private final String tag;
+    private int from = Integer.MAX_VALUE;
+    private int position;
+
+    ClosingTag(String type) {
+      this.tag = CLOSING_TAG_START + type + ">";
+    }
+
+    int find(Template html, int fromIndex) {
+      if (from > fromIndex || (position >= 0 && fromIndex > position)) {
+        from = fromIndex;
+        position = html.indexOf(tag, fromIndex);
+      }
+      return position;
+    }
+  }
+
+  /**
+   * Template content with positions counted in {@code char}s or in bytes. Only ASCII characters are
+   * compared, so {@link #charAt(int)} may return any other value for the remaining ones.
+   */
+  private interface Template {
+
+    int length();
+
+    char charAt(int index);
+
+    int indexOf(char c, int fromIndex);
+
+    int indexOf(String ascii, int fromIndex);
+
+    String toString(int from, int to);
+
+    Fragment fragment(String type, JsonObject configuration, int from, int to);
+  }
+
+  private static final class StringTemplate implements Template {
+
+    private final String html;
+
+    StringTemplate(String html) {
+      this.html = html;
+    }
+
+    @Override
+    public int length() {
+      return html.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+      return html.charAt(index);
+    }
+
+    @Override
+    public int indexOf(char c, int fromIndex) {
+      return html.indexOf(c, fromIndex);
+    }
+
+    @Override
+    public int indexOf(String ascii, int fromIndex) {
+      return html.indexOf(ascii, fromIndex);
+    }
+
+    @Override
+    public String toString(int from, int to) {
+      return html.substring(from, to);
+    }
+
+    @Override
+    public Fragment fragment(String type, JsonObject configuration, int from, int to) {
+      return new Fragment(type, configuration, html.substring(from, to));
+    }
+  }
+
+  private static final class BufferTemplate implements Template {
+
+    private final Buffer buffer;
+    private final ByteBuf bytes;
+    private final int length;
+
+    BufferTemplate(Buffer buffer) {
+      this.buffer = buffer;
+      this.bytes = buffer.getByteBuf();
+      this.length = buffer.length();
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return (char) (bytes.getByte(index) & 0xFF);
+    }
+
+    @Override
+    public int indexOf(char c, int fromIndex) {
+      return fromIndex < length ? bytes.indexOf(fromIndex, length, (byte) c) : -1;
+    }
+
+    @Override
+    public int indexOf(String ascii, int fromIndex) {
+      byte first = (byte) ascii.charAt(0);
+      int last = length - ascii.length();
+      int i = fromIndex;
+      while (i <= last && (i = bytes.indexOf(i, last + 1, first)) >= 0) {
+        if (startsWith(ascii, i)) {
+          return i;
+        }
+        i++;
+      }
+      return -1;
+    }
+
+    private boolean startsWith(String ascii, int index) {
+      for (int j = 1; j < ascii.length(); j++) {
+        if (bytes.getByte(index + j) != ascii.charAt(j)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String toString(int from, int to) {
+      return bytes.toString(from, to - from, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Fragment fragment(String type, JsonObject configuration, int from, int to) {
+      return new Fragment(type, configuration, buffer.slice(from, to));
+    }
+  }
+
+  private static boolean isWordChar(char c) {
+    return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+  }
+
+  private static boolean isKeyChar(char c) {
+    return isWordChar(c) || c == '-';
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+}
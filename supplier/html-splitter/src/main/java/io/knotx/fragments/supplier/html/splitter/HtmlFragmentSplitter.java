@@ -24,7 +24,10 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 
-class HtmlFragmentSplitter {
+/**
+ * Splits a template with a regular expression.
+ */
+class HtmlFragmentSplitter implements FragmentSplitter {
 
   private static final String DYNAMIC_FRAGMENT_REGEXP = "<knotx:(?<type>\\w+)(?<attributes>.*?[^>])>(?<body>.*?)</knotx:\\1>";
   private static final Pattern DYNAMIC_FRAGMENT_PATTERN = Pattern
@@ -33,13 +36,8 @@ class HtmlFragmentSplitter {
 
   private HtmlAttributesParser attributesParser = new HtmlAttributesParser();
 
-  /**
-   * Splits a template (markup) into list of fragments (see {@link Fragment}).
-   *
-   * @param html - a string containing the template content which will be split.
-   * @return list of fragments (see {@link Fragment}).
-   */
-  List<Fragment> split(String html) {
+  @Override
+  public List<Fragment> split(String html) {
     List<Fragment> fragments = new ArrayList<>();
     if (StringUtils.isNotBlank(html)) {
       Matcher matcher = DYNAMIC_FRAGMENT_PATTERN.matcher(html);
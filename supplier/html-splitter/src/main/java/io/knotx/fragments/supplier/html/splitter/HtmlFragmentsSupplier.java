@@ -23,6 +23,7 @@ import io.knotx.server.api.context.RequestContext;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.logging.Logger;
 import io.vertx.core.logging.LoggerFactory;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.apache.commons.lang3.StringUtils;
@@ -32,24 +33,60 @@ public class HtmlFragmentsSupplier implements FragmentsSupplier {
   private static final Logger LOGGER = LoggerFactory.getLogger(HtmlFragmentsSupplier.class);
   private static final String MISSING_CLIENT_RESPONSE_BODY = "Template body is missing!";
 
-  private final HtmlFragmentSplitter splitter;
+  private final FragmentSplitter splitter;
+  private final BufferFragmentSplitter bufferSplitter;
+  private final FragmentsSplitCache splitCache;
 
-  HtmlFragmentsSupplier(HtmlFragmentSplitter splitter) {
+  HtmlFragmentsSupplier(FragmentSplitter splitter) {
+    this(splitter, null);
+  }
+
+  HtmlFragmentsSupplier(FragmentSplitter splitter, FragmentsSplitCache splitCache) {
     this.splitter = splitter;
+    this.bufferSplitter = null;
+    this.splitCache = splitCache;
+  }
+
+  HtmlFragmentsSupplier(BufferFragmentSplitter bufferSplitter) {
+    this(bufferSplitter, null);
+  }
+
+  HtmlFragmentsSupplier(BufferFragmentSplitter bufferSplitter, FragmentsSplitCache splitCache) {
+    this.splitter = null;
+    this.bufferSplitter = bufferSplitter;
+    this.splitCache = splitCache;
   }
 
   @Override
   public List<Fragment> getFragments(RequestContext requestContext)
       throws FragmentsProvisionException {
-    List<Fragment> fragments;
     ClientResponse clientResponse = requestContext.getClientResponse();
-    final String template = Optional.ofNullable(clientResponse.getBody()).map(Buffer::toString)
-        .orElse(null);
+    Buffer template = clientResponse.getBody();
+    List<Fragment> fragments = splitCache != null && template != null
+        ? splitCache.get(template, this::split)
+        : split(template);
+    // ToDo configuration, by default clear body
+    clearBody(clientResponse);
+    return fragments;
+  }
+
+  private List<Fragment> split(Buffer template) throws FragmentsProvisionException {
+    return bufferSplitter != null ? splitBuffer(template) : splitString(template);
+  }
+
+  private List<Fragment> splitString(Buffer body) throws FragmentsProvisionException {
+    final String template = Optional.ofNullable(body).map(Buffer::toString).orElse(null);
     if (StringUtils.isNotBlank(template)) {
-      fragments = splitter.split(template);
-      // ToDo configuration, by default clear body
-      clearBody(clientResponse);
-    } else {
+      return splitter.split(template);
+    }
+    LOGGER.warn(MISSING_CLIENT_RESPONSE_BODY);
+    throw new FragmentsProvisionException(MISSING_CLIENT_RESPONSE_BODY);
+  }
+
+  private List<Fragment> splitBuffer(Buffer template) throws FragmentsProvisionException {
+    List<Fragment> fragments =
+        template != null ? bufferSplitter.split(template) : Collections.emptyList();
+    if (fragments.isEmpty()) {
       LOGGER.warn(MISSING_CLIENT_RESPONSE_BODY);
       throw new FragmentsProvisionException(MISSING_CLIENT_RESPONSE_BODY);
     }
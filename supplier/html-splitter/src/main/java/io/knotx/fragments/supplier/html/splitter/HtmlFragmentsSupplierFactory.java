@@ -24,8 +24,6 @@ import io.vertx.reactivex.ext.web.RoutingContext;
 
 public class HtmlFragmentsSupplierFactory implements RoutingHandlerFactory {
 
-  private final HtmlFragmentSplitter splitter = new HtmlFragmentSplitter();
-
   @Override
   public String getName() {
     return "htmlFragmentsSupplier";
@@ -33,7 +31,27 @@ public class HtmlFragmentsSupplierFactory implements RoutingHandlerFactory {
 
   @Override
   public Handler<RoutingContext> create(Vertx vertx, JsonObject config) {
-    return new FragmentsSupplierHandler(new HtmlFragmentsSupplier(splitter));
+    HtmlFragmentsSupplierOptions options = new HtmlFragmentsSupplierOptions(config);
+    return new FragmentsSupplierHandler(createSupplier(vertx, options));
+  }
+
+  private HtmlFragmentsSupplier createSupplier(Vertx vertx, HtmlFragmentsSupplierOptions options) {
+    boolean bufferSplitter = HtmlFragmentsSupplierOptions.BUFFER_SPLITTER
+        .equals(options.getSplitter());
+    FragmentsSplitCache splitCache = options.getSplitCache() == null ? null
+        : FragmentsSplitCache.shared(vertx.getDelegate(), options.getSplitCache(), bufferSplitter);
+    switch (options.getSplitter()) {
+      case HtmlFragmentsSupplierOptions.REGEX_SPLITTER:
+        return new HtmlFragmentsSupplier(new HtmlFragmentSplitter(), splitCache);
+      case HtmlFragmentsSupplierOptions.SCANNER_SPLITTER:
+        return new HtmlFragmentsSupplier((FragmentSplitter) new HtmlFragmentScanner(), splitCache);
+      case HtmlFragmentsSupplierOptions.BUFFER_SPLITTER:
+        return new HtmlFragmentsSupplier((BufferFragmentSplitter) new HtmlFragmentScanner(),
+            splitCache);
+      default:
+        throw new IllegalArgumentException("Unsupported splitter [" + options.getSplitter()
+            + "], expected regex, scanner or buffer.");
+    }
   }
 
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * HTML Fragments Supplier options.
+ */
+@DataObject(generateConverter = true, publicConverter = false)
+public class HtmlFragmentsSupplierOptions {
+
+  static final String REGEX_SPLITTER = "regex";
+  static final String SCANNER_SPLITTER = "scanner";
+  static final String BUFFER_SPLITTER = "buffer";
+
+  private String splitter;
+  private SplitCacheOptions splitCache;
+
+  public HtmlFragmentsSupplierOptions() {
+    init();
+  }
+
+  public HtmlFragmentsSupplierOptions(JsonObject json) {
+    init();
+    if (json != null) {
+      HtmlFragmentsSupplierOptionsConverter.fromJson(json, this);
+    }
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    HtmlFragmentsSupplierOptionsConverter.toJson(this, json);
+    return json;
+  }
+
+  private void init() {
+    this.splitter = REGEX_SPLITTER;
+  }
+
+  public String getSplitter() {
+    return splitter;
+  }
+
+  /**
+   * Sets the implementation that splits the template into fragments: {@code regex} (a regular
+   * expression), {@code scanner} (a single-pass scanner producing the same fragments in linear
+   * time) or {@code buffer} (the same scanner working on the template bytes, without decoding the
+   * template and copying the fragment bodies). By default it is {@code regex}.
+   *
+   * @param splitter the splitter implementation name
+   * @return reference to this, so the API can be used fluently
+   */
+  public HtmlFragmentsSupplierOptions setSplitter(String splitter) {
+    this.splitter = splitter;
+    return this;
+  }
+
+  public SplitCacheOptions getSplitCache() {
+    return splitCache;
+  }
+
+  /**
+   * Sets the split cache options. When set, fragments of split templates are cached, so repeated
+   * templates are not split again. By default the split cache is disabled.
+   *
+   * @param splitCache the split cache options
+   * @return reference to this, so the API can be used fluently
+   */
+  public HtmlFragmentsSupplierOptions setSplitCache(SplitCacheOptions splitCache) {
+    this.splitCache = splitCache;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "HtmlFragmentsSupplierOptions{" +
+        "splitter='" + splitter + '\'' +
+        ", splitCache=" + splitCache +
+        '}';
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import io.vertx.codegen.annotations.DataObject;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Split cache options. The split cache keeps fragments of recently split templates, so repeated
+ * templates are not split again.
+ */
+@DataObject(generateConverter = true, publicConverter = false)
+public class SplitCacheOptions {
+
+  private static final String DEFAULT_NAME = "default";
+  private static final long DEFAULT_MAXIMUM_SIZE = 1000L;
+
+  private String name;
+  private long maximumSize;
+  private long maximumBytes;
+
+  public SplitCacheOptions() {
+    init();
+  }
+
+  public SplitCacheOptions(JsonObject json) {
+    init();
+    if (json != null) {
+      SplitCacheOptionsConverter.fromJson(json, this);
+    }
+  }
+
+  public JsonObject toJson() {
+    JsonObject json = new JsonObject();
+    SplitCacheOptionsConverter.toJson(this, json);
+    return json;
+  }
+
+  private void init() {
+    this.name = DEFAULT_NAME;
+    this.maximumSize = DEFAULT_MAXIMUM_SIZE;
+    this.maximumBytes = 0L;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Sets the name of the cache. Suppliers using the same name in the Vert.x instance share one
+   * cache (created with the options of the first one). The cache statistics are available under
+   * the name (see {@link SplitCacheStatistics#forName(String)}). By default it is {@code default}.
+   *
+   * @param name the split cache name
+   * @return reference to this, so the API can be used fluently
+   */
+  public SplitCacheOptions setName(String name) {
+    this.name = name;
+    return this;
+  }
+
+  public long getMaximumSize() {
+    return maximumSize;
+  }
+
+  /**
+   * Sets the maximum number of cached templates. It is not used when {@code maximumBytes} is set.
+   * By default it is {@code 1000}.
+   *
+   * @param maximumSize the maximum number of cached templates
+   * @return reference to this, so the API can be used fluently
+   */
+  public SplitCacheOptions setMaximumSize(long maximumSize) {
+    this.maximumSize = maximumSize;
+    return this;
+  }
+
+  public long getMaximumBytes() {
+    return maximumBytes;
+  }
+
+  /**
+   * Sets the maximum total size (in bytes) of cached templates. When set (greater than {@code 0}),
+   * it replaces the {@code maximumSize} limit. By default it is not set.
+   *
+   * @param maximumBytes the maximum total size of cached templates in bytes
+   * @return reference to this, so the API can be used fluently
+   */
+  public SplitCacheOptions setMaximumBytes(long maximumBytes) {
+    this.maximumBytes = maximumBytes;
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "SplitCacheOptions{" +
+        "name='" + name + '\'' +
+        ", maximumSize=" + maximumSize +
+        ", maximumBytes=" + maximumBytes +
+        '}';
+  }
+}
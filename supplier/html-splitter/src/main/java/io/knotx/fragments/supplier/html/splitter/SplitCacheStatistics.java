@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import com.google.common.cache.Cache;
+import io.vertx.core.json.JsonObject;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the split cache, identified by the cache name. The counters are updated lock-free,
+ * so they can be polled at any moment, e.g.
+ * <pre>
+ *   SplitCacheStatistics.forName("default")
+ *       .ifPresent(statistics -&gt; LOGGER.info(statistics.toJson()));
+ * </pre>
+ * The saved time is the time of splitting the cached templates summed up for each hit, so it
+ * shows how much CPU time the cache saves.
+ */
+public final class SplitCacheStatistics {
+
+  private static final Map<String, SplitCacheStatistics> REGISTRY = new ConcurrentHashMap<>();
+
+  private final String name;
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+  private final LongAdder totalSplitTime = new LongAdder();
+  private final LongAdder savedSplitTime = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  // caches are held weakly, so statistics do not keep dropped caches in memory
+  private final Set<Cache<?, ?>> caches = Collections
+      .synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private SplitCacheStatistics(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns statistics registered under the cache name, creating them for the first cache with the
+   * name. Statistics of all caches created with the same name are aggregated.
+   */
+  static SplitCacheStatistics register(String name) {
+    return REGISTRY.computeIfAbsent(name, SplitCacheStatistics::new);
+  }
+
+  /**
+   * @param name split cache name
+   * @return statistics of the split cache with the name
+   */
+  public static Optional<SplitCacheStatistics> forName(String name) {
+    return Optional.ofNullable(REGISTRY.get(name));
+  }
+
+  /**
+   * @return statistics of all split caches
+   */
+  public static Collection<SplitCacheStatistics> all() {
+    return Collections.unmodifiableCollection(REGISTRY.values());
+  }
+
+  void attach(Cache<?, ?> cache) {
+    caches.add(cache);
+  }
+
+  void recordHit(long splitTimeNanos) {
+    hitCount.increment();
+    savedSplitTime.add(splitTimeNanos);
+  }
+
+  void recordMiss(long splitTimeNanos) {
+    missCount.increment();
+    totalSplitTime.add(splitTimeNanos);
+  }
+
+  void recordPut(int weight) {
+    bytes.add(weight);
+  }
+
+  void recordRemoval(int weight, boolean evicted) {
+    bytes.add(-weight);
+    if (evicted) {
+      evictionCount.increment();
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * @return the ratio of hits to all lookups, {@code 1.0} when there were no lookups
+   */
+  public double getHitRate() {
+    long hits = getHitCount();
+    long lookups = hits + getMissCount();
+    return lookups == 0 ? 1.0 : (double) hits / lookups;
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /**
+   * @return total time of splitting templates not found in the cache in milliseconds
+   */
+  public long getTotalSplitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(totalSplitTime.sum());
+  }
+
+  /**
+   * @return total time of splitting saved by cache hits in milliseconds
+   */
+  public long getSavedSplitTime() {
+    return TimeUnit.NANOSECONDS.toMillis(savedSplitTime.sum());
+  }
+
+  /**
+   * @return the number of cached templates
+   */
+  public long getSize() {
+    synchronized (caches) {
+      return caches.stream().mapToLong(Cache::size).sum();
+    }
+  }
+
+  /**
+   * @return the total size of cached templates in bytes
+   */
+  public long getBytes() {
+    return bytes.sum();
+  }
+
+  public JsonObject toJson() {
+    return new JsonObject()
+        .put("name", name)
+        .put("hitCount", getHitCount())
+        .put("missCount", getMissCount())
+        .put("hitRate", getHitRate())
+        .put("evictionCount", getEvictionCount())
+        .put("totalSplitTime", getTotalSplitTime())
+        .put("savedSplitTime", getSavedSplitTime())
+        .put("size", getSize())
+        .put("bytes", getBytes());
+  }
+
+  @Override
+  public String toString() {
+    return "SplitCacheStatistics" + toJson().encode();
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.fragments.supplier.api.FragmentsProvisionException;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class FragmentsSplitCacheTest {
+
+  private static final String TEMPLATE =
+      "<p>static</p><knotx:snippet data-knotx-task='task'>body</knotx:snippet>";
+
+  private final HtmlFragmentScanner scanner = new HtmlFragmentScanner();
+  private final AtomicInteger splits = new AtomicInteger();
+
+  @Test
+  @DisplayName("Expect repeated template split once and new fragments returned for each request.")
+  void splitRepeatedTemplateOnce() throws FragmentsProvisionException {
+    // given
+    FragmentsSplitCache tested = new FragmentsSplitCache(
+        new SplitCacheOptions().setName("split-once"), false);
+    List<Fragment> first = tested.get(Buffer.buffer(TEMPLATE), this::split);
+    first.get(1).getConfiguration().put("changed", true);
+    first.get(1).appendPayload("key", "value");
+
+    // when
+    List<Fragment> second = tested.get(Buffer.buffer(TEMPLATE), this::split);
+
+    // then
+    assertEquals(1, splits.get());
+    assertEquals(describe(scanner.split(TEMPLATE)), describe(second));
+    assertNotEquals(first.get(1).getId(), second.get(1).getId());
+    assertTrue(second.get(1).getPayload().isEmpty());
+    assertEquals(1, tested.getStatistics().getHitCount());
+    assertEquals(1, tested.getStatistics().getMissCount());
+    assertEquals(1, tested.getStatistics().getSize());
+    assertEquals(TEMPLATE.length(), tested.getStatistics().getBytes());
+  }
+
+  @Test
+  @DisplayName("Expect cached buffer bodies shared and not decoded.")
+  void shareBufferBodies() throws FragmentsProvisionException {
+    // given
+    FragmentsSplitCache tested = new FragmentsSplitCache(
+        new SplitCacheOptions().setName("buffer-bodies"), true);
+    List<Fragment> first = tested.get(Buffer.buffer(TEMPLATE), this::splitBuffer);
+
+    // when
+    List<Fragment> second = tested.get(Buffer.buffer(TEMPLATE), this::splitBuffer);
+
+    // then
+    assertSame(first.get(0).getBodyAsBuffer(), second.get(0).getBodyAsBuffer());
+    assertEquals("body", second.get(1).getBody());
+  }
+
+  @Test
+  @DisplayName("Expect different templates split separately.")
+  void splitDifferentTemplates() throws FragmentsProvisionException {
+    // given
+    FragmentsSplitCache tested = new FragmentsSplitCache(
+        new SplitCacheOptions().setName("different"), false);
+
+    // when
+    tested.get(Buffer.buffer(TEMPLATE), this::split);
+    List<Fragment> fragments = tested.get(Buffer.buffer(TEMPLATE + " "), this::split);
+
+    // then
+    assertEquals(2, splits.get());
+    assertEquals(describe(scanner.split(TEMPLATE + " ")), describe(fragments));
+  }
+
+  @Test
+  @DisplayName("Expect templates evicted above the byte limit.")
+  void evictAboveByteLimit() throws FragmentsProvisionException {
+    // given
+    FragmentsSplitCache tested = new FragmentsSplitCache(
+        new SplitCacheOptions().setName("bytes").setMaximumBytes(TEMPLATE.length() - 1), false);
+
+    // when
+    tested.get(Buffer.buffer(TEMPLATE), this::split);
+    tested.get(Buffer.buffer(TEMPLATE), this::split);
+
+    // then
+    assertEquals(2, splits.get());
+    assertEquals(0, tested.getStatistics().getSize());
+    assertEquals(0, tested.getStatistics().getBytes());
+  }
+
+  @Test
+  @DisplayName("Expect split failures not cached.")
+  void notCacheFailures() {
+    // given
+    FragmentsSplitCache tested = new FragmentsSplitCache(
+        new SplitCacheOptions().setName("failures"), false);
+
+    // then
+    assertThrows(FragmentsProvisionException.class,
+        () -> tested.get(Buffer.buffer(" "), this::fail));
+    assertEquals(0, tested.getStatistics().getSize());
+  }
+
+  @Test
+  @DisplayName("Expect one cache and statistics shared by all suppliers with the cache name.")
+  void shareCacheByName() throws FragmentsProvisionException {
+    Vertx vertx = Vertx.vertx();
+    try {
+      // given
+      SplitCacheOptions options = new SplitCacheOptions().setName("shared");
+      FragmentsSplitCache first = FragmentsSplitCache.shared(vertx, options, false);
+      FragmentsSplitCache second = FragmentsSplitCache.shared(vertx, options, false);
+
+      // when
+      first.get(Buffer.buffer(TEMPLATE), this::split);
+      second.get(Buffer.buffer(TEMPLATE), this::split);
+
+      // then
+      assertSame(first, second);
+      assertEquals(1, splits.get());
+      SplitCacheStatistics statistics = SplitCacheStatistics.forName("shared")
+          .orElseThrow(IllegalStateException::new);
+      assertEquals(1, statistics.getHitCount());
+      assertEquals(1, statistics.getMissCount());
+      assertEquals(1, statistics.getSize());
+    } finally {
+      vertx.close();
+    }
+  }
+
+  private List<Fragment> split(Buffer template) {
+    splits.incrementAndGet();
+    return scanner.split(template.toString());
+  }
+
+  private List<Fragment> splitBuffer(Buffer template) {
+    splits.incrementAndGet();
+    return scanner.split(template);
+  }
+
+  private List<Fragment> fail(Buffer template) throws FragmentsProvisionException {
+    throw new FragmentsProvisionException("blank");
+  }
+
+  private String describe(List<Fragment> fragments) {
+    StringBuilder description = new StringBuilder();
+    fragments.forEach(fragment -> description.append(fragment.getType()).append('|')
+        .append(fragment.getConfiguration().encode()).append('|')
+        .append(fragment.getBody()).append('\n'));
+    return description.toString();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2019 Knot.x Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.knotx.fragments.supplier.html.splitter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.knotx.fragments.api.Fragment;
+import io.knotx.junit5.util.FileReader;
+import io.vertx.core.buffer.Buffer;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class HtmlFragmentScannerTest {
+
+  private final HtmlFragmentSplitter regexSplitter = new HtmlFragmentSplitter();
+  private final HtmlFragmentScanner tested = new HtmlFragmentScanner();
+
+  @DisplayName("Expect the same fragments as the regex splitter for templates.")
+  @ParameterizedTest
+  @ValueSource(strings = {"static-fragment.html", "dynamic-fragment.html", "many-fragments.html"})
+  void expectSameFragmentsForTemplates(String fileName) throws IOException {
+    assertSameFragments(FileReader.readText(fileName));
+  }
+
+  @DisplayName("Expect the same fragments as the regex splitter for malformed markup.")
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "",
+      "   ",
+      "<knotx:snippet>body</knotx:snippet>",
+      "<knotx:snippet data-knotx-task=\"task\">body</knotx:snippet>",
+      "static <knotx:a x='1'>A</knotx:a> static <knotx:b y=\"2\">B</knotx:b> static",
+      "<knotx:snippet data-knotx-task='task'>body",
+      "<knotx:snippet data-knotx-task='task'>body</knotx:snippe>",
+      "<knotx:snippet data-knotx-task='task'>body</knotx:snippet",
+      "<knotx:snippet>>body</knotx:snippet>",
+      "<knotx:snippet>>body</knotx:snippe>",
+      "<knotx:snippet x='a>b'>body</knotx:snippet>",
+      "<knotx:snippet x='a\\'b'>body</knotx:snippet>",
+      "<knotx:snippet x='a\\'>body</knotx:snippet>",
+      "<knotx:snippet x=\"a\\\"b\" y = 'c' z='d>body</knotx:snippet>",
+      "<knotx:snippet data-a-b_c='1' x y='2'>body</knotx:snippet>",
+      "<knotx:snippet a='1' a='2'>body</knotx:snippet>",
+      "<knotx:outer><knotx:inner>body</knotx:inner></knotx:outer>",
+      "<knotx:a><knotx:a>body</knotx:a></knotx:a>",
+      "<knotx:>body</knotx:>",
+      "<knotx:-x>body</knotx:-x>",
+      "<knotx:snippet\n data-knotx-task='task'\n>\nbody\n</knotx:snippet>",
+      "<knotx:snippet <knotx:snippet x='1'>body</knotx:snippet>",
+      "<knotx:a <knotx:b>body</knotx:b> </knotx:a>",
+      "</knotx:snippet><knotx:snippet>",
+      "<knotx:snippet",
+      "\u00A0\u2003",
+      "<p>\u017C\u00F3\u0142w</p><knotx:snippet x='\u20AC>'>\uD83D\uDE00</knotx:snippet>\u00E9",
+      "<knotx:snippet\u00E9 x='1'>body</knotx:snippet\u00E9>",
+      "<knotx:snippet x='\u0105\\'>\u0107</knotx:snippet>"
+  })
+  void expectSameFragmentsForMalformedMarkup(String html) {
+    assertSameFragments(html);
+  }
+
+  @DisplayName("Expect the same fragments as the regex splitter for many unclosed tags.")
+  @Test
+  void expectSameFragmentsForUnclosedTags() {
+    StringBuilder html = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      html.append("<p>static</p><knotx:snippet data-knotx-task='task'>body");
+    }
+    html.append("<knotx:snippet>body</knotx:snippet>");
+
+    assertSameFragments(html.toString());
+  }
+
+  private void assertSameFragments(String html) {
+    List<String> expected = describe(regexSplitter.split(html));
+    assertEquals(expected, describe(tested.split(html)));
+    assertEquals(expected, describe(tested.split(Buffer.buffer(html))));
+  }
+
+  private List<String> describe(List<Fragment> fragments) {
+    return fragments.stream()
+        .map(fragment -> fragment.getType() + "|" + fragment.getConfiguration().encode() + "|"
+            + fragment.getBody())
+        .collect(Collectors.toList());
+  }
+}
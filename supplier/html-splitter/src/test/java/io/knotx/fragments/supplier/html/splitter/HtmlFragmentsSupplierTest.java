@@ -108,4 +108,34 @@ class HtmlFragmentsSupplierTest {
     // then
     verify(clientResponse).setBody(null);
   }
+
+  @Test
+  @DisplayName("Expect FragmentsProvisionException when template buffer is blank")
+  void handleBlankTemplateBuffer() {
+    // given
+    tested = new HtmlFragmentsSupplier((BufferFragmentSplitter) new HtmlFragmentScanner());
+    when(clientResponse.getBody()).thenReturn(Buffer.buffer(" \n\t"));
+
+    // then
+    assertThrows(FragmentsProvisionException.class, () -> tested.getFragments(requestContext));
+  }
+
+  @Test
+  @DisplayName("Expect fragment bodies sliced from the template buffer")
+  void splitTemplateBuffer() throws FragmentsProvisionException {
+    // given
+    tested = new HtmlFragmentsSupplier((BufferFragmentSplitter) new HtmlFragmentScanner());
+    when(clientResponse.getBody())
+        .thenReturn(Buffer.buffer("<p>\u20AC</p><knotx:snippet x='1'>\u00E9</knotx:snippet>"));
+
+    // when
+    List<Fragment> fragments = tested.getFragments(requestContext);
+
+    // then
+    assertEquals(2, fragments.size());
+    assertEquals(Buffer.buffer("<p>\u20AC</p>"), fragments.get(0).getBodyAsBuffer());
+    assertEquals("\u00E9", fragments.get(1).getBody());
+    assertEquals("1", fragments.get(1).getConfiguration().getString("x"));
+    verify(clientResponse).setBody(null);
+  }
 }
\ No newline at end of file